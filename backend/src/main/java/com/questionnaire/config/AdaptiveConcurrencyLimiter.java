@@ -0,0 +1,97 @@
+package com.questionnaire.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptiv grænse for antal samtidige requests (AIMD)
+ * Grænsen øges med ca. 1 for hver "limit" requests der svarer hurtigere end latency-tærsklen
+ * (additive increase) og ganges med 0.9 når en request er langsommere (multiplicative decrease),
+ * så antallet af ventende Tomcat tråde følger hvad Mongo kan klare. Grænsen sænkes højst én gang pr. vindue:
+ * kun langsomme requests der er startet efter sidste sænkning tæller, så en burst af langsomme
+ * requests (der alle så den samme overbelastning) ikke sender grænsen direkte ned til minimum.
+ * Hver prioritet må kun bruge en andel af grænsen, så lav prioritet afvises først.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL(1.0),   // Borgerens indsendelser
+        NORMAL(0.8),     // Navigation i wizarden m.m.
+        LOW(0.5);        // Rådgiverens analyser
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    /**
+     * Forsøger at starte en request
+     * @return true hvis requesten må køre (kald derefter onComplete), false hvis den skal afvises
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Afslutter en request og justerer grænsen ud fra dens svartid
+     */
+    public void onComplete(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                long startedAt = now - latencyNanos;
+                if (!decreased || startedAt - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+                    lastDecreaseNanos = now;
+                    decreased = true;
+                }
+            } else if (current * 2 >= limit) {
+                // Øg kun når grænsen faktisk er i brug, så den ikke vokser ubegrænset i stille perioder
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    /**
+     * Afslutter en request uden at bruge svartiden (fx en SSE forbindelse der fortsætter asynkront)
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,75 @@
+package com.questionnaire.config;
+
+import com.questionnaire.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Afgrænset thread pool til én arbejdsbyrde (fx rådgiverens tunge læsninger)
+ * Fast antal tråde og en begrænset kø, så en stor eksport kun kan optage sin egen pulje -
+ * ikke Tomcats request tråde som borgerens indsendelser kører på. Er køen fuld afvises
+ * opgaven med BulkheadFullException (503 + Retry-After).
+ */
+public class Bulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bulkhead.class);
+
+    private final String name;
+    private final int retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public Bulkhead(String name, int threads, int queueCapacity, int retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("bulkhead.queue", executor, pool -> pool.getQueue().size())
+                .description("Opgaver der venter i bulkheadens kø")
+                .tag("workload", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Tråde der arbejder i bulkheaden")
+                .tag("workload", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bulkhead.rejected")
+                .description("Opgaver afvist fordi bulkheadens kø var fuld")
+                .tag("workload", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Kører opgaven i bulkheadens egne tråde
+     * @throws BulkheadFullException hvis alle tråde er optaget og køen er fuld
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Bulkhead '{}' er fuld ({} i kø) - afviser opgave", name, executor.getQueue().size());
+            throw new BulkheadFullException("Serveren er optaget - prøv igen om lidt", retryAfterSeconds);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
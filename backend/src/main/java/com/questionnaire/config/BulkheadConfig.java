@@ -0,0 +1,44 @@
+package com.questionnaire.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bulkheads pr. arbejdsbyrde
+ * Rådgiverens tunge endpoints (brugerlister, søvndata, kohorte, røde flag) kører i en afgrænset pulje,
+ * så borgerens indsendelser beholder Tomcats request tråde (se også mongodb.analytics.* i MongoConfig).
+ */
+@Configuration
+public class BulkheadConfig {
+
+    /**
+     * Endpoints der kører i advisorBulkhead (undtaget fra concurrency limiteren)
+     */
+    public static final String[] ADVISOR_BULKHEAD_PATHS = {
+        "/api/users",
+        "/api/users/citizens",
+        "/api/users/red-flags",
+        "/api/users/*/sleep-data",
+        "/api/users/advisors/*/cohort"
+    };
+
+    @Value("${bulkhead.advisor.threads:4}")
+    private int advisorThreads;
+
+    @Value("${bulkhead.advisor.queue-capacity:20}")
+    private int advisorQueueCapacity;
+
+    @Value("${bulkhead.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead advisorBulkhead() {
+        return new Bulkhead("advisor", advisorThreads, advisorQueueCapacity, retryAfterSeconds, meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.questionnaire.config;
+
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.repository.QuestionRepository;
+import com.questionnaire.utils.ColorCodeClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engangs-backfill af farvekoder for aftenbesvarelser gemt før klassificeringen blev indført
+ * Besvarelser uden hasRed feltet klassificeres med de nuværende spørgsmål (inkl. slettede),
+ * så de også findes af red-flags forespørgslen. Kører ved opstart og er idempotent:
+ * når alle besvarelser har fået feltet, finder forespørgslen ingenting.
+ */
+@Component
+public class ColorCodeBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColorCodeBackfill.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Map<String, List<Question>> questionsByQuestionnaire = new HashMap<>();
+        int updated = 0;
+        List<Response> batch;
+        // Hver runde sætter hasRed på alle fundne besvarelser, så næste forespørgsel finder de næste
+        while (!(batch = findUnclassified()).isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class);
+            for (Response response : batch) {
+                List<Question> questions = questionsByQuestionnaire.computeIfAbsent(response.getQuestionnaireId(),
+                        questionRepository::findAllByQuestionnaireIdIncludingDeleted);
+                AnswerSet answers = AnswerSet.parse(questions, response.getAnswers());
+                Map<String, String> colorCodes = ColorCodeClassifier.classify(QuestionnaireType.evening, questions, answers);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(response.getId())), new Update()
+                        .set("colorCodes", colorCodes)
+                        .set("hasRed", colorCodes.containsValue(ColorCodeClassifier.RED)));
+            }
+            bulk.execute();
+            updated += batch.size();
+        }
+        if (updated > 0) {
+            logger.info("Farvekoder tilføjet til {} eksisterende aftenbesvarelser", updated);
+        }
+    }
+
+    private List<Response> findUnclassified() {
+        Query query = Query.query(Criteria.where("questionnaireType").is(QuestionnaireType.evening)
+                .and("hasRed").exists(false)).limit(BATCH_SIZE);
+        query.fields().include("questionnaireId", "questionnaireType", "answers");
+        return mongoTemplate.find(query, Response.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.questionnaire.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptiv concurrency limiting foran controllerne
+ * Registreres før rate limiteren, så en overbelastet instans afviser med det samme.
+ * Endpoints der kører i advisorBulkhead er undtaget - de begrænses af bulkheadens tråde og kø,
+ * og deres arbejde sker først efter requesten er gået async.
+ */
+@Configuration
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    @Value("${api.concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${api.concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${api.concurrency-limit.min-limit:5}")
+    private int minLimit;
+
+    @Value("${api.concurrency-limit.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${api.concurrency-limit.latency-threshold-ms:500}")
+    private long latencyThresholdMs;
+
+    @Value("${api.concurrency-limit.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(adaptiveConcurrencyLimiter(), retryAfterSeconds, meterRegistry))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns(BulkheadConfig.ADVISOR_BULKHEAD_PATHS)
+                .excludePathPatterns("/api/auth/**") // Login må ikke afvises, ellers kan ingen komme ind under last
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
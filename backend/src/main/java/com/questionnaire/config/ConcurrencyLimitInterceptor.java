@@ -0,0 +1,96 @@
+package com.questionnaire.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Afviser requests med 503 og Retry-After når den adaptive grænse for samtidige requests er nået
+ * Borgerens indsendelser har højest prioritet, derefter navigation i wizarden og til sidst rådgiverens analyser.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int retryAfterSeconds;
+    private final Map<AdaptiveConcurrencyLimiter.Priority, Counter> rejected = new EnumMap<>(AdaptiveConcurrencyLimiter.Priority.class);
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, int retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        meterRegistry.gauge("api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("api.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight);
+        for (AdaptiveConcurrencyLimiter.Priority priority : AdaptiveConcurrencyLimiter.Priority.values()) {
+            rejected.put(priority, Counter.builder("api.concurrency.rejected")
+                    .description("Requests afvist af concurrency limiteren")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(START_ATTRIBUTE) != null) {
+            return true; // Requesten blev talt med (og målt) ved den oprindelige dispatch
+        }
+        AdaptiveConcurrencyLimiter.Priority priority = classify(request);
+        if (!limiter.tryAcquire(priority)) {
+            rejected.get(priority).increment();
+            logger.warn("Concurrency limit nået ({} samtidige) - afviser {} {} ({})",
+                    limiter.getInFlight(), request.getMethod(), request.getRequestURI(), priority);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            limiter.onComplete(System.nanoTime() - (Long) start);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Asynkrone requests (fx SSE) holder ikke en plads mens de venter
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            limiter.release();
+        }
+    }
+
+    /**
+     * Bestemmer requestens prioritet ud fra metode og sti
+     */
+    static AdaptiveConcurrencyLimiter.Priority classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        if ("POST".equals(method) && (path.equals("/api/responses") || path.equals("/api/responses/batch")
+                || (path.startsWith("/api/drafts/") && path.endsWith("/submit")))) {
+            return AdaptiveConcurrencyLimiter.Priority.CRITICAL;
+        }
+        if (path.startsWith("/api/users") || path.startsWith("/api/responses/review")
+                || ("GET".equals(method) && path.equals("/api/responses"))) {
+            return AdaptiveConcurrencyLimiter.Priority.LOW;
+        }
+        return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+    }
+}
@@ -2,7 +2,8 @@ package com.questionnaire.config;
 
 import com.questionnaire.model.*;
 import com.questionnaire.repository.QuestionRepository;
-import com.questionnaire.repository.QuestionnaireRepository;
+import com.questionnaire.service.QuestionnaireRegistry;
+import com.questionnaire.service.QuestionnaireVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -14,30 +15,26 @@ import java.util.List;
 public class DatabaseSeeder implements CommandLineRunner {
 
     @Autowired
-    private QuestionnaireRepository questionnaireRepository;
+    private QuestionnaireRegistry questionnaireRegistry;
 
     @Autowired
     private QuestionRepository questionRepository;
 
+    @Autowired
+    private QuestionnaireVersionService versionService;
+
     @Override
     public void run(String... args) throws Exception {
-        // Opret morgenskema hvis det ikke findes
-        Questionnaire morningQuestionnaire = questionnaireRepository.findByType(QuestionnaireType.morning)
-                .orElseGet(() -> {
-                    Questionnaire q = new Questionnaire(QuestionnaireType.morning, "Morgenskema");
-                    return questionnaireRepository.save(q);
-                });
+        // Opret morgen- og aftenskema hvis de ikke findes (atomisk upsert på unikt indeks)
+        // Aftenskemaet oprettes tomt og kan redigeres af rådgivere
+        questionnaireRegistry.initialize();
+        String morningQuestionnaireId = questionnaireRegistry.getId(QuestionnaireType.morning);
 
         // Slet alle eksisterende spørgsmål for morgenskemaet og opret nye
-        deleteExistingMorningQuestions(morningQuestionnaire.getId());
-        seedMorningQuestions(morningQuestionnaire.getId());
-
-        // Opret aftenskema hvis det ikke findes (tomt, kan redigeres af rådgivere)
-        questionnaireRepository.findByType(QuestionnaireType.evening)
-                .orElseGet(() -> {
-                    Questionnaire q = new Questionnaire(QuestionnaireType.evening, "Aftenskema");
-                    return questionnaireRepository.save(q);
-                });
+        deleteExistingMorningQuestions(morningQuestionnaireId);
+        seedMorningQuestions(morningQuestionnaireId);
+        // Spørgsmålene har fået nye ID'er, så morgenskemaet får en ny version
+        versionService.bump(morningQuestionnaireId);
     }
 
     private void seedMorningQuestions(String questionnaireId) {
@@ -7,33 +7,98 @@ import com.mongodb.ServerApiVersion;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import io.github.cdimascio.dotenv.Dotenv;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MongoConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
 
+    @Value("${mongodb.pool.max-size:100}")
+    private int maxPoolSize;
+
+    @Value("${mongodb.analytics.max-pool-size:10}")
+    private int analyticsMaxPoolSize;
+
+    @Value("${mongodb.analytics.max-wait-ms:2000}")
+    private long analyticsMaxWaitMs;
+
+    /**
+     * Klienten til borgerens flows og alt andet der ikke er rådgiveranalyse
+     */
     @Bean
     @Primary
     public MongoClient mongoClient() {
-        String connectionString = getMongoConnectionString();
-        
+        MongoClient client = createClient(maxPoolSize, null);
+        logger.info("MongoDB client configured successfully");
+        return client;
+    }
+
+    /**
+     * Separat klient med egen (mindre) connection pool til rådgiverens tunge læsninger
+     * Er puljen opbrugt venter en analyse højst analyticsMaxWaitMs, mens borgerens
+     * indsendelser stadig har hele den primære pulje.
+     */
+    @Bean
+    public MongoClient analyticsMongoClient() {
+        MongoClient client = createClient(analyticsMaxPoolSize, analyticsMaxWaitMs);
+        logger.info("MongoDB analytics client configured (pool {})", analyticsMaxPoolSize);
+        return client;
+    }
+
+    /**
+     * Standard MongoTemplate (repositories og services) på den primære klient
+     * Skal erklæres her, da Spring Boot ikke opretter sin egen når analyticsMongoTemplate findes
+     */
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        return new MongoTemplate(databaseFactory, converter);
+    }
+
+    /**
+     * MongoTemplate på analytics klienten (samme database som den primære)
+     */
+    @Bean
+    public MongoTemplate analyticsMongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        String databaseName = databaseFactory.getMongoDatabase().getName();
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(analyticsMongoClient(), databaseName), converter);
+    }
+
+    private MongoClient createClient(int poolSize, Long maxWaitMs) {
+        return MongoClients.create(clientSettings(getMongoConnectionString(), poolSize, maxWaitMs));
+    }
+
+    /**
+     * Klientindstillinger med egen connection pool størrelse
+     * @param maxWaitMs Hvor længe en forespørgsel højst venter på en forbindelse (null for driverens standard)
+     */
+    public static MongoClientSettings clientSettings(String connectionString, int poolSize, Long maxWaitMs) {
         ServerApi serverApi = ServerApi.builder()
                 .version(ServerApiVersion.V1)
                 .build();
 
-        MongoClientSettings settings = MongoClientSettings.builder()
+        return MongoClientSettings.builder()
                 .applyConnectionString(new ConnectionString(connectionString))
+                .applyToConnectionPoolSettings(pool -> {
+                    pool.maxSize(poolSize);
+                    if (maxWaitMs != null) {
+                        pool.maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS);
+                    }
+                })
                 .serverApi(serverApi)
                 .build();
-
-        logger.info("MongoDB client configured successfully");
-        return MongoClients.create(settings);
     }
 
     private String getMongoConnectionString() {
@@ -0,0 +1,69 @@
+package com.questionnaire.config;
+
+import com.questionnaire.model.Draft;
+import com.questionnaire.model.IdempotencyRecord;
+import com.questionnaire.model.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Opretter de indekser forespørgslerne er afhængige af
+ * Spring Boot opretter ikke indekser automatisk, så de sikres her ved opstart (ensureIndex er idempotent)
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        // Dagstjek og historik pr. bruger og spørgeskematype
+        mongoTemplate.indexOps(Response.class).ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("questionnaireType", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("user_type_createdAt"));
+
+        // Triage: borgere med røde svar inden for de sidste dage (kun røde besvarelser indekseres)
+        mongoTemplate.indexOps(Response.class).ensureIndex(new Index()
+                .on("hasRed", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("userId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("hasRed").is(true)))
+                .named("red_createdAt_user"));
+
+        // Outbox: recovery-sweepet finder besvarelser med ubehandlede events (kun de indekseres)
+        mongoTemplate.indexOps(Response.class).ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("pendingEvents").exists(true)))
+                .named("pendingEvents_createdAt"));
+
+        // Kladder slettes af Mongo når expiresAt er passeret
+        mongoTemplate.indexOps(Draft.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .named("expiresAt_ttl"));
+
+        // Idempotency-Key nøgler (kun brugt når responses.idempotency.store=mongo)
+        mongoTemplate.indexOps(IdempotencyRecord.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .named("expiresAt_ttl"));
+
+        logger.info("MongoDB indekser sikret");
+    }
+}
@@ -21,6 +21,8 @@ public class QuestionnaireConstants {
     // Validation limits
     public static final int MAX_TEXT_LENGTH = 200;
     public static final int MIN_PASSWORD_LENGTH = 8;
+    public static final int MAX_BATCH_RESPONSES = 500; // Maks antal besvarelser i én batch-indsendelse
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
     
     // Time format
     public static final String TIME_FORMAT = "HH:mm";
@@ -28,6 +30,10 @@ public class QuestionnaireConstants {
     // Copenhagen timezone
     public static final String COPENHAGEN_TIMEZONE = "Europe/Copenhagen";
     
+    // Supported languages (første er standard)
+    public static final String LANGUAGE_DA = "da";
+    public static final String LANGUAGE_EN = "en";
+    
     // Questionnaire type string constants
     public static final String QUESTIONNAIRE_TYPE_MORNING = "morning";
     public static final String QUESTIONNAIRE_TYPE_EVENING = "evening";
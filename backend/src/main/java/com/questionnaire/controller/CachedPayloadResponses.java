@@ -0,0 +1,86 @@
+package com.questionnaire.controller;
+
+import com.questionnaire.service.QuestionnairePayloadCache.CachedPayload;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Hjælpeklasse til at returnere cachede JSON payloads med ETag og 304 Not Modified
+ */
+final class CachedPayloadResponses {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private CachedPayloadResponses() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Bygger svaret for en cachet payload
+     * @param payload Den cachede payload
+     * @param ifNoneMatch Værdien af If-None-Match headeren (kan være null)
+     * @param acceptEncoding Værdien af Accept-Encoding headeren (kan være null)
+     * @return 304 hvis klientens ETag matcher, ellers 200 med JSON (gzip hvis klienten understøtter det)
+     */
+    static ResponseEntity<byte[]> of(CachedPayload payload, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? payload.getGzipEtag() : payload.getEtag();
+
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return builder.body(payload.getJson());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if ("gzip".equalsIgnoreCase(tokens[0].trim())) {
+                // "gzip;q=0" betyder at klienten ikke vil have gzip
+                return tokens.length < 2 || !tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match er en kommasepareret liste og bruger svag sammenligning (RFC 9110),
+     * så W/ præfikset fjernes før taggene sammenlignes
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaqueEtag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || opaqueEtag.equals(stripWeak(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2).trim() : tag;
+    }
+}
@@ -0,0 +1,76 @@
+package com.questionnaire.controller;
+
+import com.questionnaire.dto.DraftAnswerRequest;
+import com.questionnaire.dto.QuestionnaireProgress;
+import com.questionnaire.model.Draft;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.Response;
+import com.questionnaire.model.User;
+import com.questionnaire.service.interfaces.IDraftService;
+import com.questionnaire.service.interfaces.IUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/drafts")
+@CrossOrigin(origins = "*")
+public class DraftController {
+
+    @Autowired
+    private IDraftService draftService;
+
+    @Autowired
+    private IUserService userService;
+
+    @GetMapping("/{questionnaireId}")
+    public ResponseEntity<Draft> getDraft(@PathVariable String questionnaireId, Authentication authentication) {
+        return draftService.getDraft(currentUserId(authentication), questionnaireId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/{questionnaireId}/progress")
+    public ResponseEntity<QuestionnaireProgress> getProgress(@PathVariable String questionnaireId, Authentication authentication) {
+        return ResponseEntity.ok(draftService.getProgress(currentUserId(authentication), questionnaireId));
+    }
+
+    @PostMapping("/{questionnaireId}/answers")
+    public ResponseEntity<Question> answer(
+            @PathVariable String questionnaireId,
+            @RequestBody DraftAnswerRequest request,
+            @RequestParam(required = false, defaultValue = "da") String language,
+            Authentication authentication) {
+        Question nextQuestion = draftService.answer(
+                currentUserId(authentication),
+                questionnaireId,
+                request.getQuestionId(),
+                request.getAnswer(),
+                language
+        );
+
+        if (nextQuestion == null) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(nextQuestion);
+    }
+
+    @PostMapping("/{questionnaireId}/submit")
+    public ResponseEntity<Response> submit(@PathVariable String questionnaireId, Authentication authentication) {
+        return ResponseEntity.ok(draftService.submit(currentUserId(authentication), questionnaireId));
+    }
+
+    @DeleteMapping("/{questionnaireId}")
+    public ResponseEntity<Void> discard(@PathVariable String questionnaireId, Authentication authentication) {
+        draftService.discard(currentUserId(authentication), questionnaireId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private String currentUserId(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Bruger ikke fundet"));
+        return user.getId();
+    }
+}
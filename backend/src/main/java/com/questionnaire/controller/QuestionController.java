@@ -1,8 +1,15 @@
 package com.questionnaire.controller;
 
+import com.questionnaire.dto.ReorderQuestionsRequest;
 import com.questionnaire.model.Question;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.service.QuestionnairePayloadCache;
+import com.questionnaire.service.QuestionnairePayloadCache.CachedPayload;
 import com.questionnaire.service.interfaces.IQuestionService;
+import com.questionnaire.service.interfaces.IQuestionnaireService;
+import com.questionnaire.utils.LanguageNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +25,12 @@ public class QuestionController {
     @Autowired
     private IQuestionService questionService;
 
+    @Autowired
+    private QuestionnairePayloadCache payloadCache;
+
+    @Autowired
+    private IQuestionnaireService questionnaireService;
+
     @PostMapping
     public ResponseEntity<Question> createQuestion(@RequestBody Question question) {
         Question created = questionService.createQuestion(question);
@@ -37,6 +50,12 @@ public class QuestionController {
         }
     }
 
+    @PutMapping("/reorder")
+    public ResponseEntity<List<Question>> reorderQuestions(@RequestBody ReorderQuestionsRequest request) {
+        List<Question> questions = questionService.reorderQuestions(request.getQuestionnaireId(), request.getQuestionIds());
+        return ResponseEntity.ok(questions);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteQuestion(@PathVariable String id) {
         try {
@@ -51,18 +70,27 @@ public class QuestionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Question>> getQuestions(
+    public ResponseEntity<byte[]> getQuestions(
             @RequestParam(required = false) String questionnaireId,
             @RequestParam(required = false, defaultValue = "da") String language,
-            @RequestParam(required = false, defaultValue = "false") boolean includeDeleted) {
+            @RequestParam(required = false, defaultValue = "false") boolean includeDeleted,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         if (questionnaireId != null) {
-            List<Question> questions;
-            if (includeDeleted) {
-                questions = questionService.findByQuestionnaireIdIncludingDeleted(questionnaireId, language);
-            } else {
-                questions = questionService.findByQuestionnaireId(questionnaireId, language);
+            // Kun eksisterende spørgeskemaer og understøttede sprog indgår i cache nøglen
+            Questionnaire questionnaire = questionnaireService.findById(questionnaireId).orElse(null);
+            if (questionnaire == null) {
+                return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(questions);
+            String lang = LanguageNormalizer.normalize(language);
+            String key = (includeDeleted ? "questions-all:" : "questions:") + lang;
+            CachedPayload payload = payloadCache.get(questionnaireId, questionnaire.getVersion(), key, () -> {
+                if (includeDeleted) {
+                    return questionService.findByQuestionnaireIdIncludingDeleted(questionnaireId, lang);
+                }
+                return questionService.findByQuestionnaireId(questionnaireId, lang);
+            });
+            return CachedPayloadResponses.of(payload, ifNoneMatch, acceptEncoding);
         }
         return ResponseEntity.badRequest().build();
     }
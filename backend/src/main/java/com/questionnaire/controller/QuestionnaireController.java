@@ -3,8 +3,13 @@ package com.questionnaire.controller;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.Questionnaire;
 import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.ValidationRuleDefinition;
+import com.questionnaire.service.QuestionnairePayloadCache;
+import com.questionnaire.service.QuestionnairePayloadCache.CachedPayload;
 import com.questionnaire.service.interfaces.IQuestionnaireService;
+import com.questionnaire.utils.LanguageNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,30 +23,57 @@ public class QuestionnaireController {
     @Autowired
     private IQuestionnaireService questionnaireService;
 
+    @Autowired
+    private QuestionnairePayloadCache payloadCache;
+
     @GetMapping("/{type}")
-    public ResponseEntity<Questionnaire> getQuestionnaire(@PathVariable String type) {
+    public ResponseEntity<byte[]> getQuestionnaire(
+            @PathVariable String type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         QuestionnaireType questionnaireType = QuestionnaireType.valueOf(type);
         Questionnaire questionnaire = questionnaireService.getQuestionnaireByType(questionnaireType);
-        return ResponseEntity.ok(questionnaire);
+        CachedPayload payload = payloadCache.get(questionnaire.getId(), questionnaire.getVersion(), "questionnaire", () -> questionnaire);
+        return CachedPayloadResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/{type}/start")
-    public ResponseEntity<List<Question>> startQuestionnaire(
+    public ResponseEntity<byte[]> startQuestionnaire(
             @PathVariable String type,
-            @RequestParam(required = false, defaultValue = "da") String language) {
+            @RequestParam(required = false, defaultValue = "da") String language,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         QuestionnaireType questionnaireType = QuestionnaireType.valueOf(type);
         Questionnaire questionnaire = questionnaireService.getQuestionnaireByType(questionnaireType);
-        List<Question> questions = questionnaireService.getQuestionsByQuestionnaireId(questionnaire.getId(), language);
-        
-        // Returner kun første spørgsmål
-        if (!questions.isEmpty()) {
-            return ResponseEntity.ok(List.of(questions.get(0)));
-        }
-        return ResponseEntity.ok(List.of());
+        // Kun understøttede sprog indgår i cache nøglen
+        String lang = LanguageNormalizer.normalize(language);
+        CachedPayload payload = payloadCache.get(questionnaire.getId(), questionnaire.getVersion(), "start:" + lang, () -> {
+            List<Question> questions = questionnaireService.getQuestions(questionnaire, lang);
+            // Returner kun første spørgsmål
+            return questions.isEmpty() ? List.of() : List.of(questions.get(0));
+        });
+        return CachedPayloadResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
-}
-
-
-
 
+    @GetMapping("/{type}/definition")
+    public ResponseEntity<byte[]> getQuestionnaireDefinition(
+            @PathVariable String type,
+            @RequestParam(required = false, defaultValue = "da") String language,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        QuestionnaireType questionnaireType = QuestionnaireType.valueOf(type);
+        Questionnaire questionnaire = questionnaireService.getQuestionnaireByType(questionnaireType);
+        String lang = LanguageNormalizer.normalize(language);
+        CachedPayload payload = payloadCache.get(questionnaire.getId(), questionnaire.getVersion(), "definition:" + lang,
+                () -> questionnaireService.getDefinition(questionnaire, lang));
+        return CachedPayloadResponses.of(payload, ifNoneMatch, acceptEncoding);
+    }
 
+    @PutMapping("/{type}/validation-rules")
+    public ResponseEntity<Questionnaire> updateValidationRules(
+            @PathVariable String type,
+            @RequestBody List<ValidationRuleDefinition> rules) {
+        QuestionnaireType questionnaireType = QuestionnaireType.valueOf(type);
+        return ResponseEntity.ok(questionnaireService.updateValidationRules(questionnaireType, rules));
+    }
+}
@@ -1,13 +1,19 @@
 package com.questionnaire.controller;
 
+import com.questionnaire.dto.BatchResponseRequest;
+import com.questionnaire.dto.BatchResponseResult;
 import com.questionnaire.dto.NextQuestionRequest;
+import com.questionnaire.dto.QuestionnaireProgress;
 import com.questionnaire.dto.ResponseRequest;
+import com.questionnaire.dto.ResponseReviewDto;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.Response;
 import com.questionnaire.model.User;
+import com.questionnaire.model.UserRole;
 import com.questionnaire.service.interfaces.IResponseService;
 import com.questionnaire.service.interfaces.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +36,7 @@ public class ResponseController {
     @PostMapping
     public ResponseEntity<Response> saveResponse(
             @RequestBody ResponseRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         String username = authentication.getName();
         User user = userService.findByUsername(username)
@@ -39,7 +46,8 @@ public class ResponseController {
         Response response = responseService.saveResponse(
                 userId,
                 request.getQuestionnaireId(),
-                request.getAnswers()
+                request.getAnswers(),
+                idempotencyKey
         );
 
         // Hvis det er morgenskema, beregn søvnparametre (beregnes on-the-fly når det anmodes)
@@ -47,6 +55,31 @@ public class ResponseController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResponseResult>> saveResponses(
+            @RequestBody BatchResponseRequest request,
+            Authentication authentication) {
+        String username = authentication.getName();
+        User user = userService.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Bruger ikke fundet"));
+        String userId = user.getId();
+        
+        // Rådgivere kan importere papirdagbøger for en borger - men kun for deres egne borgere
+        if (request.getUserId() != null && !request.getUserId().equals(userId)) {
+            if (user.getRole() != UserRole.RÅDGIVER) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            User citizen = userService.findById(request.getUserId());
+            if (citizen.getRole() != UserRole.BORGER || !userId.equals(citizen.getAdvisorId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            userId = citizen.getId();
+        }
+        
+        List<BatchResponseResult> results = responseService.saveResponses(userId, request.getResponses());
+        return ResponseEntity.ok(results);
+    }
+
     @PostMapping("/next")
     public ResponseEntity<Question> getNextQuestion(
             @RequestBody NextQuestionRequest request,
@@ -65,6 +98,11 @@ public class ResponseController {
         return ResponseEntity.ok(nextQuestion);
     }
 
+    @PostMapping("/progress")
+    public ResponseEntity<QuestionnaireProgress> getProgress(@RequestBody NextQuestionRequest request) {
+        return ResponseEntity.ok(responseService.getProgress(request.getQuestionnaireId(), request.getCurrentAnswers()));
+    }
+
     @GetMapping
     public ResponseEntity<List<Response>> getResponses(
             @RequestParam(required = false) String userId,
@@ -82,6 +120,14 @@ public class ResponseController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/review")
+    public ResponseEntity<List<ResponseReviewDto>> getResponseReviews(
+            @RequestParam String userId,
+            @RequestParam(required = false) String questionnaireId,
+            @RequestParam(required = false, defaultValue = "da") String language) {
+        return ResponseEntity.ok(responseService.getResponseReviews(userId, questionnaireId, language));
+    }
+
     @GetMapping("/check-today")
     public ResponseEntity<Map<String, Boolean>> checkResponseForToday(
             @RequestParam String questionnaireType,
@@ -1,20 +1,35 @@
 package com.questionnaire.controller;
 
+import com.questionnaire.config.Bulkhead;
+import com.questionnaire.dto.CohortMemberDto;
 import com.questionnaire.dto.UserDto;
-import com.questionnaire.model.QuestionnaireType;
 import com.questionnaire.model.Response;
 import com.questionnaire.model.SleepParameters;
+import com.questionnaire.model.User;
 import com.questionnaire.model.UserRole;
+import com.questionnaire.service.AdvisorEventHub;
+import com.questionnaire.service.interfaces.ICohortAnalyticsService;
 import com.questionnaire.service.interfaces.IResponseService;
 import com.questionnaire.service.interfaces.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Brugerstyring og rådgiverens overblik
+ * De tunge rådgiverendpoints kører i advisorBulkhead (se BulkheadConfig), så de ikke optager
+ * de request tråde borgerens indsendelser bruger.
+ */
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*")
@@ -26,31 +41,42 @@ public class UserController {
     @Autowired
     private IUserService userService;
 
+    @Autowired
+    private ICohortAnalyticsService cohortAnalyticsService;
+
+    @Autowired
+    private AdvisorEventHub advisorEventHub;
+
+    @Autowired
+    private Bulkhead advisorBulkhead;
+
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers().stream()
-                .map(UserDto::fromUser)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+    public CompletableFuture<ResponseEntity<List<UserDto>>> getAllUsers() {
+        return advisorBulkhead.submit(() -> {
+            List<UserDto> users = userService.getAllUsers().stream()
+                    .map(UserDto::fromUser)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(users);
+        });
     }
 
     @GetMapping("/citizens")
-    public ResponseEntity<List<UserDto>> getAllCitizens() {
-        List<com.questionnaire.model.User> citizens = userService.getUsersByRole(UserRole.BORGER);
-        List<UserDto> citizenDtos = citizens.stream()
-                .map(citizen -> {
-                    com.questionnaire.model.User advisor = null;
-                    if (citizen.getAdvisorId() != null && !citizen.getAdvisorId().isEmpty()) {
-                        try {
-                            advisor = userService.findById(citizen.getAdvisorId());
-                        } catch (Exception e) {
-                            // Advisor not found, ignore
-                        }
-                    }
-                    return UserDto.fromUser(citizen, advisor);
-                })
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(citizenDtos);
+    public CompletableFuture<ResponseEntity<List<UserDto>>> getAllCitizens() {
+        return advisorBulkhead.submit(() -> {
+            List<User> citizens = userService.getUsersByRole(UserRole.BORGER);
+            // Hent alle rådgivere i ét kald i stedet for ét opslag pr. borger (manglende rådgivere ignoreres)
+            List<String> advisorIds = citizens.stream()
+                    .map(User::getAdvisorId)
+                    .filter(advisorId -> advisorId != null && !advisorId.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+            Map<String, User> advisors = userService.findAllById(advisorIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            List<UserDto> citizenDtos = citizens.stream()
+                    .map(citizen -> UserDto.fromUser(citizen, advisors.get(citizen.getAdvisorId())))
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(citizenDtos);
+        });
     }
 
     @GetMapping("/advisors")
@@ -61,14 +87,78 @@ public class UserController {
         return ResponseEntity.ok(advisors);
     }
 
+    @GetMapping("/advisors/{advisorId}/cohort")
+    public CompletableFuture<ResponseEntity<List<CohortMemberDto>>> getAdvisorCohort(
+            @PathVariable String advisorId,
+            Authentication authentication) {
+        return advisorBulkhead.submit(() -> {
+            // Kun rådgiveren selv kan se sin kohorte
+            User caller = findCaller(authentication);
+            if (caller.getRole() != UserRole.RÅDGIVER || !caller.getId().equals(advisorId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).<List<CohortMemberDto>>build();
+            }
+            // Kaster UserNotFoundException (404) hvis rådgiveren ikke findes
+            userService.findById(advisorId);
+            return ResponseEntity.ok(cohortAnalyticsService.getAdvisorCohort(advisorId));
+        });
+    }
+
+    /**
+     * Server-Sent Events med nye besvarelser fra rådgiverens borgere
+     * Kun rådgiveren selv kan abonnere på sin strøm. Klienten sender Last-Event-ID ved genopretning
+     * for at få de beskeder den har misset (se AdvisorEventHub for begrænsningerne).
+     */
+    @GetMapping(value = "/advisors/{advisorId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAdvisorEvents(
+            @PathVariable String advisorId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            Authentication authentication) {
+        User user = findCaller(authentication);
+        if (user.getRole() != UserRole.RÅDGIVER || !user.getId().equals(advisorId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(advisorEventHub.subscribe(advisorId, lastEventId));
+    }
+
+    @GetMapping("/red-flags")
+    public CompletableFuture<ResponseEntity<List<UserDto>>> getCitizensWithRedAnswers(
+            @RequestParam(required = false, defaultValue = "7") int days,
+            @RequestParam(required = false) String advisorId,
+            Authentication authentication) {
+        return advisorBulkhead.submit(() -> {
+            // Kun rådgivere, og med advisorId kun for deres egne borgere
+            User caller = findCaller(authentication);
+            if (caller.getRole() != UserRole.RÅDGIVER || (advisorId != null && !caller.getId().equals(advisorId))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).<List<UserDto>>build();
+            }
+            // Begræns til rådgiverens borgere hvis advisorId er angivet
+            List<String> citizenIds = null;
+            if (advisorId != null) {
+                citizenIds = userService.getCitizensByAdvisor(advisorId).stream()
+                        .map(User::getId)
+                        .collect(Collectors.toList());
+            }
+            List<String> userIds = responseService.findUserIdsWithRedAnswers(days, citizenIds);
+            List<UserDto> users = userService.findAllById(userIds).stream()
+                    .map(UserDto::fromUser)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(users);
+        });
+    }
+
+    private User findCaller(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Bruger ikke fundet"));
+    }
+
     @PutMapping("/{citizenId}/assign-advisor")
     public ResponseEntity<UserDto> assignAdvisor(
             @PathVariable String citizenId,
             @RequestBody(required = false) Map<String, String> request) {
         String advisorId = request != null ? request.get("advisorId") : null;
-        com.questionnaire.model.User updatedCitizen = userService.assignAdvisor(citizenId, advisorId);
+        User updatedCitizen = userService.assignAdvisor(citizenId, advisorId);
         
-        com.questionnaire.model.User advisor = null;
+        User advisor = null;
         if (updatedCitizen.getAdvisorId() != null && !updatedCitizen.getAdvisorId().isEmpty()) {
             try {
                 advisor = userService.findById(updatedCitizen.getAdvisorId());
@@ -81,14 +171,18 @@ public class UserController {
     }
 
     @GetMapping("/{id}/sleep-data")
-    public ResponseEntity<Map<String, Object>> getSleepData(@PathVariable String id) {
-        List<Response> morningResponses = responseService.getResponsesByUserIdAndQuestionnaireType(id, QuestionnaireType.morning);
-        
-        List<Map<String, Object>> sleepData = morningResponses.stream()
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getSleepData(@PathVariable String id) {
+        return advisorBulkhead.submit(() -> ResponseEntity.ok(Map.<String, Object>of("sleepData", buildSleepData(id))));
+    }
+
+    private List<Map<String, Object>> buildSleepData(String id) {
+        List<Response> morningResponses = cohortAnalyticsService.getMorningResponses(id);
+        // Genberegn altid søvnparametre, så eventuelle rettelser i beregningen vises
+        // Resultatet gemmes ikke - rådgiverens læsninger skriver ikke gennem borgernes connection pool
+        responseService.applyCurrentSleepParameters(morningResponses);
+        return morningResponses.stream()
                 .map(response -> {
-                    // Genberegn altid søvnparametre for at sikre korrekt beregning
-                    // Dette sikrer at eventuelle rettelser i beregningen anvendes
-                    SleepParameters params = responseService.calculateSleepParameters(response.getId());
+                    SleepParameters params = response.getSleepParameters();
                     
                     // Formater TIB som HH:MM
                     double tibMinutes = params.getTIB();
@@ -134,8 +228,6 @@ public class UserController {
                     );
                 })
                 .collect(Collectors.toList());
-
-        return ResponseEntity.ok(Map.of("sleepData", sleepData));
     }
 }
 
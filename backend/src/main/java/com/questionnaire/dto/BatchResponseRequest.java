@@ -0,0 +1,62 @@
+package com.questionnaire.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BatchResponseRequest {
+    private String userId; // Borgeren besvarelserne tilhører (kun for rådgivere - ellers den indloggede bruger)
+    private List<Item> responses;
+
+    public BatchResponseRequest() {}
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public List<Item> getResponses() {
+        return responses;
+    }
+
+    public void setResponses(List<Item> responses) {
+        this.responses = responses;
+    }
+
+    /**
+     * En enkelt besvarelse i batchen
+     */
+    public static class Item {
+        private String questionnaireId;
+        private Map<String, Object> answers;
+        private String date; // Dagen besvarelsen gælder ("yyyy-MM-dd"), default i dag
+
+        public Item() {}
+
+        public String getQuestionnaireId() {
+            return questionnaireId;
+        }
+
+        public void setQuestionnaireId(String questionnaireId) {
+            this.questionnaireId = questionnaireId;
+        }
+
+        public Map<String, Object> getAnswers() {
+            return answers;
+        }
+
+        public void setAnswers(Map<String, Object> answers) {
+            this.answers = answers;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public void setDate(String date) {
+            this.date = date;
+        }
+    }
+}
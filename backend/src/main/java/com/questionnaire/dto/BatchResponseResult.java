@@ -0,0 +1,68 @@
+package com.questionnaire.dto;
+
+/**
+ * Resultat for én besvarelse i en batch (samme rækkefølge som i requesten)
+ */
+public class BatchResponseResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    private int index;
+    private Status status;
+    private String responseId;
+    private String error;
+
+    public BatchResponseResult() {}
+
+    public BatchResponseResult(int index, Status status, String responseId, String error) {
+        this.index = index;
+        this.status = status;
+        this.responseId = responseId;
+        this.error = error;
+    }
+
+    public static BatchResponseResult created(int index, String responseId) {
+        return new BatchResponseResult(index, Status.CREATED, responseId, null);
+    }
+
+    public static BatchResponseResult rejected(int index, Status status, String error) {
+        return new BatchResponseResult(index, status, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(String responseId) {
+        this.responseId = responseId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
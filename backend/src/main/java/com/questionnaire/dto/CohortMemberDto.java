@@ -0,0 +1,85 @@
+package com.questionnaire.dto;
+
+import com.questionnaire.model.SleepParameters;
+
+import java.util.Date;
+
+/**
+ * Overblik over én borger i en rådgivers kohorte
+ */
+public class CohortMemberDto {
+    private String userId;
+    private String fullName;
+    private Date latestResponseAt; // Seneste morgenbesvarelse (null hvis borgeren ikke har svaret)
+    private SleepParameters latestSleepParameters;
+    private SleepParameters sevenDayAverage; // Gennemsnit over de sidste 7 døgn (null uden besvarelser i perioden)
+    private Double tstTrend; // Gennemsnitlig TST de sidste 7 dage minus de 7 dage før (minutter)
+    private int daysAnswered; // Antal af de sidste 7 dage med en morgenbesvarelse
+    private double adherence; // daysAnswered / 7
+
+    public CohortMemberDto() {}
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public Date getLatestResponseAt() {
+        return latestResponseAt;
+    }
+
+    public void setLatestResponseAt(Date latestResponseAt) {
+        this.latestResponseAt = latestResponseAt;
+    }
+
+    public SleepParameters getLatestSleepParameters() {
+        return latestSleepParameters;
+    }
+
+    public void setLatestSleepParameters(SleepParameters latestSleepParameters) {
+        this.latestSleepParameters = latestSleepParameters;
+    }
+
+    public SleepParameters getSevenDayAverage() {
+        return sevenDayAverage;
+    }
+
+    public void setSevenDayAverage(SleepParameters sevenDayAverage) {
+        this.sevenDayAverage = sevenDayAverage;
+    }
+
+    public Double getTstTrend() {
+        return tstTrend;
+    }
+
+    public void setTstTrend(Double tstTrend) {
+        this.tstTrend = tstTrend;
+    }
+
+    public int getDaysAnswered() {
+        return daysAnswered;
+    }
+
+    public void setDaysAnswered(int daysAnswered) {
+        this.daysAnswered = daysAnswered;
+    }
+
+    public double getAdherence() {
+        return adherence;
+    }
+
+    public void setAdherence(double adherence) {
+        this.adherence = adherence;
+    }
+}
@@ -0,0 +1,24 @@
+package com.questionnaire.dto;
+
+public class DraftAnswerRequest {
+    private String questionId;
+    private Object answer; // null fjerner svaret fra kladden
+
+    public DraftAnswerRequest() {}
+
+    public String getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(String questionId) {
+        this.questionId = questionId;
+    }
+
+    public Object getAnswer() {
+        return answer;
+    }
+
+    public void setAnswer(Object answer) {
+        this.answer = answer;
+    }
+}
@@ -0,0 +1,111 @@
+package com.questionnaire.dto;
+
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.VisibilityRule;
+
+import java.util.List;
+
+/**
+ * Hele spørgeskemaet i ét svar: spørgsmål, rækkefølge og conditional logic som data
+ * Gør det muligt for klienten at navigere uden et kald til /api/responses/next pr. trin
+ */
+public class QuestionnaireDefinitionDto {
+    private String questionnaireId;
+    private QuestionnaireType type;
+    private List<Question> questions; // Alle aktive spørgsmål, oversat
+    private List<String> rootQuestionIds; // Root spørgsmål i den rækkefølge de vises
+    private List<ConditionalMapping> conditionalChildren; // parent + option -> children i rækkefølge
+    private List<VisibilityRule> visibilityRules; // Strategiens skjul-regler
+
+    public QuestionnaireDefinitionDto() {}
+
+    public String getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(String questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public QuestionnaireType getType() {
+        return type;
+    }
+
+    public void setType(QuestionnaireType type) {
+        this.type = type;
+    }
+
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<Question> questions) {
+        this.questions = questions;
+    }
+
+    public List<String> getRootQuestionIds() {
+        return rootQuestionIds;
+    }
+
+    public void setRootQuestionIds(List<String> rootQuestionIds) {
+        this.rootQuestionIds = rootQuestionIds;
+    }
+
+    public List<ConditionalMapping> getConditionalChildren() {
+        return conditionalChildren;
+    }
+
+    public void setConditionalChildren(List<ConditionalMapping> conditionalChildren) {
+        this.conditionalChildren = conditionalChildren;
+    }
+
+    public List<VisibilityRule> getVisibilityRules() {
+        return visibilityRules;
+    }
+
+    public void setVisibilityRules(List<VisibilityRule> visibilityRules) {
+        this.visibilityRules = visibilityRules;
+    }
+
+    /**
+     * Børn der vises når parent spørgsmålet besvares med optionId
+     */
+    public static class ConditionalMapping {
+        private String parentQuestionId;
+        private String optionId;
+        private List<String> childQuestionIds;
+
+        public ConditionalMapping() {}
+
+        public ConditionalMapping(String parentQuestionId, String optionId, List<String> childQuestionIds) {
+            this.parentQuestionId = parentQuestionId;
+            this.optionId = optionId;
+            this.childQuestionIds = childQuestionIds;
+        }
+
+        public String getParentQuestionId() {
+            return parentQuestionId;
+        }
+
+        public void setParentQuestionId(String parentQuestionId) {
+            this.parentQuestionId = parentQuestionId;
+        }
+
+        public String getOptionId() {
+            return optionId;
+        }
+
+        public void setOptionId(String optionId) {
+            this.optionId = optionId;
+        }
+
+        public List<String> getChildQuestionIds() {
+            return childQuestionIds;
+        }
+
+        public void setChildQuestionIds(List<String> childQuestionIds) {
+            this.childQuestionIds = childQuestionIds;
+        }
+    }
+}
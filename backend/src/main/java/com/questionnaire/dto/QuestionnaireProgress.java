@@ -0,0 +1,34 @@
+package com.questionnaire.dto;
+
+/**
+ * Fremskridt for en påbegyndt besvarelse
+ * total er antallet af spørgsmål der vises med de nuværende svar, så den ændrer sig når
+ * et svar åbner eller lukker for conditional children
+ */
+public class QuestionnaireProgress {
+    private int answered;
+    private int total;
+
+    public QuestionnaireProgress() {}
+
+    public QuestionnaireProgress(int answered, int total) {
+        this.answered = answered;
+        this.total = total;
+    }
+
+    public int getAnswered() {
+        return answered;
+    }
+
+    public void setAnswered(int answered) {
+        this.answered = answered;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+}
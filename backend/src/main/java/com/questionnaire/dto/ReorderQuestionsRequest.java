@@ -0,0 +1,26 @@
+package com.questionnaire.dto;
+
+import java.util.List;
+
+public class ReorderQuestionsRequest {
+    private String questionnaireId;
+    private List<String> questionIds; // Spørgsmålenes ID'er i den nye rækkefølge
+
+    public ReorderQuestionsRequest() {}
+
+    public String getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(String questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public List<String> getQuestionIds() {
+        return questionIds;
+    }
+
+    public void setQuestionIds(List<String> questionIds) {
+        this.questionIds = questionIds;
+    }
+}
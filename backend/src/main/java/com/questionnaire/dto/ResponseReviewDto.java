@@ -0,0 +1,132 @@
+package com.questionnaire.dto;
+
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.SleepParameters;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * En besvarelse klar til visning: svarene er slået sammen med spørgsmålstekster på det valgte sprog
+ */
+public class ResponseReviewDto {
+    private String responseId;
+    private String questionnaireId;
+    private QuestionnaireType questionnaireType;
+    private Date createdAt;
+    private SleepParameters sleepParameters;
+    private List<Row> rows = new ArrayList<>();
+
+    public ResponseReviewDto() {}
+
+    public String getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(String responseId) {
+        this.responseId = responseId;
+    }
+
+    public String getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(String questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public QuestionnaireType getQuestionnaireType() {
+        return questionnaireType;
+    }
+
+    public void setQuestionnaireType(QuestionnaireType questionnaireType) {
+        this.questionnaireType = questionnaireType;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public SleepParameters getSleepParameters() {
+        return sleepParameters;
+    }
+
+    public void setSleepParameters(SleepParameters sleepParameters) {
+        this.sleepParameters = sleepParameters;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Ét besvaret spørgsmål
+     */
+    public static class Row {
+        private String questionId;
+        private String questionText;
+        private String answer; // Svaret som tekst (option tekster i stedet for ID'er)
+        private String colorCode; // "green", "yellow", "red" eller null
+        private int order;
+        private boolean deleted; // Spørgsmålet er slettet siden besvarelsen
+
+        public Row() {}
+
+        public String getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(String questionId) {
+            this.questionId = questionId;
+        }
+
+        public String getQuestionText() {
+            return questionText;
+        }
+
+        public void setQuestionText(String questionText) {
+            this.questionText = questionText;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+
+        public void setAnswer(String answer) {
+            this.answer = answer;
+        }
+
+        public String getColorCode() {
+            return colorCode;
+        }
+
+        public void setColorCode(String colorCode) {
+            this.colorCode = colorCode;
+        }
+
+        public int getOrder() {
+            return order;
+        }
+
+        public void setOrder(int order) {
+            this.order = order;
+        }
+
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        public void setDeleted(boolean deleted) {
+            this.deleted = deleted;
+        }
+    }
+}
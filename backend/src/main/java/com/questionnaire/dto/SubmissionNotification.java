@@ -0,0 +1,95 @@
+package com.questionnaire.dto;
+
+import com.questionnaire.model.QuestionnaireType;
+
+import java.util.Date;
+
+/**
+ * Kompakt besked til rådgiverens dashboard når en borger har indsendt en besvarelse
+ * TIB og TST er kun sat for morgenskemaet
+ */
+public class SubmissionNotification {
+    private long id; // Event ID (sendes som SSE id, så klienten kan fortsætte med Last-Event-ID)
+    private String citizenId;
+    private String citizenName;
+    private String responseId;
+    private QuestionnaireType questionnaireType;
+    private Date createdAt;
+    private Double tib; // Time in Bed (minutter)
+    private Double tst; // Total Sleep Time (minutter)
+    private boolean hasRed;
+
+    public SubmissionNotification() {}
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCitizenId() {
+        return citizenId;
+    }
+
+    public void setCitizenId(String citizenId) {
+        this.citizenId = citizenId;
+    }
+
+    public String getCitizenName() {
+        return citizenName;
+    }
+
+    public void setCitizenName(String citizenName) {
+        this.citizenName = citizenName;
+    }
+
+    public String getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(String responseId) {
+        this.responseId = responseId;
+    }
+
+    public QuestionnaireType getQuestionnaireType() {
+        return questionnaireType;
+    }
+
+    public void setQuestionnaireType(QuestionnaireType questionnaireType) {
+        this.questionnaireType = questionnaireType;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Double getTib() {
+        return tib;
+    }
+
+    public void setTib(Double tib) {
+        this.tib = tib;
+    }
+
+    public Double getTst() {
+        return tst;
+    }
+
+    public void setTst(Double tst) {
+        this.tst = tst;
+    }
+
+    public boolean isHasRed() {
+        return hasRed;
+    }
+
+    public void setHasRed(boolean hasRed) {
+        this.hasRed = hasRed;
+    }
+}
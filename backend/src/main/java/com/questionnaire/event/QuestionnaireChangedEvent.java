@@ -0,0 +1,33 @@
+package com.questionnaire.event;
+
+/**
+ * Event der publiceres når spørgsmål i et spørgeskema er ændret (lokalt eller på en anden instans)
+ * Bruges af in-process caches til at invalidere deres indhold
+ */
+public class QuestionnaireChangedEvent {
+    private final String questionnaireId;
+    private final long version;
+
+    public QuestionnaireChangedEvent(String questionnaireId) {
+        this(questionnaireId, -1);
+    }
+
+    public QuestionnaireChangedEvent(String questionnaireId, long version) {
+        this.questionnaireId = questionnaireId;
+        this.version = version;
+    }
+
+    /**
+     * Spørgeskemaets ID, eller null hvis alle spørgeskemaer skal betragtes som ændret
+     */
+    public String getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    /**
+     * Spørgeskemaets nye version, eller -1 hvis den ikke er kendt
+     */
+    public long getVersion() {
+        return version;
+    }
+}
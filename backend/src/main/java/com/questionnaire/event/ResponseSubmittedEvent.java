@@ -0,0 +1,21 @@
+package com.questionnaire.event;
+
+import com.questionnaire.model.Response;
+
+/**
+ * Event der publiceres asynkront efter en besvarelse er gemt (se ResponseEventPipeline)
+ * Leveres mindst én gang - også efter et nedbrud - så lyttere skal kunne tåle gentagelser
+ */
+public class ResponseSubmittedEvent {
+    public static final String TYPE = "RESPONSE_SUBMITTED";
+
+    private final Response response;
+
+    public ResponseSubmittedEvent(Response response) {
+        this.response = response;
+    }
+
+    public Response getResponse() {
+        return response;
+    }
+}
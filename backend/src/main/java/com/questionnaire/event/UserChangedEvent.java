@@ -0,0 +1,20 @@
+package com.questionnaire.event;
+
+/**
+ * Event der publiceres når en bruger er ændret (fx på en anden instans)
+ * Bruges af in-process caches af brugere til at invalidere deres indhold
+ */
+public class UserChangedEvent {
+    private final String userId;
+
+    public UserChangedEvent(String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Brugerens ID, eller null hvis alle brugere skal betragtes som ændret
+     */
+    public String getUserId() {
+        return userId;
+    }
+}
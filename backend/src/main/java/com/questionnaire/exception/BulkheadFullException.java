@@ -0,0 +1,14 @@
+package com.questionnaire.exception;
+
+public class BulkheadFullException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public BulkheadFullException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.questionnaire.exception;
+
+public class DraftConflictException extends RuntimeException {
+    public DraftConflictException(String message) {
+        super(message);
+    }
+}
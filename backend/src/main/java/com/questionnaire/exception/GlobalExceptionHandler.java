@@ -43,10 +43,10 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<Map<String, String>> handleValidation(ValidationException e) {
-        logger.warn("Validation error: {}", e.getMessage());
+    public ResponseEntity<Map<String, Object>> handleValidation(ValidationException e) {
+        logger.warn("Validation error: {} ({} fejl)", e.getMessage(), e.getViolations().size());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(Map.of("error", e.getMessage()));
+                .body(Map.of("error", e.getMessage(), "errors", e.getViolations()));
     }
 
     @ExceptionHandler(QuestionLockedException.class)
@@ -63,6 +63,35 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", e.getMessage()));
     }
 
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyInUse(IdempotencyKeyInUseException e) {
+        logger.warn("Idempotency key in use: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(DraftConflictException.class)
+    public ResponseEntity<Map<String, String>> handleDraftConflict(DraftConflictException e) {
+        logger.warn("Draft conflict: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException e) {
+        logger.warn("Idempotency key reused: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> handleBulkheadFull(BulkheadFullException e) {
+        logger.warn("Bulkhead full: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException e) {
         String message = e.getMessage();
@@ -1,11 +1,27 @@
 package com.questionnaire.exception;
 
+import com.questionnaire.validation.ValidationResult;
+
+import java.util.List;
+
+/**
+ * Valideringsfejl der afvises med 400
+ * Fejlen er forventet input fra brugeren, så der opsamles ingen stack trace.
+ * Indeholder alle fejl når den kommer fra en ValidationResult.
+ */
 public class ValidationException extends RuntimeException {
+    private final List<ValidationResult.Violation> violations;
+
     public ValidationException(String message) {
-        super(message);
+        this(message, List.of(new ValidationResult.Violation(null, message)));
     }
-}
-
-
 
+    public ValidationException(String message, List<ValidationResult.Violation> violations) {
+        super(message, null, false, false);
+        this.violations = violations;
+    }
 
+    public List<ValidationResult.Violation> getViolations() {
+        return violations;
+    }
+}
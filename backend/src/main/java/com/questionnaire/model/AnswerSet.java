@@ -0,0 +1,115 @@
+package com.questionnaire.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alle svar for én besvarelse parset én gang ud fra spørgsmålenes typer
+ * Bruges i stedet for at parse Map<String, Object> værdierne igen i hver validator og beregning.
+ * Læser både nye og eksisterende Response dokumenter (se AnswerValue.parse).
+ * Parses én gang pr. request og sendes videre til validering, beregninger og gemning.
+ */
+public final class AnswerSet {
+
+    private final QuestionIndex questions;
+    private final Map<String, Object> answers;
+    private final Map<String, AnswerValue> values = new LinkedHashMap<>();
+
+    private AnswerSet(QuestionIndex questions, Map<String, Object> answers) {
+        this.questions = questions;
+        this.answers = answers;
+    }
+
+    /**
+     * Parser svarene
+     * @param questions Spørgeskemaets spørgsmål (bruges til at bestemme hvert svars type)
+     * @param answers Svarene som de kommer fra klienten eller Mongo
+     * @return Parsede svar (svar på ukendte spørgsmål beholdes uændret)
+     */
+    public static AnswerSet parse(List<Question> questions, Map<String, Object> answers) {
+        AnswerSet answerSet = new AnswerSet(QuestionIndex.of(questions), answers != null ? answers : new LinkedHashMap<>());
+        for (Map.Entry<String, Object> entry : answerSet.answers.entrySet()) {
+            answerSet.parseValue(entry.getKey(), entry.getValue());
+        }
+        return answerSet;
+    }
+
+    /**
+     * Sætter (eller rydder hvis værdien er null) et svar både i de rå svar og i de parsede værdier
+     */
+    public void put(String questionId, Object raw) {
+        answers.put(questionId, raw);
+        parseValue(questionId, raw);
+    }
+
+    private void parseValue(String questionId, Object raw) {
+        Question question = questions.findById(questionId);
+        AnswerValue value = AnswerValue.parse(question != null ? question.getType() : null, raw);
+        if (value != null) {
+            values.put(questionId, value);
+        } else {
+            values.remove(questionId);
+        }
+    }
+
+    public QuestionIndex getQuestions() {
+        return questions;
+    }
+
+    /**
+     * Svarene som de blev modtaget (samme map som blev parset)
+     */
+    public Map<String, Object> getAnswers() {
+        return answers;
+    }
+
+
+    public AnswerValue get(String questionId) {
+        return values.get(questionId);
+    }
+
+    public boolean isAnswered(String questionId) {
+        return values.containsKey(questionId);
+    }
+
+    /**
+     * Tiden som minutter efter midnat, eller null hvis svaret mangler eller ikke er en tid
+     */
+    public Integer getMinuteOfDay(String questionId) {
+        AnswerValue value = values.get(questionId);
+        return value != null && value.isTime() ? value.getMinuteOfDay() : null;
+    }
+
+    /**
+     * Svaret som heltal, eller null hvis svaret mangler eller ikke er et heltal
+     */
+    public Integer getInt(String questionId) {
+        AnswerValue value = values.get(questionId);
+        return value != null && value.isIntegral() ? value.getInt() : null;
+    }
+
+    /**
+     * Option ID for et enkelt valg, eller null hvis svaret mangler eller ikke er et enkelt valg
+     */
+    public String getOptionId(String questionId) {
+        AnswerValue value = values.get(questionId);
+        return value != null ? value.getOptionId() : null;
+    }
+
+    public Map<String, AnswerValue> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Svarene i det format der gemmes på Response (samme JSON form som før, men normaliseret)
+     */
+    public Map<String, Object> toStorageMap() {
+        Map<String, Object> storage = new LinkedHashMap<>();
+        for (Map.Entry<String, AnswerValue> entry : values.entrySet()) {
+            storage.put(entry.getKey(), entry.getValue().toStorageValue());
+        }
+        return storage;
+    }
+}
@@ -0,0 +1,288 @@
+package com.questionnaire.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Et parset svar
+ * Svaret parses én gang ud fra spørgsmålets type: tider som minutter efter midnat,
+ * tal som double, option ID'er som strenge og flere valg som arrays (med hvert valgs custom tekst).
+ * Kan svaret ikke parses som typen foreskriver, gemmes det uændret som RAW (valideringen afviser det).
+ */
+public final class AnswerValue {
+
+    public enum Kind {
+        TIME,
+        NUMBER,
+        OPTION,
+        OPTIONS,
+        TEXT,
+        RAW
+    }
+
+    private static final String[] NO_OPTIONS = new String[0];
+
+    private final Kind kind;
+    private final Object raw;
+    private final int minuteOfDay;
+    private final double number;
+    private final String optionId;
+    private final String customText;
+    private final String[] optionIds;
+    private final String[] customTexts;
+
+    private AnswerValue(Kind kind, Object raw, int minuteOfDay, double number,
+                        String optionId, String customText, String[] optionIds, String[] customTexts) {
+        this.kind = kind;
+        this.raw = raw;
+        this.minuteOfDay = minuteOfDay;
+        this.number = number;
+        this.optionId = optionId;
+        this.customText = customText;
+        this.optionIds = optionIds;
+        this.customTexts = customTexts;
+    }
+
+    /**
+     * Parser et svar som det kommer fra JSON eller fra et gemt Response dokument
+     * Håndterer alle eksisterende formater: tider som "HH:mm", tal som Number eller String,
+     * option ID som String, "Andet" som Map med optionId og customText, og lister af disse
+     * @param type Spørgsmålets type (null hvis spørgsmålet er ukendt)
+     * @param raw Svaret
+     * @return Parset svar, eller null hvis svaret er null
+     */
+    public static AnswerValue parse(QuestionType type, Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (type == null) {
+            return rawValue(raw);
+        }
+        switch (type) {
+            case time_picker:
+                int minutes = parseMinuteOfDay(raw.toString().trim());
+                return minutes >= 0 ? new AnswerValue(Kind.TIME, raw, minutes, 0, null, null, null, null) : rawValue(raw);
+            case numeric:
+            case slider:
+                Double value = parseNumber(raw);
+                return value != null ? new AnswerValue(Kind.NUMBER, raw, -1, value, null, null, null, null) : rawValue(raw);
+            case multiple_choice:
+                String id = extractOptionId(raw);
+                return id != null
+                        ? new AnswerValue(Kind.OPTION, raw, -1, 0, id, extractCustomText(raw), null, null)
+                        : rawValue(raw);
+            case multiple_choice_multiple:
+                return parseOptions(raw);
+            case text:
+                return new AnswerValue(Kind.TEXT, raw, -1, 0, null, null, null, null);
+            default:
+                return rawValue(raw);
+        }
+    }
+
+    /**
+     * Værdien der gemmes i Mongo
+     * Tider gemmes som "HH:mm" og tal som int (eller double hvis de har decimaler), så tal sendt
+     * som strenge ikke fylder som strenge. Øvrige svar gemmes uændret, da frontenden læser formatet direkte.
+     */
+    public Object toStorageValue() {
+        switch (kind) {
+            case TIME:
+                return formatMinuteOfDay(minuteOfDay);
+            case NUMBER:
+                return isIntegral() ? (Object) (int) number : (Object) number;
+            default:
+                return raw;
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    /**
+     * Tiden som minutter efter midnat, eller -1 hvis svaret ikke er en tid
+     */
+    public int getMinuteOfDay() {
+        return kind == Kind.TIME ? minuteOfDay : -1;
+    }
+
+    public boolean isTime() {
+        return kind == Kind.TIME;
+    }
+
+    public boolean isNumber() {
+        return kind == Kind.NUMBER;
+    }
+
+    public double getNumber() {
+        return number;
+    }
+
+    /**
+     * Om svaret er et tal uden decimaler inden for int's område
+     */
+    public boolean isIntegral() {
+        return kind == Kind.NUMBER && number == Math.rint(number)
+                && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Svaret som heltal
+     * @throws IllegalStateException hvis svaret ikke er et heltal (decimaler afkortes ikke stiltiende)
+     */
+    public int getInt() {
+        if (!isIntegral()) {
+            throw new IllegalStateException("Svaret er ikke et heltal: " + this);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Det valgte option ID, eller null hvis svaret ikke er et enkelt valg
+     */
+    public String getOptionId() {
+        return optionId;
+    }
+
+    /**
+     * Custom tekst for "Andet" option, eller null
+     */
+    public String getCustomText() {
+        return customText;
+    }
+
+    /**
+     * De valgte option ID'er for multiple_choice_multiple (tom hvis svaret ikke er flere valg)
+     */
+    public String[] getOptionIds() {
+        return optionIds != null ? optionIds : NO_OPTIONS;
+    }
+
+    /**
+     * Custom tekst for hvert valg i getOptionIds (null for valg uden custom tekst)
+     */
+    public String[] getCustomTexts() {
+        return customTexts != null ? customTexts : NO_OPTIONS;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case TIME:
+                return formatMinuteOfDay(minuteOfDay);
+            case NUMBER:
+                return String.valueOf(toStorageValue());
+            case OPTION:
+                return optionId;
+            case OPTIONS:
+                return Arrays.toString(optionIds);
+            default:
+                return String.valueOf(raw);
+        }
+    }
+
+    private static AnswerValue rawValue(Object raw) {
+        return new AnswerValue(Kind.RAW, raw, -1, 0, null, null, null, null);
+    }
+
+    /**
+     * Parser "HH:mm" (eller "H:mm") uden at oprette objekter
+     * @return Minutter efter midnat, eller -1 hvis tiden er ugyldig
+     */
+    public static int parseMinuteOfDay(String time) {
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() != colon + 3) {
+            return -1;
+        }
+        int hours = 0;
+        for (int i = 0; i < colon; i++) {
+            char c = time.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            hours = hours * 10 + (c - '0');
+        }
+        char m1 = time.charAt(colon + 1);
+        char m2 = time.charAt(colon + 2);
+        if (m1 < '0' || m1 > '5' || m2 < '0' || m2 > '9' || hours > 23) {
+            return -1;
+        }
+        return hours * 60 + (m1 - '0') * 10 + (m2 - '0');
+    }
+
+    public static String formatMinuteOfDay(int minuteOfDay) {
+        int hours = minuteOfDay / 60;
+        int minutes = minuteOfDay % 60;
+        return new String(new char[] {
+            (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':',
+            (char) ('0' + minutes / 10), (char) ('0' + minutes % 10)
+        });
+    }
+
+    /**
+     * Tallet, eller null hvis svaret ikke er et endeligt tal ("NaN" og "Infinity" er ikke tal her,
+     * da NaN aldrig er under min eller over max)
+     */
+    private static Double parseNumber(Object raw) {
+        double value;
+        if (raw instanceof Number) {
+            value = ((Number) raw).doubleValue();
+        } else {
+            try {
+                value = Double.parseDouble(raw.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return Double.isFinite(value) ? value : null;
+    }
+
+    /**
+     * Option ID fra et valg: en streng (eller et tal), eller "Andet" som Map med optionId
+     */
+    private static String extractOptionId(Object raw) {
+        if (raw instanceof Map) {
+            Object id = ((Map<?, ?>) raw).get("optionId");
+            return id != null ? id.toString() : null;
+        }
+        if (raw instanceof String || raw instanceof Number) {
+            return raw.toString();
+        }
+        return null;
+    }
+
+    private static String extractCustomText(Object raw) {
+        if (raw instanceof Map) {
+            Object text = ((Map<?, ?>) raw).get("customText");
+            return text != null ? text.toString() : null;
+        }
+        return null;
+    }
+
+    private static AnswerValue parseOptions(Object raw) {
+        List<?> items;
+        if (raw instanceof List) {
+            items = (List<?>) raw;
+        } else if (raw instanceof Object[]) {
+            items = Arrays.asList((Object[]) raw);
+        } else {
+            return rawValue(raw);
+        }
+        String[] ids = new String[items.size()];
+        String[] texts = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = extractOptionId(items.get(i));
+            if (ids[i] == null) {
+                return rawValue(raw);
+            }
+            texts[i] = extractCustomText(items.get(i));
+        }
+        return new AnswerValue(Kind.OPTIONS, raw, -1, 0, null, null, ids, texts);
+    }
+}
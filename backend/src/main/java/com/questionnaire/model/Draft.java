@@ -0,0 +1,96 @@
+package com.questionnaire.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Påbegyndt besvarelse gemt på serveren
+ * Én pr. bruger og spørgeskema, så borgeren kan fortsætte på en anden enhed.
+ * Slettes automatisk af Mongo når expiresAt er passeret (TTL indeks, se MongoIndexInitializer).
+ */
+@Document(collection = "drafts")
+public class Draft extends BaseEntity {
+    @Id
+    private String id; // userId + ":" + questionnaireId
+
+    private String userId;
+
+    private String questionnaireId;
+
+    private Map<String, Object> answers = new LinkedHashMap<>(); // Map<QuestionId, AnswerValue>
+
+    private String currentQuestionId; // Senest besvarede spørgsmål
+
+    private long version; // Tælles op ved hver ændring (betinget skrivning, se DraftServiceImpl)
+
+    private Date expiresAt;
+
+    public Draft() {
+        super();
+    }
+
+    public static String idFor(String userId, String questionnaireId) {
+        return userId + ":" + questionnaireId;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(String questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public Map<String, Object> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(Map<String, Object> answers) {
+        this.answers = answers;
+    }
+
+    public String getCurrentQuestionId() {
+        return currentQuestionId;
+    }
+
+    public void setCurrentQuestionId(String currentQuestionId) {
+        this.currentQuestionId = currentQuestionId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.questionnaire.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Resultatet af en indsendelse med en Idempotency-Key
+ * responseId er null mens den første indsendelse stadig behandles.
+ * Gemmes kun i Mongo når responses.idempotency.store=mongo (slettes via TTL indeks på expiresAt).
+ */
+@Document(collection = "idempotencyKeys")
+public class IdempotencyRecord {
+    @Id
+    private String id; // userId + ":" + Idempotency-Key
+
+    private String responseId;
+
+    private String requestHash; // SHA-256 af questionnaireId + svar, så nøglen ikke kan genbruges til en anden besvarelse
+
+    private Date expiresAt;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String id, String responseId, String requestHash, Date expiresAt) {
+        this.id = id;
+        this.responseId = responseId;
+        this.requestHash = requestHash;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isCompleted() {
+        return responseId != null;
+    }
+
+    /**
+     * Om nøglen blev brugt til den samme besvarelse (records uden hash accepteres)
+     */
+    public boolean matches(String hash) {
+        return requestHash == null || requestHash.equals(hash);
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(String responseId) {
+        this.responseId = responseId;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
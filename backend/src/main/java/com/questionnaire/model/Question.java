@@ -1,12 +1,19 @@
 package com.questionnaire.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.questionnaire.exception.QuestionLockedException;
 import com.questionnaire.exception.ValidationException;
+import com.questionnaire.validation.AnswerValidator;
+import com.questionnaire.validation.CompiledNumericValidator;
+import com.questionnaire.validation.CompiledTimeValidator;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "questions")
 public class Question extends BaseEntity implements Validatable {
@@ -27,6 +34,14 @@ public class Question extends BaseEntity implements Validatable {
     
     private List<QuestionOption> options; // For multiple_choice
     
+    // Opslag fra option ID til option - bygges ved første brug og gemmes ikke i Mongo
+    @Transient
+    private volatile Map<String, QuestionOption> optionsById;
+    
+    // Validator med grænserne parset på forhånd (time, numeric og slider) - bygges ved første brug og gemmes ikke i Mongo
+    @Transient
+    private volatile AnswerValidator compiledValidator;
+    
     private List<ConditionalChild> conditionalChildren;
     
     // Validation fields
@@ -119,6 +134,7 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setType(QuestionType type) {
         this.type = type;
+        this.compiledValidator = null;
     }
 
     public boolean isLocked() {
@@ -143,6 +159,51 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setOptions(List<QuestionOption> options) {
         this.options = options;
+        this.optionsById = null;
+    }
+
+    /**
+     * Finder en option ud fra dens ID uden at scanne options listen
+     * Opslaget bygges én gang pr. spørgsmål (spørgsmålene genbruges via QuestionSetCache)
+     * @param optionId Option ID
+     * @return Optionen, eller null hvis spørgsmålet ikke har en option med det ID
+     */
+    public QuestionOption findOption(String optionId) {
+        Map<String, QuestionOption> lookup = optionsById;
+        if (lookup == null) {
+            lookup = buildOptionLookup(options);
+            optionsById = lookup;
+        }
+        return lookup.get(optionId);
+    }
+
+    /**
+     * Validator for time, numeric og slider spørgsmål med grænserne parset på forhånd
+     * Bygges én gang pr. spørgsmål (spørgsmålene genbruges via QuestionSetCache) og nulstilles når grænserne ændres
+     * @return Den kompilerede validator
+     */
+    @JsonIgnore
+    public AnswerValidator getCompiledValidator() {
+        AnswerValidator validator = compiledValidator;
+        if (validator == null) {
+            validator = type == QuestionType.time_picker ? CompiledTimeValidator.of(this) : CompiledNumericValidator.of(this);
+            compiledValidator = validator;
+        }
+        return validator;
+    }
+
+    private static Map<String, QuestionOption> buildOptionLookup(List<QuestionOption> options) {
+        if (options == null || options.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, QuestionOption> lookup = new HashMap<>(options.size() * 2);
+        for (QuestionOption option : options) {
+            if (option.getId() != null) {
+                // Første option med et givet ID vinder, ligesom ved scanning af listen
+                lookup.putIfAbsent(option.getId(), option);
+            }
+        }
+        return lookup;
     }
 
     public List<ConditionalChild> getConditionalChildren() {
@@ -159,6 +220,7 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setMinValue(Integer minValue) {
         this.minValue = minValue;
+        this.compiledValidator = null;
     }
 
     public Integer getMaxValue() {
@@ -167,6 +229,7 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setMaxValue(Integer maxValue) {
         this.maxValue = maxValue;
+        this.compiledValidator = null;
     }
 
     public String getMinTime() {
@@ -175,6 +238,7 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setMinTime(String minTime) {
         this.minTime = minTime;
+        this.compiledValidator = null;
     }
 
     public String getMaxTime() {
@@ -183,6 +247,7 @@ public class Question extends BaseEntity implements Validatable {
 
     public void setMaxTime(String maxTime) {
         this.maxTime = maxTime;
+        this.compiledValidator = null;
     }
 
     public Boolean getHasColorCode() {
@@ -299,6 +364,8 @@ public class Question extends BaseEntity implements Validatable {
         this.type = other.getType();
         this.order = other.getOrder();
         this.options = other.getOptions();
+        this.optionsById = null;
+        this.compiledValidator = null;
         
         // Opdater valideringsfelter
         this.minValue = other.getMinValue();
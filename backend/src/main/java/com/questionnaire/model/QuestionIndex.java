@@ -0,0 +1,127 @@
+package com.questionnaire.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Uforanderlig liste af et spørgeskemas spørgsmål med opslag på order, (order, type), ID og parent
+ * Bygges én gang når spørgsmålene hentes, så QuestionFinder kan slå op i O(1) i stedet for at scanne listen.
+ * Ved flere spørgsmål med samme order (fx conditional children) gemmes det første i rækkefølgen,
+ * som svarer til hvad en lineær scanning ville finde.
+ */
+public final class QuestionIndex extends AbstractList<Question> implements RandomAccess {
+
+    private final List<Question> questions;
+    private final long version;
+    private final Map<Integer, Question> byOrder = new HashMap<>();
+    private final Map<Integer, Map<QuestionType, Question>> byOrderAndType = new HashMap<>();
+    private final Map<String, Question> byId = new HashMap<>();
+    private final Map<String, Question> parentByChildId = new HashMap<>();
+    private final Map<String, ConditionalChild> conditionByChildId = new HashMap<>();
+    private final Map<String, Integer> positionById = new HashMap<>();
+
+    private QuestionIndex(List<Question> questions, long version) {
+        this.questions = Collections.unmodifiableList(new ArrayList<>(questions));
+        this.version = version;
+        for (int i = 0; i < this.questions.size(); i++) {
+            Question question = this.questions.get(i);
+            byOrder.putIfAbsent(question.getOrder(), question);
+            if (question.getType() != null) {
+                byOrderAndType.computeIfAbsent(question.getOrder(), o -> new EnumMap<>(QuestionType.class))
+                        .putIfAbsent(question.getType(), question);
+            }
+            if (question.getId() != null) {
+                byId.putIfAbsent(question.getId(), question);
+                positionById.putIfAbsent(question.getId(), i);
+            }
+        }
+        for (Question question : this.questions) {
+            if (question.getConditionalChildren() != null) {
+                for (ConditionalChild cc : question.getConditionalChildren()) {
+                    if (cc.getChildQuestionId() != null && !parentByChildId.containsKey(cc.getChildQuestionId())) {
+                        parentByChildId.put(cc.getChildQuestionId(), question);
+                        conditionByChildId.put(cc.getChildQuestionId(), cc);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Bygger et index over spørgsmålene (returnerer listen selv hvis den allerede er et index)
+     */
+    public static QuestionIndex of(List<Question> questions) {
+        if (questions instanceof QuestionIndex) {
+            return (QuestionIndex) questions;
+        }
+        return new QuestionIndex(questions, -1);
+    }
+
+    /**
+     * Bygger et index over spørgsmålene som de så ud ved den givne spørgeskemaversion
+     */
+    public static QuestionIndex of(List<Question> questions, long version) {
+        return new QuestionIndex(questions, version);
+    }
+
+    /**
+     * Spørgeskemaets version da spørgsmålene blev hentet, eller -1 hvis den ikke er kendt
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Question get(int index) {
+        return questions.get(index);
+    }
+
+    @Override
+    public int size() {
+        return questions.size();
+    }
+
+    public Question findByOrder(int order) {
+        return byOrder.get(order);
+    }
+
+    public Question findByOrderAndType(int order, QuestionType type) {
+        Map<QuestionType, Question> byType = byOrderAndType.get(order);
+        return byType != null ? byType.get(type) : null;
+    }
+
+    public Question findById(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Spørgsmålets position i listen (bruges som bit i VisibilityEvaluator)
+     * @return Positionen, eller -1 hvis spørgsmålet ikke findes
+     */
+    public int positionOf(String id) {
+        Integer position = positionById.get(id);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Finder det spørgsmål der har det givne spørgsmål som conditional child
+     * @return Parent spørgsmålet, eller null hvis spørgsmålet ikke er et conditional child
+     */
+    public Question findParentOf(String childQuestionId) {
+        return parentByChildId.get(childQuestionId);
+    }
+
+    /**
+     * Finder den betingelse (parent option) der viser et conditional child
+     * @return Betingelsen fra parent spørgsmålet, eller null hvis spørgsmålet ikke er et conditional child
+     */
+    public ConditionalChild findConditionOf(String childQuestionId) {
+        return conditionByChildId.get(childQuestionId);
+    }
+}
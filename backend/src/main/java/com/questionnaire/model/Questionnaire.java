@@ -3,6 +3,9 @@ package com.questionnaire.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Document(collection = "questionnaires")
 public class Questionnaire extends BaseEntity {
     @Id
@@ -12,6 +15,15 @@ public class Questionnaire extends BaseEntity {
     
     private String name;
 
+    // Tælles op ved hver ændring af spørgsmål eller regler (se QuestionnaireVersionService)
+    private long version;
+
+    // SHA-256 af de aktive spørgsmål ved seneste version
+    private String contentHash;
+
+    // Cross-field valideringsregler som data (bruges af aftenskemaet)
+    private List<ValidationRuleDefinition> validationRules = new ArrayList<>();
+
     public Questionnaire() {
         super();
     }
@@ -46,6 +58,30 @@ public class Questionnaire extends BaseEntity {
     public void setName(String name) {
         this.name = name;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public List<ValidationRuleDefinition> getValidationRules() {
+        return validationRules;
+    }
+
+    public void setValidationRules(List<ValidationRuleDefinition> validationRules) {
+        this.validationRules = validationRules;
+    }
 }
 
 
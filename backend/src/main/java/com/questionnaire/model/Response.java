@@ -1,8 +1,11 @@
 package com.questionnaire.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.questionnaire.exception.ValidationException;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 @Document(collection = "responses")
@@ -19,6 +22,27 @@ public class Response extends BaseEntity implements Validatable {
     private Map<String, Object> answers; // Map<QuestionId, AnswerValue>
     
     private SleepParameters sleepParameters; // Beregnede søvnparametre (kun for morgen)
+    
+    private Long questionnaireVersion; // Spørgeskemaets version da besvarelsen blev valideret
+    
+    private Map<String, String> colorCodes; // Map<QuestionId, "green"/"yellow"/"red"> beregnet ved indsendelse
+    
+    private boolean hasRed; // Om mindst ét svar har rød farvekode (indekseret til rådgiverens triage)
+
+    @JsonIgnore
+    private List<String> pendingEvents; // Outbox: events der endnu ikke er behandlet (fjernes af ResponseEventPipeline)
+
+    @JsonIgnore
+    private String eventLeaseOwner; // Instansen der har claimet de ventende events
+
+    @JsonIgnore
+    private Date eventLeaseUntil; // Indtil hvornår claimet gælder (derefter må andre instanser tage over)
+
+    @JsonIgnore
+    private int eventAttempts; // Antal mislykkede forsøg på at behandle de ventende events
+
+    @JsonIgnore
+    private List<String> failedEvents; // Dead-letter: events der blev ved med at fejle
 
     public Response() {
         super();
@@ -57,6 +81,70 @@ public class Response extends BaseEntity implements Validatable {
         this.questionnaireId = questionnaireId;
     }
 
+    public Map<String, String> getColorCodes() {
+        return colorCodes;
+    }
+
+    public void setColorCodes(Map<String, String> colorCodes) {
+        this.colorCodes = colorCodes;
+    }
+
+    public List<String> getPendingEvents() {
+        return pendingEvents;
+    }
+
+    public void setPendingEvents(List<String> pendingEvents) {
+        this.pendingEvents = pendingEvents;
+    }
+
+    public String getEventLeaseOwner() {
+        return eventLeaseOwner;
+    }
+
+    public void setEventLeaseOwner(String eventLeaseOwner) {
+        this.eventLeaseOwner = eventLeaseOwner;
+    }
+
+    public Date getEventLeaseUntil() {
+        return eventLeaseUntil;
+    }
+
+    public void setEventLeaseUntil(Date eventLeaseUntil) {
+        this.eventLeaseUntil = eventLeaseUntil;
+    }
+
+    public int getEventAttempts() {
+        return eventAttempts;
+    }
+
+    public void setEventAttempts(int eventAttempts) {
+        this.eventAttempts = eventAttempts;
+    }
+
+    public List<String> getFailedEvents() {
+        return failedEvents;
+    }
+
+    public void setFailedEvents(List<String> failedEvents) {
+        this.failedEvents = failedEvents;
+    }
+
+    public boolean isHasRed() {
+        return hasRed;
+    }
+
+    public void setHasRed(boolean hasRed) {
+        this.hasRed = hasRed;
+    }
+
+    public Long getQuestionnaireVersion() {
+        return questionnaireVersion;
+    }
+
+    public void setQuestionnaireVersion(Long questionnaireVersion) {
+        this.questionnaireVersion = questionnaireVersion;
+    }
+
     public QuestionnaireType getQuestionnaireType() {
         return questionnaireType;
     }
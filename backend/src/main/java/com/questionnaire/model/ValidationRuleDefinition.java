@@ -0,0 +1,180 @@
+package com.questionnaire.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cross-field valideringsregel beskrevet som data
+ * Spørgsmål refereres via deres order værdi, så reglen overlever at spørgsmålene får nye ID'er.
+ * Da order ikke er unik (et conditional child kan have samme order som sin parent), slås spørgsmålet op
+ * på order og den type regeltypen kræver. Kan det stadig ikke afgøres, angives spørgsmålets ID
+ * (targetQuestionIds, referenceQuestionId, whenQuestionId), som så bruges i stedet for order.
+ * Reglerne kompileres af ValidationRuleCompiler til CrossFieldRule objekter.
+ */
+public class ValidationRuleDefinition {
+
+    /**
+     * Understøttede regeltyper
+     * Beskedens %-pladsholdere udfyldes i den angivne rækkefølge
+     */
+    public enum RuleType {
+        /** Manglende svar på targetOrders sættes til value */
+        DEFAULT_VALUE,
+        /** Alle targetOrders skal være besvaret */
+        REQUIRED,
+        /** Tiden i targetOrders[0] må ikke være før tiden i referenceOrder. Besked: (target svar, reference svar) */
+        TIME_NOT_BEFORE,
+        /** Tallet i targetOrders skal være mindst value. Besked: (indtastet værdi) */
+        MIN_VALUE,
+        /** Tallet i targetOrders skal være lig value. Besked: (indtastet værdi) */
+        EQUALS_VALUE,
+        /** Hvis tallet i referenceOrder er mindst threshold, må targetOrders ikke være value. Besked: (reference værdi) */
+        NOT_VALUE_WHEN_REFERENCE_AT_LEAST
+    }
+
+    private RuleType type;
+
+    // Valgfri betingelse: reglen gælder kun hvis spørgsmålet med whenOrder er besvaret med whenOptionId
+    private Integer whenOrder;
+    private String whenOptionId;
+
+    private String whenQuestionId;
+
+    private List<Integer> targetOrders = new ArrayList<>();
+    private List<String> targetQuestionIds;
+    private Integer referenceOrder;
+    private String referenceQuestionId;
+    private Integer threshold;
+    private Integer value;
+    private String message;
+
+    public ValidationRuleDefinition() {}
+
+    public ValidationRuleDefinition(RuleType type, List<Integer> targetOrders, String message) {
+        this.type = type;
+        this.targetOrders = targetOrders;
+        this.message = message;
+    }
+
+    /**
+     * Sætter betingelsen for reglen
+     * @return Denne regel (til kædning)
+     */
+    public ValidationRuleDefinition when(int order, String optionId) {
+        this.whenOrder = order;
+        this.whenOptionId = optionId;
+        return this;
+    }
+
+    /**
+     * Angiver spørgsmålenes ID'er for targetOrders (samme rækkefølge), så opslaget ikke afhænger af order
+     */
+    public ValidationRuleDefinition targetIds(List<String> questionIds) {
+        this.targetQuestionIds = questionIds;
+        return this;
+    }
+
+    public ValidationRuleDefinition reference(int order) {
+        this.referenceOrder = order;
+        return this;
+    }
+
+    public ValidationRuleDefinition threshold(int threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    public ValidationRuleDefinition value(int value) {
+        this.value = value;
+        return this;
+    }
+
+    // Getters and Setters
+    public RuleType getType() {
+        return type;
+    }
+
+    public void setType(RuleType type) {
+        this.type = type;
+    }
+
+    public Integer getWhenOrder() {
+        return whenOrder;
+    }
+
+    public void setWhenOrder(Integer whenOrder) {
+        this.whenOrder = whenOrder;
+    }
+
+    public String getWhenOptionId() {
+        return whenOptionId;
+    }
+
+    public void setWhenOptionId(String whenOptionId) {
+        this.whenOptionId = whenOptionId;
+    }
+
+    public String getWhenQuestionId() {
+        return whenQuestionId;
+    }
+
+    public void setWhenQuestionId(String whenQuestionId) {
+        this.whenQuestionId = whenQuestionId;
+    }
+
+    public List<String> getTargetQuestionIds() {
+        return targetQuestionIds;
+    }
+
+    public void setTargetQuestionIds(List<String> targetQuestionIds) {
+        this.targetQuestionIds = targetQuestionIds;
+    }
+
+    public String getReferenceQuestionId() {
+        return referenceQuestionId;
+    }
+
+    public void setReferenceQuestionId(String referenceQuestionId) {
+        this.referenceQuestionId = referenceQuestionId;
+    }
+
+    public List<Integer> getTargetOrders() {
+        return targetOrders;
+    }
+
+    public void setTargetOrders(List<Integer> targetOrders) {
+        this.targetOrders = targetOrders;
+    }
+
+    public Integer getReferenceOrder() {
+        return referenceOrder;
+    }
+
+    public void setReferenceOrder(Integer referenceOrder) {
+        this.referenceOrder = referenceOrder;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public void setValue(Integer value) {
+        this.value = value;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
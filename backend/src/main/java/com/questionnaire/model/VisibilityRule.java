@@ -0,0 +1,69 @@
+package com.questionnaire.model;
+
+import java.util.List;
+
+/**
+ * Value object der beskriver en skjul-regel som data, så klienten kan evaluere den selv
+ * Eksempel: hvis spørgsmål 6 i morgenskemaet besvares med "wake_no", skjules spørgsmål 7 og 8
+ */
+public class VisibilityRule {
+    private String questionId; // Spørgsmålet hvis svar styrer reglen
+    private VisibilityCondition condition;
+    private String optionId; // Kun sat når condition er OPTION_SELECTED
+    private List<String> hiddenQuestionIds;
+
+    public VisibilityRule() {
+    }
+
+    public VisibilityRule(String questionId, VisibilityCondition condition, String optionId, List<String> hiddenQuestionIds) {
+        this.questionId = questionId;
+        this.condition = condition;
+        this.optionId = optionId;
+        this.hiddenQuestionIds = hiddenQuestionIds;
+    }
+
+    public static VisibilityRule hideWhenOptionSelected(String questionId, String optionId, List<String> hiddenQuestionIds) {
+        return new VisibilityRule(questionId, VisibilityCondition.OPTION_SELECTED, optionId, hiddenQuestionIds);
+    }
+
+    public static VisibilityRule hideWhenUnanswered(String questionId, List<String> hiddenQuestionIds) {
+        return new VisibilityRule(questionId, VisibilityCondition.UNANSWERED, null, hiddenQuestionIds);
+    }
+
+    public String getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(String questionId) {
+        this.questionId = questionId;
+    }
+
+    public VisibilityCondition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(VisibilityCondition condition) {
+        this.condition = condition;
+    }
+
+    public String getOptionId() {
+        return optionId;
+    }
+
+    public void setOptionId(String optionId) {
+        this.optionId = optionId;
+    }
+
+    public List<String> getHiddenQuestionIds() {
+        return hiddenQuestionIds;
+    }
+
+    public void setHiddenQuestionIds(List<String> hiddenQuestionIds) {
+        this.hiddenQuestionIds = hiddenQuestionIds;
+    }
+
+    public enum VisibilityCondition {
+        OPTION_SELECTED,
+        UNANSWERED
+    }
+}
@@ -12,5 +12,6 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     List<User> findByRole(UserRole role);
+    List<User> findByAdvisorId(String advisorId);
 }
 
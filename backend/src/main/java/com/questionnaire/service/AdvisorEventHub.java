@@ -0,0 +1,244 @@
+package com.questionnaire.service;
+
+import com.questionnaire.dto.SubmissionNotification;
+import com.questionnaire.event.ResponseSubmittedEvent;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.model.User;
+import com.questionnaire.service.interfaces.IUserService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events til rådgiverens dashboard
+ * Abonnementer registreres pr. rådgiver, så en ny besvarelse kun sendes til den rådgiver borgeren er
+ * tilknyttet. Hver rådgiver har en ring af de seneste beskeder, så en klient der genopretter forbindelsen
+ * med Last-Event-ID får det den har misset. Hver forbindelse har en begrænset buffer og sendes fra en
+ * fælles tråd-pool; løber bufferen fuld (langsom klient), lukkes forbindelsen og klienten fortsætter
+ * fra sit Last-Event-ID i stedet for at optage hukommelse.
+ * Hub'en er pr. instans: abonnementer, gensendelsesringen og event ID'erne findes kun i denne JVM.
+ * Med flere instanser skal forbindelsen derfor være sticky (samme instans ved genopretning) - et
+ * Last-Event-ID fra en anden instans kan ikke sammenlignes med denne instans' ID'er, og klienten
+ * får så kun nye beskeder. Rådgiverens dashboard henter i forvejen listen ved genopretning.
+ */
+@Component
+public class AdvisorEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvisorEventHub.class);
+
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30); // Klienten genopretter selv forbindelsen
+    private static final int CONNECTION_BUFFER_SIZE = 64;
+    private static final int REPLAY_SIZE = 100;
+    private static final int SENDER_THREADS = 2;
+
+    @Autowired
+    private IUserService userService;
+
+    private final ConcurrentHashMap<String, AdvisorChannel> channels = new ConcurrentHashMap<>();
+    // Startes ved opstartstidspunktet, så event ID'er fortsat stiger efter en genstart af samme instans
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "advisor-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Åbner en SSE forbindelse for rådgiveren
+     * @param advisorId Rådgiverens ID
+     * @param lastEventId Sidste event ID klienten har modtaget (null ved første forbindelse)
+     */
+    public SseEmitter subscribe(String advisorId, Long lastEventId) {
+        AdvisorChannel channel = channels.computeIfAbsent(advisorId, id -> new AdvisorChannel());
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+
+        // Gensendelse og registrering under samme lås som publish, så intet event mistes eller sendes to gange
+        synchronized (channel) {
+            if (lastEventId != null) {
+                for (SubmissionNotification notification : channel.replay) {
+                    if (notification.getId() > lastEventId) {
+                        subscriber.offer(toEvent(notification));
+                    }
+                }
+            }
+            channel.subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Sender en besked til rådgiveren for borgeren når en besvarelse er behandlet af ResponseEventPipeline
+     */
+    @EventListener
+    public void onResponseSubmitted(ResponseSubmittedEvent event) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        Response response = event.getResponse();
+        User citizen;
+        try {
+            citizen = userService.findById(response.getUserId());
+        } catch (RuntimeException e) {
+            logger.debug("Borger {} ikke fundet - ingen besked til rådgiver", response.getUserId());
+            return;
+        }
+        AdvisorChannel channel = citizen.getAdvisorId() != null ? channels.get(citizen.getAdvisorId()) : null;
+        if (channel == null) {
+            return; // Rådgiveren har ikke abonneret siden opstart
+        }
+
+        SubmissionNotification notification = new SubmissionNotification();
+        notification.setCitizenId(citizen.getId());
+        notification.setCitizenName(citizen.getFullName());
+        notification.setResponseId(response.getId());
+        notification.setQuestionnaireType(response.getQuestionnaireType());
+        notification.setCreatedAt(response.getCreatedAt());
+        notification.setHasRed(response.isHasRed());
+        if (response.getQuestionnaireType() == QuestionnaireType.morning && response.getSleepParameters() != null) {
+            notification.setTib(response.getSleepParameters().getTIB());
+            notification.setTst(response.getSleepParameters().getTST());
+        }
+        publish(channel, notification);
+    }
+
+    /**
+     * Heartbeat holder forbindelserne åbne gennem proxyer og opdager lukkede klienter
+     */
+    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        for (AdvisorChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (AdvisorChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.close();
+            }
+        }
+        sender.shutdownNow();
+    }
+
+    private void publish(AdvisorChannel channel, SubmissionNotification notification) {
+        synchronized (channel) {
+            // Events leveres mindst én gang af pipelinen - samme besvarelse sendes kun én gang
+            for (SubmissionNotification sent : channel.replay) {
+                if (sent.getResponseId() != null && sent.getResponseId().equals(notification.getResponseId())) {
+                    return;
+                }
+            }
+            notification.setId(sequence.incrementAndGet());
+            channel.replay.addLast(notification);
+            if (channel.replay.size() > REPLAY_SIZE) {
+                channel.replay.removeFirst();
+            }
+            SseEmitter.SseEventBuilder event = toEvent(notification);
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toEvent(SubmissionNotification notification) {
+        return SseEmitter.event()
+                .id(String.valueOf(notification.getId()))
+                .name("submission")
+                .data(notification);
+    }
+
+    private static final class AdvisorChannel {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Deque<SubmissionNotification> replay = new ArrayDeque<>(); // Beskyttet af låsen på kanalen
+    }
+
+    /**
+     * Én SSE forbindelse med sin egen begrænsede buffer
+     * Højst én afsendelse pr. forbindelse kører ad gangen, så beskederne sendes i rækkefølge
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(CONNECTION_BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // Klienten kan ikke følge med - luk, så den fortsætter fra Last-Event-ID
+                logger.debug("SSE buffer fuld - lukker forbindelsen");
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false); // Pool lukket ved nedlukning
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Klienten er gået
+                closed = true;
+                buffer.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
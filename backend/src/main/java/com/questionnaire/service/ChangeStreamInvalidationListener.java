@@ -0,0 +1,291 @@
+package com.questionnaire.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.event.UserChangedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invaliderer in-process caches når spørgsmål, spørgeskemaer eller brugere ændres på en anden instans
+ * Lytter på en Mongo change stream for de tre collections og publicerer QuestionnaireChangedEvent
+ * og UserChangedEvent lokalt. Resume token gemmes i Mongo, så en genstartet instans fortsætter
+ * hvor den slap. Understøtter serveren ikke change streams (kræver replica set), polles
+ * spørgeskemaernes version og brugernes updatedAt i stedet.
+ */
+@Component
+public class ChangeStreamInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamInvalidationListener.class);
+
+    private static final String QUESTIONS = "questions";
+    private static final String QUESTIONNAIRES = "questionnaires";
+    private static final String USERS = "users";
+    private static final String STATE_COLLECTION = "changeStreamState";
+    private static final String STATE_ID = "cacheInvalidation";
+
+    private static final long POLL_INTERVAL_MS = 5_000;
+    private static final long RETRY_DELAY_MS = 30_000;
+    // Uden ændringer rykker resume token sig ved hver getMore, så det gemmes højst så ofte når det er stille
+    private static final long IDLE_TOKEN_SAVE_INTERVAL_MS = 60_000;
+
+    // Fejlkoder fra Mongo: change streams ikke understøttet / resume token ikke længere i oplog
+    private static final int CODE_NOT_REPLICA_SET = 40573;
+    private static final int CODE_HISTORY_LOST = 286;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean running;
+    private volatile boolean polling;
+    private Thread worker;
+
+    // Sidst sete version pr. spørgeskema og seneste updatedAt for brugere (bruges kun ved polling)
+    private final Map<String, Long> knownVersions = new HashMap<>();
+    private Date lastUserPoll;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::watchLoop, "change-stream-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Om instansen lige nu poller i stedet for at bruge change streams
+     */
+    public boolean isPolling() {
+        return polling;
+    }
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CODE_HISTORY_LOST) {
+                    // Ændringer er gået tabt - start forfra og smid alt cachet væk
+                    logger.warn("Resume token er udløbet, invaliderer alle caches");
+                    saveResumeToken(null);
+                    publishAll();
+                    continue;
+                }
+                fallBackToPolling(e);
+            } catch (MongoException e) {
+                fallBackToPolling(e);
+            } catch (RuntimeException e) {
+                // Uventet fejl må ikke stoppe tråden - så ville caches holde op med at blive invalideret
+                logger.error("Change stream lytteren fejlede uventet", e);
+                fallBackToPolling(e);
+            }
+            sleepBeforeRetry();
+        }
+    }
+
+    private void watch() {
+        Bson filter = Aggregates.match(Filters.in("ns.coll", QUESTIONS, QUESTIONNAIRES, USERS));
+        var stream = mongoTemplate.getDb().watch(List.of(filter)).fullDocument(FullDocument.UPDATE_LOOKUP);
+        BsonDocument resumeToken = loadResumeToken();
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            if (polling) {
+                logger.info("Change stream tilgængelig igen, stopper polling");
+                // Ændringer mens vi pollede er allerede håndteret, men caches kan være bygget på mellemtilstande
+                publishAll();
+            }
+            polling = false;
+            logger.info("Lytter på change stream for {}, {} og {}", QUESTIONS, QUESTIONNAIRES, USERS);
+            long lastSaved = System.currentTimeMillis();
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    handleSafely(change);
+                }
+                BsonDocument token = cursor.getResumeToken();
+                long now = System.currentTimeMillis();
+                if (token != null && !token.equals(resumeToken)
+                        && (change != null || now - lastSaved >= IDLE_TOKEN_SAVE_INTERVAL_MS)) {
+                    saveResumeToken(token);
+                    resumeToken = token;
+                    lastSaved = now;
+                }
+            }
+        }
+    }
+
+    /**
+     * Håndterer en ændring; fejler en lytter invalideres alt i stedet, så ingen cache står med gamle data
+     */
+    private void handleSafely(ChangeStreamDocument<Document> change) {
+        try {
+            handle(change);
+        } catch (RuntimeException e) {
+            logger.error("Kunne ikke håndtere ændring i change stream - invaliderer alle caches", e);
+            publishAll();
+        }
+    }
+
+    private void handle(ChangeStreamDocument<Document> change) {
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        OperationType operation = change.getOperationType();
+        if (collection == null || operation == OperationType.INVALIDATE) {
+            return;
+        }
+
+        switch (collection) {
+            case QUESTIONNAIRES: {
+                String id = idOf(change);
+                Document document = change.getFullDocument();
+                Number version = document != null ? document.get("version", Number.class) : null;
+                eventPublisher.publishEvent(new QuestionnaireChangedEvent(id, version != null ? version.longValue() : -1));
+                break;
+            }
+            case QUESTIONS: {
+                // Ved sletning kendes spørgeskemaet ikke, så alle spørgeskemaer invalideres
+                Document document = change.getFullDocument();
+                String questionnaireId = document != null ? document.getString("questionnaireId") : null;
+                eventPublisher.publishEvent(new QuestionnaireChangedEvent(questionnaireId));
+                break;
+            }
+            case USERS:
+                eventPublisher.publishEvent(new UserChangedEvent(idOf(change)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Fallback når change streams ikke er tilgængelige: sammenlign spørgeskemaernes versioner
+     * og find brugere med nyere updatedAt end sidste poll
+     */
+    @Scheduled(fixedDelay = POLL_INTERVAL_MS)
+    public void poll() {
+        if (!polling) {
+            return;
+        }
+        try {
+            Query questionnaireQuery = new Query();
+            questionnaireQuery.fields().include("version");
+            for (Document questionnaire : mongoTemplate.find(questionnaireQuery, Document.class, QUESTIONNAIRES)) {
+                String id = questionnaire.getObjectId("_id").toHexString();
+                Number value = questionnaire.get("version", Number.class);
+                long version = value != null ? value.longValue() : 0;
+                Long known = knownVersions.put(id, version);
+                if (known != null && known != version) {
+                    eventPublisher.publishEvent(new QuestionnaireChangedEvent(id, version));
+                }
+            }
+
+            Date now = new Date();
+            if (lastUserPoll != null) {
+                Query userQuery = Query.query(Criteria.where("updatedAt").gt(lastUserPoll));
+                userQuery.fields().include("_id");
+                for (Document user : mongoTemplate.find(userQuery, Document.class, USERS)) {
+                    eventPublisher.publishEvent(new UserChangedEvent(user.getObjectId("_id").toHexString()));
+                }
+            }
+            lastUserPoll = now;
+        } catch (RuntimeException e) {
+            logger.warn("Polling efter ændringer fejlede: {}", e.getMessage());
+        }
+    }
+
+    private void fallBackToPolling(RuntimeException e) {
+        if (!polling) {
+            if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == CODE_NOT_REPLICA_SET) {
+                logger.warn("Change streams kræver et replica set - invaliderer caches via polling");
+            } else {
+                logger.warn("Change stream fejlede, invaliderer caches via polling: {}", e.getMessage());
+            }
+            // Ændringer fra før første poll kendes ikke
+            publishAll();
+        }
+        polling = true;
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void publishAll() {
+        try {
+            eventPublisher.publishEvent(new QuestionnaireChangedEvent(null));
+            eventPublisher.publishEvent(new UserChangedEvent(null));
+        } catch (RuntimeException e) {
+            logger.error("Kunne ikke invalidere alle caches", e);
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        Document state = mongoTemplate.findById(STATE_ID, Document.class, STATE_COLLECTION);
+        Object token = state != null ? state.get("resumeToken") : null;
+        return token instanceof Document ? ((Document) token).toBsonDocument() : null;
+    }
+
+    private void saveResumeToken(BsonDocument token) {
+        Update update = token != null
+                ? Update.update("resumeToken", Document.parse(token.toJson())).set("updatedAt", new Date())
+                : new Update().unset("resumeToken").set("updatedAt", new Date());
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(STATE_ID)), update, STATE_COLLECTION);
+    }
+
+    private static String idOf(ChangeStreamDocument<Document> change) {
+        BsonDocument key = change.getDocumentKey();
+        BsonValue id = key != null ? key.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.questionnaire.service;
+
+import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.dto.CohortMemberDto;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.model.SleepParameters;
+import com.questionnaire.model.User;
+import com.questionnaire.service.interfaces.ICohortAnalyticsService;
+import com.questionnaire.service.interfaces.IUserService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kohorteoverblik for rådgivere
+ * Alle borgeres seneste søvnparametre, 7-dages gennemsnit, TST-trend og besvarelsesgrad
+ * beregnes i én aggregation over de sidste 14 døgns besvarelser i stedet for et kald pr. borger.
+ * Kun for borgere uden besvarelser i den periode hentes den seneste besvarelse med en ekstra forespørgsel.
+ * Læsningerne går gennem analyticsMongoTemplate, som har sin egen connection pool (se MongoConfig).
+ */
+@Service
+public class CohortAnalyticsServiceImpl implements ICohortAnalyticsService {
+
+    private static final String RESPONSES = "responses";
+    private static final String[] PARAMETERS = { "SOL", "WASO", "TIB", "TST" };
+    private static final int WINDOW_DAYS = 7;
+
+    @Autowired
+    @Qualifier("analyticsMongoTemplate")
+    private MongoTemplate analyticsMongoTemplate;
+
+    @Autowired
+    private IUserService userService;
+
+    public List<CohortMemberDto> getAdvisorCohort(String advisorId) {
+        List<User> citizens = userService.getCitizensByAdvisor(advisorId);
+        if (citizens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> userIds = new ArrayList<>();
+        for (User citizen : citizens) {
+            userIds.add(citizen.getId());
+        }
+
+        ZoneId zone = ZoneId.of(QuestionnaireConstants.COPENHAGEN_TIMEZONE);
+        LocalDate today = LocalDate.now(zone);
+        Date windowStart = Date.from(today.minusDays(WINDOW_DAYS - 1).atStartOfDay(zone).toInstant());
+        Date previousWindowStart = Date.from(today.minusDays(2 * WINDOW_DAYS - 1).atStartOfDay(zone).toInstant());
+
+        Map<String, Document> rows = new HashMap<>();
+        for (Document row : analyticsMongoTemplate.getCollection(RESPONSES).aggregate(buildPipeline(userIds, windowStart, previousWindowStart, zone))) {
+            rows.put(row.getString("_id"), row);
+        }
+
+        // Borgere uden besvarelser i de to vinduer får kun deres seneste besvarelse (uden gennemsnit)
+        List<String> inactiveIds = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!rows.containsKey(userId)) {
+                inactiveIds.add(userId);
+            }
+        }
+        if (!inactiveIds.isEmpty()) {
+            for (Document row : analyticsMongoTemplate.getCollection(RESPONSES).aggregate(buildLatestPipeline(inactiveIds))) {
+                rows.put(row.getString("_id"), row);
+            }
+        }
+
+        List<CohortMemberDto> cohort = new ArrayList<>();
+        for (User citizen : citizens) {
+            cohort.add(toDto(citizen, rows.get(citizen.getId())));
+        }
+        return cohort;
+    }
+
+    public List<Response> getMorningResponses(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("questionnaireType").is(QuestionnaireType.morning));
+        return analyticsMongoTemplate.find(query, Response.class);
+    }
+
+    /**
+     * Aggregation over de sidste to vinduer (14 døgn) - ældre historik læses ikke
+     * 7-dages gennemsnittene er for vinduet der slutter i dag, ikke for ugen før borgerens seneste besvarelse.
+     */
+    private List<Document> buildPipeline(List<String> userIds, Date windowStart, Date previousWindowStart, ZoneId zone) {
+        Document match = new Document("$match", new Document("userId", new Document("$in", userIds))
+                .append("questionnaireType", QuestionnaireType.morning.name())
+                .append("createdAt", new Document("$gte", previousWindowStart))
+                .append("sleepParameters", new Document("$ne", null)));
+
+        // Sorteret efter createdAt, så $last er den seneste besvarelse
+        Document sort = new Document("$sort", new Document("createdAt", 1));
+
+        Document inWindow = new Document("$gte", Arrays.asList("$createdAt", windowStart));
+        Document inPreviousWindow = new Document("$and", Arrays.asList(
+                new Document("$gte", Arrays.asList("$createdAt", previousWindowStart)),
+                new Document("$lt", Arrays.asList("$createdAt", windowStart))));
+        Document group = new Document("_id", "$userId")
+                .append("latestResponseAt", new Document("$last", "$createdAt"))
+                .append("latest", new Document("$last", "$sleepParameters"))
+                .append("currentTST", new Document("$avg", new Document("$cond", Arrays.asList(inWindow, "$sleepParameters.TST", null))))
+                .append("previousTST", new Document("$avg", new Document("$cond", Arrays.asList(inPreviousWindow, "$sleepParameters.TST", null))))
+                .append("daysAnswered", new Document("$addToSet", new Document("$cond", Arrays.asList(inWindow,
+                        new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$createdAt").append("timezone", zone.getId())),
+                        "$$REMOVE"))));
+        // $avg ignorerer null, så en borger uden besvarelser i vinduet får null i stedet for et gammelt gennemsnit
+        for (String parameter : PARAMETERS) {
+            group.append("avg" + parameter, new Document("$avg", new Document("$cond",
+                    Arrays.asList(inWindow, "$sleepParameters." + parameter, null))));
+        }
+
+        return Arrays.asList(match, sort, new Document("$group", group));
+    }
+
+    /**
+     * Den seneste besvarelse for borgere uden besvarelser i vinduerne (bruger user_type_createdAt indekset)
+     */
+    private List<Document> buildLatestPipeline(List<String> userIds) {
+        Document match = new Document("$match", new Document("userId", new Document("$in", userIds))
+                .append("questionnaireType", QuestionnaireType.morning.name())
+                .append("sleepParameters", new Document("$ne", null)));
+        Document sort = new Document("$sort", new Document("userId", 1).append("createdAt", -1));
+        Document group = new Document("_id", "$userId")
+                .append("latestResponseAt", new Document("$first", "$createdAt"))
+                .append("latest", new Document("$first", "$sleepParameters"));
+        return Arrays.asList(match, sort, new Document("$group", group));
+    }
+
+    private CohortMemberDto toDto(User citizen, Document row) {
+        CohortMemberDto dto = new CohortMemberDto();
+        dto.setUserId(citizen.getId());
+        dto.setFullName(citizen.getFullName());
+        if (row == null) {
+            return dto;
+        }
+
+        dto.setLatestResponseAt(row.getDate("latestResponseAt"));
+        Document latest = row.get("latest", Document.class);
+        if (latest != null) {
+            dto.setLatestSleepParameters(new SleepParameters(number(latest, "SOL"), number(latest, "WASO"),
+                    number(latest, "TIB"), number(latest, "TST")));
+        }
+        if (row.get("avgTST") != null) {
+            dto.setSevenDayAverage(new SleepParameters(number(row, "avgSOL"), number(row, "avgWASO"),
+                    number(row, "avgTIB"), number(row, "avgTST")));
+        }
+
+        Number current = row.get("currentTST", Number.class);
+        Number previous = row.get("previousTST", Number.class);
+        if (current != null && previous != null) {
+            dto.setTstTrend(current.doubleValue() - previous.doubleValue());
+        }
+
+        List<?> days = row.getList("daysAnswered", Object.class);
+        int daysAnswered = days != null ? days.size() : 0;
+        dto.setDaysAnswered(daysAnswered);
+        dto.setAdherence((double) daysAnswered / WINDOW_DAYS);
+        return dto;
+    }
+
+    private static double number(Document document, String key) {
+        Number value = document.get(key, Number.class);
+        return value != null ? value.doubleValue() : 0;
+    }
+}
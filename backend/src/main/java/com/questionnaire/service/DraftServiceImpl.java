@@ -0,0 +1,194 @@
+package com.questionnaire.service;
+
+import com.questionnaire.dto.QuestionnaireProgress;
+import com.questionnaire.exception.DraftConflictException;
+import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Draft;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.ResolvedQuestionnaire;
+import com.questionnaire.model.Response;
+import com.questionnaire.service.interfaces.IDraftService;
+import com.questionnaire.service.interfaces.IResponseService;
+import com.questionnaire.utils.VisibilityEvaluator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kladder for påbegyndte besvarelser
+ * Klienten sender kun ét svar pr. trin; svaret skrives med en enkelt $set på kladden,
+ * og kun det nye svar valideres. Skrivningen er betinget på kladdens version, så to samtidige
+ * svar ikke kan overskrive hinanden på grundlag af en forældet validering. Svar på conditional
+ * children der ikke længere vises fjernes i samme skrivning. Kladden er begrænset til
+ * spørgeskemaets spørgsmål og udløber efter DRAFT_TTL_HOURS uden aktivitet.
+ */
+@Service
+public class DraftServiceImpl implements IDraftService {
+
+    private static final long DRAFT_TTL_HOURS = 24;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuestionnaireResolver questionnaireResolver;
+
+    @Autowired
+    private QuestionSetCache questionSetCache;
+
+    @Autowired
+    private IResponseService responseService;
+
+    public Optional<Draft> getDraft(String userId, String questionnaireId) {
+        ResolvedQuestionnaire resolved = resolve(questionnaireId);
+        return Optional.ofNullable(mongoTemplate.findById(Draft.idFor(userId, resolved.getQuestionnaireId()), Draft.class));
+    }
+
+    public QuestionnaireProgress getProgress(String userId, String questionnaireId) {
+        Map<String, Object> answers = getDraft(userId, questionnaireId)
+                .map(Draft::getAnswers)
+                .orElse(Map.of());
+        return responseService.getProgress(questionnaireId, answers);
+    }
+
+    public Question answer(String userId, String questionnaireId, String questionId, Object answer, String language) {
+        ResolvedQuestionnaire resolved = resolve(questionnaireId);
+        QuestionIndex questions = questionSetCache.getQuestions(resolved.getQuestionnaireId());
+        Question question = questions.findById(questionId);
+        if (question == null) {
+            throw new ValidationException("Spørgsmål findes ikke i spørgeskemaet: " + questionId);
+        }
+        AnswerValue value = AnswerValue.parse(question.getType(), answer);
+        String draftId = Draft.idFor(userId, resolved.getQuestionnaireId());
+
+        // Læs, valider og skriv betinget på kladdens version - ændres kladden imens, prøves forfra
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+            Draft draft = mongoTemplate.findById(draftId, Draft.class);
+            long expectedVersion = draft != null ? draft.getVersion() : 0;
+            Map<String, Object> answers = new LinkedHashMap<>();
+            if (draft != null && draft.getAnswers() != null) {
+                answers.putAll(draft.getAnswers());
+            }
+            if (value != null) {
+                answers.put(questionId, value.toStorageValue());
+            } else {
+                answers.remove(questionId);
+            }
+            List<String> pruned = pruneHiddenChildren(questions, answers);
+
+            // Validerer kun det nye svar (og regler der afhænger af det) og finder næste spørgsmål
+            Question next = responseService.getNextQuestion(resolved.getQuestionnaireId(), answers, questionId, language);
+
+            if (write(draftId, expectedVersion, userId, resolved.getQuestionnaireId(), questionId, value, pruned)) {
+                return next;
+            }
+        }
+        throw new DraftConflictException("Kladden blev ændret samtidig - prøv igen");
+    }
+
+    /**
+     * Fjerner svar på conditional children der ikke længere vises (fx når parent svaret er ændret)
+     * @return ID'erne på de fjernede svar
+     */
+    private List<String> pruneHiddenChildren(QuestionIndex questions, Map<String, Object> answers) {
+        BitSet visible = VisibilityEvaluator.evaluate(questions, answers);
+        List<String> pruned = new ArrayList<>();
+        Iterator<String> ids = answers.keySet().iterator();
+        while (ids.hasNext()) {
+            String id = ids.next();
+            int position = questions.positionOf(id);
+            if (position >= 0 && !visible.get(position) && questions.findParentOf(id) != null) {
+                ids.remove();
+                pruned.add(id);
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Skriver kun ændringen, betinget på at kladden stadig har den version den blev læst med
+     * En ny kladde oprettes af upserten; findes den allerede med en anden version, fejler upserten på _id.
+     * @return false hvis kladden er ændret siden den blev læst
+     */
+    private boolean write(String draftId, long expectedVersion, String userId, String questionnaireId,
+                          String questionId, AnswerValue value, List<String> pruned) {
+        Criteria criteria = Criteria.where("_id").is(draftId);
+        if (expectedVersion == 0) {
+            // Kladder fra før versionsfeltet har ingen version
+            criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false));
+        } else {
+            criteria.and("version").is(expectedVersion);
+        }
+
+        Date now = new Date();
+        Update update = new Update()
+                .set("currentQuestionId", questionId)
+                .set("updatedAt", now)
+                .set("expiresAt", new Date(now.getTime() + TimeUnit.HOURS.toMillis(DRAFT_TTL_HOURS)))
+                .inc("version", 1)
+                .setOnInsert("userId", userId)
+                .setOnInsert("questionnaireId", questionnaireId)
+                .setOnInsert("createdAt", now);
+        if (value != null) {
+            update.set("answers." + questionId, value.toStorageValue());
+        } else {
+            update.unset("answers." + questionId);
+        }
+        for (String id : pruned) {
+            update.unset("answers." + id);
+        }
+
+        try {
+            Draft written = mongoTemplate.findAndModify(Query.query(criteria), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Draft.class);
+            return written != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public Response submit(String userId, String questionnaireId) {
+        ResolvedQuestionnaire resolved = resolve(questionnaireId);
+        String draftId = Draft.idFor(userId, resolved.getQuestionnaireId());
+        Draft draft = mongoTemplate.findById(draftId, Draft.class);
+        if (draft == null || draft.getAnswers() == null || draft.getAnswers().isEmpty()) {
+            throw new ValidationException("Der er ingen kladde at indsende");
+        }
+
+        // Fuld validering som ved en almindelig indsendelse
+        Response response = responseService.saveResponse(userId, resolved.getQuestionnaireId(), draft.getAnswers());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(draftId)), Draft.class);
+        return response;
+    }
+
+    public void discard(String userId, String questionnaireId) {
+        ResolvedQuestionnaire resolved = resolve(questionnaireId);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(Draft.idFor(userId, resolved.getQuestionnaireId()))), Draft.class);
+    }
+
+    private ResolvedQuestionnaire resolve(String questionnaireId) {
+        ResolvedQuestionnaire resolved = questionnaireResolver.resolveQuestionnaireId(questionnaireId);
+        if (resolved == null) {
+            throw new RuntimeException("Kunne ikke finde spørgeskema: " + questionnaireId);
+        }
+        return resolved;
+    }
+}
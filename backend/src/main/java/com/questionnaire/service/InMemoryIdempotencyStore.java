@@ -0,0 +1,76 @@
+package com.questionnaire.service;
+
+import com.questionnaire.model.IdempotencyRecord;
+import com.questionnaire.service.interfaces.IIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key lager i hukommelsen (standard, én instans)
+ * Begrænset til max-entries nøgler - de ældste fjernes først - og nøgler udløber efter ttl-hours.
+ * En reservation gælder i lease-seconds og forlænges til ttl-hours først når indsendelsen er gemt.
+ */
+@Component
+@ConditionalOnProperty(name = "responses.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IIdempotencyStore {
+
+    @Value("${responses.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${responses.idempotency.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${responses.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Indsættelsesrækkefølge, så den ældste nøgle fjernes når lageret er fuldt
+    private final LinkedHashMap<String, IdempotencyRecord> records = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public synchronized IdempotencyRecord reserve(String key, String requestHash) {
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && existing.getExpiresAt().after(new Date())) {
+            return existing;
+        }
+        records.remove(key);
+        records.put(key, new IdempotencyRecord(key, null, requestHash, leaseUntil()));
+        return null;
+    }
+
+    public synchronized void complete(String key, String responseId) {
+        IdempotencyRecord record = records.get(key);
+        if (record != null) {
+            record.setResponseId(responseId);
+            record.setExpiresAt(expiresAt());
+        }
+    }
+
+    public synchronized void release(String key) {
+        IdempotencyRecord record = records.get(key);
+        if (record != null && !record.isCompleted()) {
+            records.remove(key);
+        }
+    }
+
+    private Date expiresAt() {
+        return new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours));
+    }
+
+    /**
+     * Udløb for en reservation der endnu ikke er færdig - kort, så en instans der går ned
+     * midt i en indsendelse ikke blokerer nøglen i ttl-hours
+     */
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseSeconds));
+    }
+}
@@ -0,0 +1,78 @@
+package com.questionnaire.service;
+
+import com.questionnaire.model.IdempotencyRecord;
+import com.questionnaire.service.interfaces.IIdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key lager i Mongo, delt mellem flere instanser (responses.idempotency.store=mongo)
+ * Reservationen er en insert på _id, så kun én instans kan reservere en nøgle.
+ * En reservation gælder i lease-seconds og forlænges til ttl-hours først når indsendelsen er gemt.
+ * Mongo sletter udløbne nøgler via TTL indekset på expiresAt (se MongoIndexInitializer).
+ */
+@Component
+@ConditionalOnProperty(name = "responses.idempotency.store", havingValue = "mongo")
+public class MongoIdempotencyStore implements IIdempotencyStore {
+
+    @Value("${responses.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${responses.idempotency.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public IdempotencyRecord reserve(String key, String requestHash) {
+        try {
+            mongoTemplate.insert(new IdempotencyRecord(key, null, requestHash, leaseUntil()));
+            return null;
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = mongoTemplate.findById(key, IdempotencyRecord.class);
+            if (existing != null && existing.getExpiresAt().after(new Date())) {
+                return existing;
+            }
+            // Udløbet (også en reservation hvis instans gik ned) men endnu ikke slettet af TTL monitoren - overtag nøglen
+            Query expired = Query.query(Criteria.where("_id").is(key).and("expiresAt").lte(new Date()));
+            Update update = new Update().unset("responseId").set("requestHash", requestHash).set("expiresAt", leaseUntil());
+            if (mongoTemplate.updateFirst(expired, update, IdempotencyRecord.class).getModifiedCount() == 1) {
+                return null;
+            }
+            return mongoTemplate.findById(key, IdempotencyRecord.class);
+        }
+    }
+
+    public void complete(String key, String responseId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)),
+                new Update().set("responseId", responseId).set("expiresAt", expiresAt()),
+                IdempotencyRecord.class);
+    }
+
+    public void release(String key) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(key).and("responseId").exists(false)),
+                IdempotencyRecord.class);
+    }
+
+    private Date expiresAt() {
+        return new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours));
+    }
+
+    /**
+     * Udløb for en reservation der endnu ikke er færdig - kort, så en instans der går ned
+     * midt i en indsendelse ikke blokerer nøglen i ttl-hours
+     */
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseSeconds));
+    }
+}
@@ -0,0 +1,93 @@
+package com.questionnaire.service;
+
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.model.Question;
+import com.questionnaire.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache for spørgsmål slået op på ID, inkl. slettede spørgsmål
+ * Bruges når gamle besvarelser skal vises: kun de spørgsmål besvarelserne refererer til hentes,
+ * og de der mangler hentes samlet med én $in forespørgsel.
+ * Cachen er begrænset til max-entries spørgsmål; de mindst brugte fjernes først.
+ */
+@Component
+public class QuestionByIdCache {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${questions.by-id-cache.max-entries:5000}")
+    private int maxEntries;
+
+    // Adgangsrækkefølge, så det mindst brugte spørgsmål fjernes når cachen er fuld
+    private final LinkedHashMap<String, Question> questions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Question> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Generation så spørgsmål hentet før en invalidering ikke gemmes bagefter (beskyttes af questions)
+    private long generation;
+
+    /**
+     * Henter spørgsmålene med de givne ID'er (slettede spørgsmål inkluderet)
+     * @param questionIds Spørgsmålenes ID'er
+     * @return Map fra ID til spørgsmål (ID'er der ikke findes er udeladt)
+     */
+    public Map<String, Question> getAll(Collection<String> questionIds) {
+        Map<String, Question> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long current;
+        synchronized (questions) {
+            for (String id : questionIds) {
+                Question question = questions.get(id);
+                if (question != null) {
+                    result.put(id, question);
+                } else {
+                    missing.add(id);
+                }
+            }
+            current = generation;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // findAllById er én $in forespørgsel og filtrerer ikke slettede spørgsmål fra
+        List<Question> loaded = new ArrayList<>();
+        questionRepository.findAllById(missing).forEach(loaded::add);
+        synchronized (questions) {
+            for (Question question : loaded) {
+                result.put(question.getId(), question);
+                if (generation == current) {
+                    questions.put(question.getId(), question);
+                }
+            }
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onQuestionnaireChanged(QuestionnaireChangedEvent event) {
+        synchronized (questions) {
+            generation++;
+            if (event.getQuestionnaireId() == null) {
+                questions.clear();
+                return;
+            }
+            questions.values().removeIf(q -> event.getQuestionnaireId().equals(q.getQuestionnaireId()));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.questionnaire.service;
 
 import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
 import com.questionnaire.model.QuestionType;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +10,7 @@ import java.util.List;
 /**
  * Service for finding questions in a list
  * Eliminates code duplication in search logic
+ * Hvis listen er et QuestionIndex (fx fra QuestionSetCache) er opslagene O(1), ellers scannes listen
  */
 @Service
 public class QuestionFinder {
@@ -21,6 +23,9 @@ public class QuestionFinder {
      * @return Spørgsmålet hvis fundet, null ellers
      */
     public Question findByOrderAndType(List<Question> questions, int order, QuestionType type) {
+        if (questions instanceof QuestionIndex) {
+            return ((QuestionIndex) questions).findByOrderAndType(order, type);
+        }
         for (Question q : questions) {
             if (q.getOrder() == order && q.getType() == type) {
                 return q;
@@ -36,6 +41,9 @@ public class QuestionFinder {
      * @return Spørgsmålet hvis fundet, null ellers
      */
     public Question findByOrder(List<Question> questions, int order) {
+        if (questions instanceof QuestionIndex) {
+            return ((QuestionIndex) questions).findByOrder(order);
+        }
         for (Question q : questions) {
             if (q.getOrder() == order) {
                 return q;
@@ -1,16 +1,34 @@
 package com.questionnaire.service;
 
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.exception.QuestionLockedException;
+import com.questionnaire.exception.ValidationException;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.QuestionBuilder;
+import com.questionnaire.model.QuestionIndex;
 import com.questionnaire.model.QuestionOption;
 import com.questionnaire.model.QuestionOptionBuilder;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.ValidationRuleDefinition;
 import com.questionnaire.repository.QuestionRepository;
 import com.questionnaire.service.interfaces.IQuestionService;
+import com.questionnaire.validation.ValidationRuleCompiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,6 +38,18 @@ public class QuestionServiceImpl implements IQuestionService {
     @Autowired
     private QuestionRepository questionRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuestionnaireVersionService versionService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ValidationRuleCompiler ruleCompiler;
+
     public Question createQuestion(Question question) {
         // Sæt ID til null for at sikre at MongoDB genererer en ny ID
         question.setId(null);
@@ -27,7 +57,7 @@ public class QuestionServiceImpl implements IQuestionService {
         // Valider spørgsmålet før oprettelse
         question.validate();
         
-        return questionRepository.save(question);
+        return saveAndPublish(question);
     }
 
     public Question updateQuestion(String id, Question questionDetails) {
@@ -37,7 +67,7 @@ public class QuestionServiceImpl implements IQuestionService {
         // Brug domain logic fra Question-klassen
         question.updateFrom(questionDetails);
 
-        return questionRepository.save(question);
+        return saveAndPublish(question);
     }
 
     public void deleteQuestion(String id) {
@@ -49,7 +79,126 @@ public class QuestionServiceImpl implements IQuestionService {
 
         // Soft delete: sæt deletedAt i stedet for at slette
         question.setDeletedAt(new Date());
-        questionRepository.save(question);
+        saveAndPublish(question);
+    }
+
+    /**
+     * Gemmer et spørgsmål, tæller spørgeskemaets version op og giver caches besked om ændringen
+     * Ændringen afvises hvis den får spørgeskemaets valideringsregler til at læse andre spørgsmål.
+     */
+    private Question saveAndPublish(Question question) {
+        List<ValidationRuleDefinition> rules = getValidationRules(question.getQuestionnaireId());
+        if (!rules.isEmpty()) {
+            List<Question> before = questionRepository.findByQuestionnaireIdOrderByOrderAsc(question.getQuestionnaireId());
+            List<Question> after = new ArrayList<>();
+            for (Question existing : before) {
+                if (question.getId() == null || !question.getId().equals(existing.getId())) {
+                    after.add(existing);
+                }
+            }
+            if (question.getDeletedAt() == null) {
+                after.add(question);
+            }
+            ruleCompiler.verifyUnchanged(rules, before, after);
+        }
+
+        Question saved = questionRepository.save(question);
+        long version = versionService.bump(saved.getQuestionnaireId());
+        eventPublisher.publishEvent(new QuestionnaireChangedEvent(saved.getQuestionnaireId(), version));
+        return saved;
+    }
+
+    /**
+     * Giver spørgsmålenes root spørgsmål en ny rækkefølge
+     * Listen skal indeholde præcis spørgeskemaets root spørgsmål (ikke conditional children), hver én gang.
+     * Root spørgsmålene fordeles på de order værdier de allerede optager, så conditional children
+     * beholder deres order og der ikke opstår dubletter. Alle ændringer sendes som én ordered bulkWrite
+     * efterfulgt af én version bump, så det virker uden replica set.
+     */
+    public List<Question> reorderQuestions(String questionnaireId, List<String> questionIds) {
+        if (questionnaireId == null || questionIds == null || questionIds.isEmpty()) {
+            throw new ValidationException("questionnaireId og questionIds er påkrævet");
+        }
+
+        QuestionIndex questions = QuestionIndex.of(questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId));
+        List<Question> roots = new ArrayList<>();
+        for (Question question : questions) {
+            if (questions.findParentOf(question.getId()) == null) {
+                roots.add(question);
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (String id : questionIds) {
+            if (!seen.add(id)) {
+                throw new ValidationException("Spørgsmål optræder flere gange: " + id);
+            }
+            Question question = questions.findById(id);
+            if (question == null) {
+                throw new ValidationException("Spørgsmål findes ikke i spørgeskemaet: " + id);
+            }
+            if (questions.findParentOf(id) != null) {
+                throw new ValidationException("Conditional children kan ikke flyttes selvstændigt: " + id);
+            }
+        }
+        if (seen.size() != roots.size()) {
+            throw new ValidationException("Listen skal indeholde alle spørgeskemaets root spørgsmål ("
+                    + roots.size() + "), men indeholder " + seen.size());
+        }
+
+        // Roots er sorteret efter order, så slot i er den i'te laveste order en root har i dag
+        Map<String, Integer> newOrders = new HashMap<>();
+        for (int i = 0; i < questionIds.size(); i++) {
+            Question question = questions.findById(questionIds.get(i));
+            int newOrder = roots.get(i).getOrder();
+            if (question.getOrder() == newOrder) {
+                continue;
+            }
+            if (question.isLocked()) {
+                throw new QuestionLockedException("Spørgsmål er låst og kan ikke flyttes");
+            }
+            newOrders.put(question.getId(), newOrder);
+        }
+
+        // Valideringsregler uden spørgsmåls ID'er slår spørgsmål op på order - de må ikke skifte spørgsmål
+        List<ValidationRuleDefinition> rules = getValidationRules(questionnaireId);
+        if (!newOrders.isEmpty() && !rules.isEmpty()) {
+            List<Question> after = new ArrayList<>();
+            for (Question question : questions) {
+                Question copy = QuestionBuilder.from(question).build();
+                copy.setOrder(newOrders.getOrDefault(question.getId(), question.getOrder()));
+                after.add(copy);
+            }
+            ruleCompiler.verifyUnchanged(rules, questions, after);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Question.class);
+        Date now = new Date();
+        int changed = 0;
+        for (Map.Entry<String, Integer> entry : newOrders.entrySet()) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())),
+                    Update.update("order", entry.getValue()).set("updatedAt", now));
+            changed++;
+        }
+
+        if (changed > 0) {
+            bulk.execute();
+            long version = versionService.bump(questionnaireId);
+            eventPublisher.publishEvent(new QuestionnaireChangedEvent(questionnaireId, version));
+        }
+        return questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId);
+    }
+
+    /**
+     * Spørgeskemaets gemte valideringsregler (tom liste hvis der ingen er)
+     */
+    private List<ValidationRuleDefinition> getValidationRules(String questionnaireId) {
+        if (questionnaireId == null) {
+            return List.of();
+        }
+        Questionnaire questionnaire = mongoTemplate.findById(questionnaireId, Questionnaire.class);
+        return questionnaire != null && questionnaire.getValidationRules() != null
+                ? questionnaire.getValidationRules() : List.of();
     }
 
     public Question findById(String id) {
@@ -123,7 +272,7 @@ public class QuestionServiceImpl implements IQuestionService {
         // Brug domain logic fra Question-klassen
         question.addConditionalChild(optionId, childQuestionId);
         
-        return questionRepository.save(question);
+        return saveAndPublish(question);
     }
 
     public Question removeConditionalChild(String questionId, String optionId, String childQuestionId) {
@@ -132,7 +281,7 @@ public class QuestionServiceImpl implements IQuestionService {
         // Brug domain logic fra Question-klassen
         question.removeConditionalChild(optionId, childQuestionId);
         
-        return questionRepository.save(question);
+        return saveAndPublish(question);
     }
 
     public Question updateConditionalChildrenOrder(String questionId, String optionId, List<String> childQuestionIds) {
@@ -141,7 +290,7 @@ public class QuestionServiceImpl implements IQuestionService {
         // Brug domain logic fra Question-klassen
         question.updateConditionalChildrenOrder(optionId, childQuestionIds);
         
-        return questionRepository.save(question);
+        return saveAndPublish(question);
     }
 
     /**
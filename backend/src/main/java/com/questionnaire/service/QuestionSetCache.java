@@ -0,0 +1,95 @@
+package com.questionnaire.service;
+
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for et spørgeskemas aktive spørgsmål som QuestionIndex
+ * Spørgsmålene hentes og indekseres én gang og genbruges af validering, navigation og beregning
+ * indtil spørgeskemaet får en ny version. Spørgsmålene må ikke ændres af dem der bruger dem.
+ */
+@Component
+public class QuestionSetCache {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionnaireVersionService versionService;
+
+    private final ConcurrentHashMap<String, QuestionIndex> indexes = new ConcurrentHashMap<>();
+
+    // Generation så et index bygget før en invalidering ikke gemmes bagefter
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Henter spørgeskemaets aktive spørgsmål sorteret efter order
+     * @param questionnaireId Spørgeskemaets ID
+     * @return Indekseret, uforanderlig liste af spørgsmål
+     */
+    public QuestionIndex getQuestions(String questionnaireId) {
+        QuestionIndex index = indexes.get(questionnaireId);
+        if (index != null) {
+            return index;
+        }
+        long current = generation.get();
+        // Læs versionen før spørgsmålene, så indexet aldrig får en nyere version end sit indhold
+        long version = versionService.currentVersion(questionnaireId);
+        index = QuestionIndex.of(questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId), version);
+        if (generation.get() == current) {
+            QuestionIndex existing = indexes.putIfAbsent(questionnaireId, index);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Henter spørgsmålene i mindst den givne version af spørgeskemaet
+     * Bruges når kalderen allerede har læst spørgeskemaet, så et index fra en ældre version
+     * (fx før invalideringen fra en anden instans er nået frem) ikke bruges sammen med den nyere version.
+     * @param questionnaireId Spørgeskemaets ID
+     * @param minVersion Spørgeskemaets version som kalderen kender den
+     */
+    public QuestionIndex getQuestions(String questionnaireId, long minVersion) {
+        QuestionIndex index = indexes.get(questionnaireId);
+        if (index != null && index.getVersion() < minVersion) {
+            invalidate(questionnaireId);
+        }
+        return getQuestions(questionnaireId);
+    }
+
+    public void invalidate(String questionnaireId) {
+        generation.incrementAndGet();
+        if (questionnaireId != null) {
+            indexes.remove(questionnaireId);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        indexes.clear();
+    }
+
+    @EventListener
+    public void onQuestionnaireChanged(QuestionnaireChangedEvent event) {
+        if (event.getQuestionnaireId() == null) {
+            invalidateAll();
+            return;
+        }
+        QuestionIndex cached = indexes.get(event.getQuestionnaireId());
+        // Et index der allerede har den nye version behøver ikke smides væk
+        if (cached != null && event.getVersion() >= 0 && cached.getVersion() >= event.getVersion()) {
+            return;
+        }
+        invalidate(event.getQuestionnaireId());
+    }
+}
@@ -0,0 +1,179 @@
+package com.questionnaire.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.utils.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache for færdigt serialiserede JSON payloads for spørgeskemaindhold
+ * Morgenskemaet er låst og aftenskemaet ændres kun når en rådgiver redigerer det,
+ * så JSON bytes (og evt. gzip) kan genbruges indtil spørgeskemaet ændres.
+ * Payloads gemmes under spørgeskemaets version: en request der har læst en nyere version erstatter
+ * de cachede payloads, og en request med en ældre version (samtidig ændring) får en payload der ikke caches.
+ */
+@Component
+public class QuestionnairePayloadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnairePayloadCache.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // questionnaireId -> payloads for spørgeskemaets seneste kendte version
+    private final ConcurrentHashMap<String, VersionedPayloads> payloads = new ConcurrentHashMap<>();
+
+    // Generation pr. questionnaire, så en payload bygget før en invalidering ikke gemmes bagefter
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Henter en cachet payload eller serialiserer værdien fra loaderen
+     * @param questionnaireId Spørgeskemaet payloaden tilhører (bruges til invalidering)
+     * @param version Spørgeskemaets version som kalderen har læst den
+     * @param key Nøgle der identificerer payloaden inden for spørgeskemaet (fx endpoint og sprog)
+     * @param loader Henter værdien der skal serialiseres hvis den ikke er cachet
+     * @return Cachet payload med JSON bytes og ETag
+     */
+    public CachedPayload get(String questionnaireId, long version, String key, Supplier<Object> loader) {
+        VersionedPayloads versioned = payloads.compute(questionnaireId, (id, existing) ->
+                existing != null && existing.version >= version ? existing : new VersionedPayloads(version));
+        if (versioned.version != version) {
+            // Kalderen har læst en ældre version end den cachede - byg payloaden uden at cache den
+            return CachedPayload.of(serialize(loader.get()));
+        }
+        Map<String, CachedPayload> entries = versioned.entries;
+        CachedPayload cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generationOf(questionnaireId).get();
+        CachedPayload payload = CachedPayload.of(serialize(loader.get()));
+
+        // Gem kun hvis spørgeskemaet ikke er ændret mens vi serialiserede
+        if (generationOf(questionnaireId).get() == generation) {
+            CachedPayload existing = entries.putIfAbsent(key, payload);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Fjerner alle payloads for et spørgeskema
+     */
+    public void invalidate(String questionnaireId) {
+        if (questionnaireId == null) {
+            return;
+        }
+        generationOf(questionnaireId).incrementAndGet();
+        payloads.remove(questionnaireId);
+        logger.debug("Payload cache invalideret for questionnaire: {}", questionnaireId);
+    }
+
+    /**
+     * Fjerner alle payloads
+     */
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        payloads.clear();
+    }
+
+    @EventListener
+    public void onQuestionnaireChanged(QuestionnaireChangedEvent event) {
+        if (event.getQuestionnaireId() == null) {
+            invalidateAll();
+            return;
+        }
+        invalidate(event.getQuestionnaireId());
+    }
+
+    private static final class VersionedPayloads {
+        private final long version;
+        private final Map<String, CachedPayload> entries = new ConcurrentHashMap<>(); // payload key -> payload
+
+        private VersionedPayloads(long version) {
+            this.version = version;
+        }
+    }
+
+    private AtomicLong generationOf(String questionnaireId) {
+        return generations.computeIfAbsent(questionnaireId, id -> new AtomicLong());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kunne ikke serialisere payload", e);
+        }
+    }
+
+    /**
+     * Færdigt serialiseret payload med stærk ETag
+     * Gzip-versionen bygges først når en klient beder om den
+     */
+    public static final class CachedPayload {
+        private final byte[] json;
+        private final String etag;
+        private volatile byte[] gzip;
+
+        private CachedPayload(byte[] json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        static CachedPayload of(byte[] json) {
+            return new CachedPayload(json, "\"" + HashUtils.sha256Hex(json) + "\"");
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * ETag for gzip-repræsentationen (en anden repræsentation kræver en anden stærk ETag)
+         */
+        public String getGzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        public byte[] getGzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private static byte[] compress(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                gzipOut.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.questionnaire.service;
+
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.QuestionnaireType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory opslag mellem spørgeskematype og ID
+ * Hver type oprettes med en atomisk upsert (findAndModify med upsert) på et unikt indeks på type,
+ * så samtidige første forespørgsler - også på flere instanser - aldrig opretter dubletter.
+ * Efter første opslag kræver det ingen I/O at oversætte "morning"/"evening" til et ID eller omvendt.
+ */
+@Component
+public class QuestionnaireRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireRegistry.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ConcurrentHashMap<QuestionnaireType, String> idByType = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QuestionnaireType> typeById = new ConcurrentHashMap<>();
+
+    private volatile boolean indexEnsured;
+
+    /**
+     * Sikrer det unikke indeks og indlæser (eller opretter) alle spørgeskematyper
+     * Kaldes ved opstart af DatabaseSeeder
+     */
+    public void initialize() {
+        ensureUniqueTypeIndex();
+        for (QuestionnaireType type : QuestionnaireType.values()) {
+            getId(type);
+        }
+    }
+
+    /**
+     * Spørgeskemaets ID for typen - oprettes hvis det ikke findes
+     */
+    public String getId(QuestionnaireType type) {
+        String id = idByType.get(type);
+        if (id != null) {
+            return id;
+        }
+        Questionnaire questionnaire = upsert(type);
+        register(type, questionnaire.getId());
+        return questionnaire.getId();
+    }
+
+    /**
+     * Typen for et spørgeskema ID
+     * @return Typen, eller null hvis ID'et ikke er et kendt spørgeskema
+     */
+    public QuestionnaireType getType(String questionnaireId) {
+        if (questionnaireId == null) {
+            return null;
+        }
+        QuestionnaireType type = typeById.get(questionnaireId);
+        if (type != null) {
+            return type;
+        }
+        // Ukendt ID - registret kan være tømt efter en ændring, så indlæs typerne igen
+        for (QuestionnaireType candidate : QuestionnaireType.values()) {
+            if (questionnaireId.equals(getId(candidate))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    @EventListener
+    public void onQuestionnaireChanged(QuestionnaireChangedEvent event) {
+        // Spørgeskemaer skifter ikke ID ved almindelige ændringer, så kun ukendte eller "alle" events rydder registret
+        if (event.getQuestionnaireId() == null) {
+            idByType.clear();
+            typeById.clear();
+        }
+    }
+
+    private void register(QuestionnaireType type, String id) {
+        idByType.put(type, id);
+        typeById.put(id, type);
+    }
+
+    private Questionnaire upsert(QuestionnaireType type) {
+        ensureUniqueTypeIndex();
+        Query query = Query.query(Criteria.where("type").is(type));
+        Date now = new Date();
+        Update update = new Update()
+                .setOnInsert("name", type == QuestionnaireType.morning ? "Morgenskema" : "Aftenskema")
+                .setOnInsert("version", 0L)
+                .setOnInsert("validationRules", new ArrayList<>())
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(query, update, options, Questionnaire.class);
+        } catch (DuplicateKeyException e) {
+            // En anden forespørgsel oprettede spørgeskemaet samtidig - læs det den oprettede
+            return mongoTemplate.findOne(query, Questionnaire.class);
+        }
+    }
+
+    private void ensureUniqueTypeIndex() {
+        if (indexEnsured) {
+            return;
+        }
+        try {
+            mongoTemplate.indexOps(Questionnaire.class).ensureIndex(new Index()
+                    .on("type", Sort.Direction.ASC)
+                    .unique()
+                    .named("type_unique"));
+        } catch (RuntimeException e) {
+            // Fx hvis der allerede findes dubletter fra før indekset - upsert finder stadig det første
+            logger.warn("Kunne ikke oprette unikt indeks på questionnaires.type: {}", e.getMessage());
+        }
+        indexEnsured = true;
+    }
+}
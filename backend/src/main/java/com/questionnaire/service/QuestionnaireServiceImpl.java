@@ -1,16 +1,28 @@
 package com.questionnaire.service;
 
+import com.questionnaire.dto.QuestionnaireDefinitionDto;
+import com.questionnaire.dto.QuestionnaireDefinitionDto.ConditionalMapping;
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.exception.QuestionLockedException;
+import com.questionnaire.model.ConditionalChild;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.Questionnaire;
 import com.questionnaire.model.QuestionnaireType;
-import com.questionnaire.repository.QuestionRepository;
+import com.questionnaire.model.ValidationRuleDefinition;
 import com.questionnaire.repository.QuestionnaireRepository;
 import com.questionnaire.service.interfaces.IQuestionService;
 import com.questionnaire.service.interfaces.IQuestionnaireService;
+import com.questionnaire.strategy.ConditionalLogicFactory;
+import com.questionnaire.validation.ValidationRuleCompiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,25 +32,37 @@ public class QuestionnaireServiceImpl implements IQuestionnaireService {
     private QuestionnaireRepository questionnaireRepository;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private QuestionSetCache questionSetCache;
+
+    @Autowired
+    private QuestionnaireRegistry questionnaireRegistry;
 
     public Questionnaire getQuestionnaireByType(QuestionnaireType type) {
-        return questionnaireRepository.findByType(type)
-                .orElseGet(() -> {
-                    // Opret spørgeskema hvis det ikke findes
-                    String name = type == QuestionnaireType.morning ? "Morgenskema" : "Aftenskema";
-                    Questionnaire questionnaire = new Questionnaire(type, name);
-                    return questionnaireRepository.save(questionnaire);
-                });
+        // Registret opretter spørgeskemaet atomisk hvis det ikke findes
+        String id = questionnaireRegistry.getId(type);
+        return questionnaireRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Questionnaire ikke fundet: " + type));
     }
 
     public List<Question> getQuestionsByQuestionnaireId(String questionnaireId) {
-        return questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId);
+        return questionSetCache.getQuestions(questionnaireId);
     }
 
     @Autowired
     private IQuestionService questionService;
 
+    @Autowired
+    private ConditionalLogicFactory conditionalLogicFactory;
+
+    @Autowired
+    private ValidationRuleCompiler ruleCompiler;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuestionnaireVersionService versionService;
+
     public List<Question> getQuestionsByQuestionnaireId(String questionnaireId, String language) {
         List<Question> questions = getQuestionsByQuestionnaireId(questionnaireId);
         // Oversæt spørgsmål baseret på sprog
@@ -47,6 +71,12 @@ public class QuestionnaireServiceImpl implements IQuestionnaireService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    public List<Question> getQuestions(Questionnaire questionnaire, String language) {
+        return questionSetCache.getQuestions(questionnaire.getId(), questionnaire.getVersion()).stream()
+                .map(q -> questionService.translateQuestion(q, language))
+                .collect(java.util.stream.Collectors.toList());
+    }
+
     public Questionnaire createQuestionnaire(QuestionnaireType type, String name) {
         Questionnaire questionnaire = new Questionnaire(type, name);
         return questionnaireRepository.save(questionnaire);
@@ -59,6 +89,66 @@ public class QuestionnaireServiceImpl implements IQuestionnaireService {
     public Optional<Questionnaire> findById(String id) {
         return questionnaireRepository.findById(id);
     }
+
+    public QuestionnaireDefinitionDto getDefinition(Questionnaire questionnaire, String language) {
+        List<Question> questions = questionSetCache.getQuestions(questionnaire.getId(), questionnaire.getVersion());
+
+        QuestionnaireDefinitionDto definition = new QuestionnaireDefinitionDto();
+        definition.setQuestionnaireId(questionnaire.getId());
+        definition.setType(questionnaire.getType());
+        definition.setQuestions(questions.stream()
+                .map(q -> questionService.translateQuestion(q, language))
+                .collect(java.util.stream.Collectors.toList()));
+
+        // Rækkefølgen af root spørgsmål er den samme som getNextQuestion bruger
+        definition.setRootQuestionIds(questionService.findRootQuestions(questions).stream()
+                .map(Question::getId)
+                .collect(java.util.stream.Collectors.toList()));
+
+        definition.setConditionalChildren(buildConditionalMappings(questions));
+        definition.setVisibilityRules(conditionalLogicFactory.getStrategy(questionnaire.getType()).describeRules(questions));
+        return definition;
+    }
+
+    public Questionnaire updateValidationRules(QuestionnaireType type, List<ValidationRuleDefinition> rules) {
+        if (type == QuestionnaireType.morning) {
+            throw new QuestionLockedException("Morgenskemaets valideringsregler er låst og kan ikke ændres");
+        }
+        Questionnaire questionnaire = getQuestionnaireByType(type);
+        List<ValidationRuleDefinition> newRules = rules != null ? rules : new ArrayList<>();
+
+        // Afvis regler der ikke kan kompileres mod spørgeskemaets spørgsmål, og gem de spørgsmåls ID'er
+        // reglerne er slået op til, så en senere ændring af order ikke flytter reglerne
+        List<Question> questions = getQuestionsByQuestionnaireId(questionnaire.getId());
+        ruleCompiler.verify(newRules, questions);
+        ruleCompiler.pinQuestionIds(newRules, questions);
+
+        // Gem reglerne og tæl versionen op i samme skrivning
+        long version = versionService.bump(questionnaire.getId(), Update.update("validationRules", newRules));
+        eventPublisher.publishEvent(new QuestionnaireChangedEvent(questionnaire.getId(), version));
+        return questionnaireRepository.findById(questionnaire.getId()).orElse(questionnaire);
+    }
+
+    /**
+     * Grupperer conditional children pr. parent og option og bevarer deres rækkefølge
+     */
+    private List<ConditionalMapping> buildConditionalMappings(List<Question> questions) {
+        List<ConditionalMapping> mappings = new ArrayList<>();
+        for (Question parent : questions) {
+            if (parent.getConditionalChildren() == null || parent.getConditionalChildren().isEmpty()) {
+                continue;
+            }
+            Map<String, List<String>> childrenByOption = new LinkedHashMap<>();
+            for (ConditionalChild cc : parent.getConditionalChildren()) {
+                if (cc.getOptionId() != null && cc.getChildQuestionId() != null) {
+                    childrenByOption.computeIfAbsent(cc.getOptionId(), k -> new ArrayList<>()).add(cc.getChildQuestionId());
+                }
+            }
+            childrenByOption.forEach((optionId, childIds) ->
+                    mappings.add(new ConditionalMapping(parent.getId(), optionId, childIds)));
+        }
+        return mappings;
+    }
 }
 
 
@@ -0,0 +1,138 @@
+package com.questionnaire.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.repository.QuestionRepository;
+import com.questionnaire.utils.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Versionering af spørgeskemaer
+ * Versionen tælles atomisk op i Mongo ($inc) ved hver ændring af spørgsmål eller regler,
+ * så caches kan sammenligne versioner og besvarelser kan knyttes til den struktur de blev besvaret mod.
+ * Content hash er et SHA-256 fingeraftryk af de aktive spørgsmål. Den beregnes efter versionen er talt op
+ * (spørgsmålene er da gemt) og skrives kun hvis versionen stadig er den samme, så ved samtidige ændringer
+ * er det altid den seneste versions hash der står på spørgeskemaet.
+ * Spørgsmålene gemmes før versionen tælles op (to skrivninger). Fejler optællingen, prøves den igen
+ * MAX_BUMP_ATTEMPTS gange, så versionen, content hash og ETags ikke bliver ved med at beskrive de gamle spørgsmål.
+ * Er det første forsøg faktisk skrevet, springer versionen blot et tal over.
+ */
+@Service
+public class QuestionnaireVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionnaireVersionService.class);
+
+    private static final int MAX_BUMP_ATTEMPTS = 3;
+    private static final long BUMP_RETRY_DELAY_MS = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Tæller versionen op og opdaterer content hash
+     * @param questionnaireId Spørgeskemaets ID
+     * @return Den nye version, eller 0 hvis spørgeskemaet ikke findes
+     */
+    public long bump(String questionnaireId) {
+        return bump(questionnaireId, new Update());
+    }
+
+    /**
+     * Udfører en opdatering af spørgeskemaet og tæller versionen op i samme atomiske skrivning
+     * Kaldes efter spørgsmålene er gemt. Content hash beregnes derefter ud fra de gemte spørgsmål
+     * og sættes betinget på den nye version (en samtidig ændring med en højere version vinder).
+     * @param questionnaireId Spørgeskemaets ID
+     * @param update Ekstra felter der skal opdateres (fx valideringsregler)
+     * @return Den nye version, eller 0 hvis spørgeskemaet ikke findes
+     */
+    public long bump(String questionnaireId, Update update) {
+        if (questionnaireId == null) {
+            return 0;
+        }
+        update.inc("version", 1)
+                .set("updatedAt", new Date());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bumpOnce(questionnaireId, update);
+            } catch (DataAccessException e) {
+                if (attempt >= MAX_BUMP_ATTEMPTS) {
+                    logger.error("Kunne ikke opdatere version for spørgeskema {} efter {} forsøg", questionnaireId, attempt, e);
+                    throw e;
+                }
+                logger.warn("Opdatering af version for spørgeskema {} fejlede - prøver igen", questionnaireId, e);
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private long bumpOnce(String questionnaireId, Update update) {
+        Questionnaire updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(questionnaireId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Questionnaire.class);
+        if (updated == null) {
+            logger.warn("Kunne ikke opdatere version - spørgeskema ikke fundet: {}", questionnaireId);
+            return 0;
+        }
+        long version = updated.getVersion();
+
+        // Spørgsmålene læses efter versionen er talt op, så de indeholder mindst denne versions ændring.
+        // Har en anden ændring talt versionen op i mellemtiden, skriver den sin egen (nyere) hash
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(questionnaireId).and("version").is(version)),
+                Update.update("contentHash", computeContentHash(questionnaireId)),
+                Questionnaire.class);
+        logger.debug("Spørgeskema {} er nu version {}", questionnaireId, version);
+        return version;
+    }
+
+    private static void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(BUMP_RETRY_DELAY_MS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Afbrudt under opdatering af spørgeskemaets version", e);
+        }
+    }
+
+    /**
+     * Henter spørgeskemaets nuværende version
+     * @return Versionen, eller 0 hvis spørgeskemaet ikke findes
+     */
+    public long currentVersion(String questionnaireId) {
+        Query query = Query.query(Criteria.where("_id").is(questionnaireId));
+        query.fields().include("version");
+        Questionnaire questionnaire = mongoTemplate.findOne(query, Questionnaire.class);
+        return questionnaire != null ? questionnaire.getVersion() : 0;
+    }
+
+    private String computeContentHash(String questionnaireId) {
+        List<Question> questions = questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId);
+        try {
+            return HashUtils.sha256Hex(objectMapper.writeValueAsBytes(questions));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kunne ikke beregne content hash", e);
+        }
+    }
+}
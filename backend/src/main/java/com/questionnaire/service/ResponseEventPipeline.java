@@ -0,0 +1,252 @@
+package com.questionnaire.service;
+
+import com.questionnaire.event.ResponseSubmittedEvent;
+import com.questionnaire.model.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynkron behandling af afledt arbejde efter en indsendelse
+ * Besvarelsen gemmes med sine ventende events i pendingEvents (outbox i samme dokument og samme insert),
+ * så borgeren får svar så snart besvarelsen er gemt. Workere publicerer derefter ResponseSubmittedEvent
+ * og fjerner pendingEvents. Er køen fuld, eller går instansen ned før et event er behandlet,
+ * finder recovery-sweepet besvarelsen via pendingEvents og lægger den i køen igen.
+ * En ny besvarelse indsættes med en lease til den instans der gemmer den, og sweepet tager kun besvarelser
+ * ældre end grace-perioden hvis lease er udløbet (claimet atomisk med findAndModify). Er leasen udløbet før en
+ * worker når til besvarelsen, forlænges den kun hvis ingen anden instans har claimet den i mellemtiden.
+ * Leveringen er derfor at-least-once: kun hvis selve behandlingen varer længere end lease-seconds
+ * kan en anden instans levere det samme event. Events der bliver ved med at fejle
+ * flyttes til failedEvents (dead-letter) efter max-attempts forsøg.
+ */
+@Component
+public class ResponseEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseEventPipeline.class);
+
+    private static final long SWEEP_INTERVAL_MS = 30_000;
+    private static final int SWEEP_LIMIT = 500;
+
+    @Value("${responses.events.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${responses.events.workers:2}")
+    private int workerCount;
+
+    @Value("${responses.events.grace-seconds:60}")
+    private long graceSeconds;
+
+    @Value("${responses.events.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${responses.events.max-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<Response> queue;
+    // Besvarelser i køen eller under behandling, så sweep og indsendelse ikke lægger den samme i køen to gange
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+    private final String instanceId = UUID.randomUUID().toString();
+    private Counter deadLettered;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("responses.events.queue", queue, BlockingQueue::size);
+        deadLettered = Counter.builder("responses.events.dead_lettered")
+                .description("Besvarelser hvis events er flyttet til failedEvents efter for mange forsøg")
+                .register(meterRegistry);
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::workLoop, "response-events-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Events der ikke er nået ud af køen ligger stadig i pendingEvents og tages af næste sweep
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Giver denne instans lease på en ny besvarelses events, så recovery-sweepet på andre instanser
+     * ikke tager dem mens de venter i den lokale kø
+     * Kaldes før besvarelsen indsættes, så leasen gemmes i samme insert
+     */
+    public void claimOnInsert(Response response) {
+        response.setEventLeaseOwner(instanceId);
+        response.setEventLeaseUntil(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseSeconds)));
+    }
+
+    /**
+     * Lægger en gemt besvarelse i køen uden at vente
+     * Er køen fuld, behandles besvarelsen af næste recovery-sweep
+     */
+    public void publish(Response response) {
+        if (response.getId() == null || response.getPendingEvents() == null || response.getPendingEvents().isEmpty()) {
+            return;
+        }
+        if (!inFlight.add(response.getId())) {
+            return;
+        }
+        if (!queue.offer(response)) {
+            inFlight.remove(response.getId());
+            logger.debug("Event-køen er fuld - besvarelse {} behandles af recovery-sweep", response.getId());
+        }
+    }
+
+    /**
+     * Finder besvarelser med ubehandlede events (efter nedbrud eller fuld kø) og lægger dem i køen
+     * Hver besvarelse claimes med findAndModify, så kun én instans tager den ad gangen
+     */
+    @Scheduled(fixedDelay = SWEEP_INTERVAL_MS)
+    public void recoverPendingEvents() {
+        int limit = Math.min(queue.remainingCapacity(), SWEEP_LIMIT);
+        int recovered = 0;
+        for (int i = 0; i < limit; i++) {
+            Response claimed = claimNext();
+            if (claimed == null) {
+                break;
+            }
+            publish(claimed);
+            recovered++;
+        }
+        if (recovered > 0) {
+            logger.info("Recovery-sweep claimede {} besvarelser med ubehandlede events", recovered);
+        }
+    }
+
+    private Response claimNext() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("pendingEvents").exists(true)
+                        .and("createdAt").lt(new Date(now.getTime() - TimeUnit.SECONDS.toMillis(graceSeconds)))
+                        .orOperator(Criteria.where("eventLeaseUntil").exists(false), Criteria.where("eventLeaseUntil").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("eventLeaseOwner", instanceId)
+                .set("eventLeaseUntil", new Date(now.getTime() + TimeUnit.SECONDS.toMillis(leaseSeconds)));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Response.class);
+    }
+
+    private void workLoop() {
+        while (running) {
+            Response response;
+            try {
+                response = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (response == null) {
+                continue;
+            }
+            try {
+                deliver(response);
+            } finally {
+                inFlight.remove(response.getId());
+            }
+        }
+    }
+
+    /**
+     * Sikrer at denne instans stadig har lease på besvarelsen før eventsene leveres
+     * Så længe leasen ikke er udløbet kan ingen anden instans have claimet den. Ellers forlænges den
+     * kun hvis den stadig er vores og eventsene ikke allerede er behandlet.
+     */
+    private boolean holdsLease(Response response) {
+        Date now = new Date();
+        if (instanceId.equals(response.getEventLeaseOwner()) && response.getEventLeaseUntil() != null
+                && response.getEventLeaseUntil().after(now)) {
+            return true;
+        }
+        Query owned = Query.query(Criteria.where("_id").is(response.getId())
+                .and("pendingEvents").exists(true)
+                .and("eventLeaseOwner").is(instanceId));
+        Update renew = Update.update("eventLeaseUntil", new Date(now.getTime() + TimeUnit.SECONDS.toMillis(leaseSeconds)));
+        return mongoTemplate.updateFirst(owned, renew, Response.class).getModifiedCount() == 1;
+    }
+
+    private void deliver(Response response) {
+        try {
+            if (!holdsLease(response)) {
+                logger.debug("Events for besvarelse {} er taget af en anden instans", response.getId());
+                return;
+            }
+            for (String type : response.getPendingEvents()) {
+                if (ResponseSubmittedEvent.TYPE.equals(type)) {
+                    eventPublisher.publishEvent(new ResponseSubmittedEvent(response));
+                } else {
+                    logger.warn("Ukendt event type {} på besvarelse {}", type, response.getId());
+                }
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(response.getId())),
+                    new Update().unset("pendingEvents").unset("eventLeaseOwner").unset("eventLeaseUntil"), Response.class);
+        } catch (RuntimeException e) {
+            logger.error("Kunne ikke behandle events for besvarelse {}", response.getId(), e);
+            recordFailure(response);
+        }
+    }
+
+    /**
+     * Tæller forsøget op og lader leasen gælde en periode mere, så næste forsøg venter (og ikke
+     * blokerer nyere events). Efter max-attempts flyttes eventsene til failedEvents.
+     */
+    private void recordFailure(Response response) {
+        int attempts = response.getEventAttempts() + 1;
+        Update update = new Update().set("eventAttempts", attempts);
+        if (attempts >= maxAttempts) {
+            update.set("failedEvents", response.getPendingEvents())
+                    .unset("pendingEvents").unset("eventLeaseOwner").unset("eventLeaseUntil");
+            deadLettered.increment();
+            logger.error("Events for besvarelse {} fejlede {} gange - flyttet til failedEvents", response.getId(), attempts);
+        } else {
+            update.set("eventLeaseOwner", instanceId)
+                    .set("eventLeaseUntil", new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseSeconds)));
+        }
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(response.getId())), update, Response.class);
+        } catch (RuntimeException e) {
+            // pendingEvents bevares, så recovery-sweepet prøver igen når leasen er udløbet
+            logger.error("Kunne ikke registrere fejlet forsøg for besvarelse {}", response.getId(), e);
+        }
+    }
+}
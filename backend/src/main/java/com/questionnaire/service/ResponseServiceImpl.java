@@ -1,34 +1,72 @@
 package com.questionnaire.service;
 
+import com.questionnaire.dto.BatchResponseRequest;
+import com.questionnaire.dto.BatchResponseResult;
+import com.questionnaire.dto.QuestionnaireProgress;
+import com.questionnaire.dto.ResponseReviewDto;
+import com.questionnaire.event.ResponseSubmittedEvent;
+import com.questionnaire.exception.IdempotencyKeyInUseException;
+import com.questionnaire.exception.IdempotencyKeyMismatchException;
 import com.questionnaire.exception.ResponseAlreadyExistsException;
 import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.IdempotencyRecord;
 import com.questionnaire.model.Question;
-import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.QuestionOption;
 import com.questionnaire.model.QuestionnaireType;
 import com.questionnaire.model.ResolvedQuestionnaire;
 import com.questionnaire.model.Response;
 import com.questionnaire.model.SleepParameters;
-import com.questionnaire.repository.QuestionRepository;
 import com.questionnaire.repository.ResponseRepository;
 import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.service.interfaces.IIdempotencyStore;
 import com.questionnaire.service.interfaces.IQuestionService;
-import com.questionnaire.service.interfaces.IQuestionnaireService;
 import com.questionnaire.service.interfaces.IResponseService;
 import com.questionnaire.service.interfaces.IResponseValidationService;
 import com.questionnaire.service.interfaces.ISleepParameterCalculator;
 import com.questionnaire.strategy.ConditionalLogicFactory;
 import com.questionnaire.strategy.ConditionalLogicStrategy;
+import com.questionnaire.utils.ColorCodeClassifier;
+import com.questionnaire.utils.HashUtils;
+import com.questionnaire.utils.VisibilityEvaluator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 @Service
 public class ResponseServiceImpl implements IResponseService {
@@ -39,13 +77,13 @@ public class ResponseServiceImpl implements IResponseService {
     private ResponseRepository responseRepository;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private QuestionSetCache questionSetCache;
 
     @Autowired
-    private ISleepParameterCalculator sleepParameterCalculator;
+    private QuestionByIdCache questionByIdCache;
 
     @Autowired
-    private IQuestionnaireService questionnaireService;
+    private ISleepParameterCalculator sleepParameterCalculator;
 
     @Autowired
     private IQuestionService questionService;
@@ -59,6 +97,75 @@ public class ResponseServiceImpl implements IResponseService {
     @Autowired
     private QuestionnaireResolver questionnaireResolver;
 
+    @Autowired
+    private IIdempotencyStore idempotencyStore;
+
+    @Autowired
+    private QuestionnaireRegistry questionnaireRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponseWriteBuffer responseWriteBuffer;
+
+    @Autowired
+    private ResponseEventPipeline responseEventPipeline;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Response saveResponse(String userId, String questionnaireId, Map<String, Object> answers, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return saveResponse(userId, questionnaireId, answers);
+        }
+        if (idempotencyKey.length() > QuestionnaireConstants.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key må højst være "
+                    + QuestionnaireConstants.MAX_IDEMPOTENCY_KEY_LENGTH + " tegn");
+        }
+
+        // Nøglen gælder pr. bruger, så to brugere ikke kan ramme hinandens resultat
+        String key = userId + ":" + idempotencyKey;
+        String requestHash = requestHash(questionnaireId, answers);
+        IdempotencyRecord existing = idempotencyStore.reserve(key, requestHash);
+        if (existing != null) {
+            if (!existing.matches(requestHash)) {
+                throw new IdempotencyKeyMismatchException("Idempotency-Key er allerede brugt til en anden besvarelse");
+            }
+            if (!existing.isCompleted()) {
+                throw new IdempotencyKeyInUseException("Besvarelsen med denne Idempotency-Key behandles allerede");
+            }
+            // Gentagelse - afspil det oprindelige resultat
+            logger.debug("Replaying response {} for Idempotency-Key", existing.getResponseId());
+            return responseRepository.findById(existing.getResponseId())
+                    .orElseThrow(() -> new RuntimeException("Besvarelse ikke fundet: " + existing.getResponseId()));
+        }
+
+        Response response;
+        try {
+            response = saveResponse(userId, questionnaireId, answers);
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        }
+        idempotencyStore.complete(key, response.getId());
+        return response;
+    }
+
+    /**
+     * SHA-256 af spørgeskema og svar med sorterede nøgler, så samme indhold altid giver samme hash
+     */
+    private String requestHash(String questionnaireId, Map<String, Object> answers) {
+        try {
+            Map<String, Object> request = new TreeMap<>();
+            request.put("questionnaireId", questionnaireId);
+            request.put("answers", answers);
+            return HashUtils.sha256Hex(objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kunne ikke beregne hash af indsendelsen", e);
+        }
+    }
+
     public Response saveResponse(String userId, String questionnaireId, Map<String, Object> answers) {
         // Resolve questionnaire ID og type
         ResolvedQuestionnaire resolved = resolveQuestionnaire(questionnaireId);
@@ -69,15 +176,201 @@ public class ResponseServiceImpl implements IResponseService {
         // Valider at der ikke allerede er en response i dag
         validateNoDuplicateResponse(userId, resolved.getQuestionnaireType());
         
+        // Parse svarene én gang ud fra spørgsmålstyperne - de samme parsede svar valideres,
+        // bruges til farvekoder og søvnparametre og gemmes normaliseret (tider som "HH:mm", tal som tal)
+        QuestionIndex questions = questionSetCache.getQuestions(resolved.getQuestionnaireId());
+        AnswerSet answerSet = AnswerSet.parse(questions, answers);
+        
         // Valider svar før vi gemmer
-        responseValidationService.validateResponse(resolved.getQuestionnaireId(), answers);
+        responseValidationService.validateResponse(resolved, answerSet);
+        
+        // Opret response med søvnparametre og farvekoder
+        Response response = createResponse(userId, resolved, questions, answerSet);
+        
+        // Knyt besvarelsen til den version af spørgeskemaet den er valideret mod
+        if (questions.getVersion() >= 0) {
+            response.setQuestionnaireVersion(questions.getVersion());
+        }
         
-        // Opret response med søvnparametre hvis nødvendigt
-        Response response = createResponseWithSleepParameters(userId, resolved, answers);
+        // Samles med andre samtidige indsendelser hvis write bufferen er slået til
+        Response saved = responseWriteBuffer.save(response);
         
-        return responseRepository.save(response);
+        // Afledt arbejde køres asynkront - besvarelsen er allerede gemt med sine ventende events
+        responseEventPipeline.publish(saved);
+        return saved;
     }
     
+    /**
+     * Gemmer mange besvarelser på én gang
+     * Hvert spørgeskema resolves og dets spørgsmål hentes én gang for hele batchen, besvarelserne
+     * valideres og søvnparametre beregnes parallelt, og alle gyldige besvarelser skrives med én
+     * unordered insert. Reglen om én besvarelse pr. spørgeskematype pr. dag gælder for hver dato.
+     */
+    public List<BatchResponseResult> saveResponses(String userId, List<BatchResponseRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("Ingen besvarelser at gemme");
+        }
+        if (items.size() > QuestionnaireConstants.MAX_BATCH_RESPONSES) {
+            throw new ValidationException("Der kan højst indsendes " + QuestionnaireConstants.MAX_BATCH_RESPONSES + " besvarelser ad gangen");
+        }
+
+        int count = items.size();
+        ZoneId zone = ZoneId.of(QuestionnaireConstants.COPENHAGEN_TIMEZONE);
+        LocalDate today = LocalDate.now(zone);
+        BatchResponseResult[] results = new BatchResponseResult[count];
+        ResolvedQuestionnaire[] resolvedItems = new ResolvedQuestionnaire[count];
+        LocalDate[] dates = new LocalDate[count];
+
+        // Resolve hvert spørgeskema og hent dets spørgsmål én gang for hele batchen
+        Map<String, ResolvedQuestionnaire> resolvedById = new HashMap<>();
+        Map<String, QuestionIndex> questionsById = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            BatchResponseRequest.Item item = items.get(i);
+            if (item == null || item.getQuestionnaireId() == null || item.getAnswers() == null) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.INVALID, "questionnaireId og answers er påkrævet");
+                continue;
+            }
+            ResolvedQuestionnaire resolved = resolvedById.computeIfAbsent(item.getQuestionnaireId(), this::resolveQuestionnaire);
+            if (resolved == null) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.INVALID, "Kunne ikke finde spørgeskema: " + item.getQuestionnaireId());
+                continue;
+            }
+            try {
+                dates[i] = item.getDate() != null ? LocalDate.parse(item.getDate()) : today;
+            } catch (DateTimeParseException e) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.INVALID, "Ugyldig dato: " + item.getDate());
+                continue;
+            }
+            if (dates[i].isAfter(today)) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.INVALID, "Dato må ikke være i fremtiden: " + item.getDate());
+                continue;
+            }
+            resolvedItems[i] = resolved;
+            questionsById.computeIfAbsent(resolved.getQuestionnaireId(), questionSetCache::getQuestions);
+        }
+
+        // Afvis datoer der allerede har en besvarelse (én forespørgsel pr. spørgeskematype)
+        Map<QuestionnaireType, Set<LocalDate>> taken = findAnsweredDates(userId, resolvedItems, dates, zone);
+        for (int i = 0; i < count; i++) {
+            if (resolvedItems[i] != null && taken.get(resolvedItems[i].getQuestionnaireType()).contains(dates[i])) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.DUPLICATE, "Spørgeskemaet er allerede besvaret " + dates[i]);
+                resolvedItems[i] = null;
+            }
+        }
+
+        // Valider og beregn søvnparametre parallelt - spørgsmålene ligger allerede i QuestionSetCache
+        Response[] prepared = new Response[count];
+        IntStream.range(0, count).parallel().filter(i -> resolvedItems[i] != null).forEach(i -> {
+            try {
+                prepared[i] = prepareResponse(userId, resolvedItems[i], questionsById.get(resolvedItems[i].getQuestionnaireId()),
+                        items.get(i).getAnswers(), dates[i], today, zone);
+            } catch (RuntimeException e) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.INVALID, e.getMessage());
+            }
+        });
+
+        // Kun den første gyldige besvarelse pr. type og dato i batchen gemmes
+        Map<Integer, Response> toInsert = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (prepared[i] == null) {
+                continue;
+            }
+            if (!taken.get(resolvedItems[i].getQuestionnaireType()).add(dates[i])) {
+                results[i] = BatchResponseResult.rejected(i, BatchResponseResult.Status.DUPLICATE, "Flere besvarelser for " + dates[i] + " i samme batch");
+                continue;
+            }
+            prepared[i].setId(new ObjectId().toHexString());
+            toInsert.put(i, prepared[i]);
+        }
+
+        insertUnordered(toInsert, results);
+        logger.info("Batch med {} besvarelser for bruger {}: {} gemt", count, userId,
+                Arrays.stream(results).filter(r -> r.getStatus() == BatchResponseResult.Status.CREATED).count());
+        return Arrays.asList(results);
+    }
+
+    private Response prepareResponse(String userId, ResolvedQuestionnaire resolved, QuestionIndex questions,
+                                     Map<String, Object> answers, LocalDate date, LocalDate today, ZoneId zone) {
+        AnswerSet answerSet = AnswerSet.parse(questions, answers);
+        responseValidationService.validateResponse(resolved, answerSet);
+        Response response = createResponse(userId, resolved, questions, answerSet);
+        if (questions.getVersion() >= 0) {
+            response.setQuestionnaireVersion(questions.getVersion());
+        }
+        if (!date.equals(today)) {
+            // Historiske besvarelser dateres midt på dagen, så de altid falder inden for dagen i dansk tid
+            Date createdAt = Date.from(date.atTime(LocalTime.NOON).atZone(zone).toInstant());
+            response.setCreatedAt(createdAt);
+            response.setUpdatedAt(createdAt);
+        }
+        return response;
+    }
+
+    /**
+     * Finder de datoer (dansk tid) hvor brugeren allerede har besvaret hver spørgeskematype
+     * inden for batchens datointerval
+     */
+    private Map<QuestionnaireType, Set<LocalDate>> findAnsweredDates(String userId, ResolvedQuestionnaire[] resolvedItems,
+                                                                     LocalDate[] dates, ZoneId zone) {
+        Map<QuestionnaireType, LocalDate[]> ranges = new EnumMap<>(QuestionnaireType.class);
+        for (int i = 0; i < resolvedItems.length; i++) {
+            if (resolvedItems[i] == null) {
+                continue;
+            }
+            LocalDate date = dates[i];
+            LocalDate[] range = ranges.computeIfAbsent(resolvedItems[i].getQuestionnaireType(), t -> new LocalDate[] { date, date });
+            if (date.isBefore(range[0])) {
+                range[0] = date;
+            }
+            if (date.isAfter(range[1])) {
+                range[1] = date;
+            }
+        }
+
+        Map<QuestionnaireType, Set<LocalDate>> taken = new EnumMap<>(QuestionnaireType.class);
+        for (QuestionnaireType type : QuestionnaireType.values()) {
+            taken.put(type, new HashSet<>());
+        }
+        for (Map.Entry<QuestionnaireType, LocalDate[]> entry : ranges.entrySet()) {
+            Date start = Date.from(entry.getValue()[0].atStartOfDay(zone).toInstant());
+            Date end = Date.from(entry.getValue()[1].plusDays(1).atStartOfDay(zone).toInstant());
+            for (Response existing : responseRepository.findByUserIdAndQuestionnaireTypeAndDateRange(userId, entry.getKey(), start, end)) {
+                if (existing.getCreatedAt() != null) {
+                    taken.get(entry.getKey()).add(existing.getCreatedAt().toInstant().atZone(zone).toLocalDate());
+                }
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Skriver besvarelserne med én unordered insert, så en fejl på én besvarelse ikke stopper resten
+     */
+    private void insertUnordered(Map<Integer, Response> toInsert, BatchResponseResult[] results) {
+        if (toInsert.isEmpty()) {
+            return;
+        }
+        List<Integer> indexes = new ArrayList<>(toInsert.keySet());
+        Set<Integer> failed = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class);
+        bulk.insert(new ArrayList<>(toInsert.values()));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                int index = indexes.get(error.getIndex());
+                failed.add(index);
+                results[index] = BatchResponseResult.rejected(index, BatchResponseResult.Status.FAILED, error.getMessage());
+            }
+        }
+        for (Map.Entry<Integer, Response> entry : toInsert.entrySet()) {
+            if (!failed.contains(entry.getKey())) {
+                results[entry.getKey()] = BatchResponseResult.created(entry.getKey(), entry.getValue().getId());
+                responseEventPipeline.publish(entry.getValue());
+            }
+        }
+    }
+
     /**
      * Resolver questionnaire ID til faktisk ID og type
      */
@@ -95,14 +388,21 @@ public class ResponseServiceImpl implements IResponseService {
     }
     
     /**
-     * Opretter Response og beregner søvnparametre hvis det er morgenskema
+     * Opretter Response, klassificerer svarene med farvekoder og beregner søvnparametre hvis det er morgenskema
      */
-    private Response createResponseWithSleepParameters(String userId, ResolvedQuestionnaire resolved, Map<String, Object> answers) {
+    private Response createResponse(String userId, ResolvedQuestionnaire resolved, QuestionIndex questions, AnswerSet answerSet) {
+        Map<String, Object> answers = answerSet.toStorageMap();
         Response response = new Response(userId, resolved.getQuestionnaireId(), resolved.getQuestionnaireType(), answers);
         
+        Map<String, String> colorCodes = ColorCodeClassifier.classify(resolved.getQuestionnaireType(), questions, answerSet);
+        response.setColorCodes(colorCodes);
+        response.setHasRed(colorCodes.containsValue(ColorCodeClassifier.RED));
+        response.setPendingEvents(new ArrayList<>(List.of(ResponseSubmittedEvent.TYPE)));
+        responseEventPipeline.claimOnInsert(response);
+        
         // Hvis det er morgenskema, beregn søvnparametre
         if (resolved.getQuestionnaireType() == QuestionnaireType.morning) {
-            SleepParameters sleepParams = sleepParameterCalculator.calculate(answers, resolved.getQuestionnaireId());
+            SleepParameters sleepParams = sleepParameterCalculator.calculate(answerSet);
             response.setSleepParameters(sleepParams);
         }
         
@@ -117,48 +417,39 @@ public class ResponseServiceImpl implements IResponseService {
         // Konverter "morning"/"evening" til faktisk questionnaire ID hvis nødvendigt
         String actualQuestionnaireId = questionnaireId;
         if (QuestionnaireConstants.QUESTIONNAIRE_TYPE_MORNING.equals(questionnaireId)) {
-            Questionnaire questionnaire = questionnaireService.getQuestionnaireByType(QuestionnaireType.morning);
-            actualQuestionnaireId = questionnaire.getId();
+            actualQuestionnaireId = questionnaireRegistry.getId(QuestionnaireType.morning);
         } else if (QuestionnaireConstants.QUESTIONNAIRE_TYPE_EVENING.equals(questionnaireId)) {
-            Questionnaire questionnaire = questionnaireService.getQuestionnaireByType(QuestionnaireType.evening);
-            actualQuestionnaireId = questionnaire.getId();
+            actualQuestionnaireId = questionnaireRegistry.getId(QuestionnaireType.evening);
         }
         
-        // Valider svar før vi går videre til næste spørgsmål
-        responseValidationService.validateResponse(actualQuestionnaireId, currentAnswers);
+        // Valider kun det netop besvarede spørgsmål (og regler der afhænger af det) før vi går videre.
+        // Tidligere svar er valideret i de forrige trin, og hele svaret valideres igen ved indsendelse
+        if (currentQuestionId != null) {
+            responseValidationService.validateIncremental(actualQuestionnaireId, currentAnswers, List.of(currentQuestionId));
+        } else {
+            responseValidationService.validateResponse(actualQuestionnaireId, currentAnswers);
+        }
         
-        List<Question> allQuestions = questionRepository.findByQuestionnaireIdOrderByOrderAsc(actualQuestionnaireId);
+        QuestionIndex allQuestions = questionSetCache.getQuestions(actualQuestionnaireId);
         
         // Find nuværende spørgsmål
-        Question currentQuestion = null;
-        for (Question q : allQuestions) {
-            if (q.getId().equals(currentQuestionId)) {
-                currentQuestion = q;
-                break;
-            }
-        }
+        Question currentQuestion = allQuestions.findById(currentQuestionId);
 
         if (currentQuestion == null) {
             return null;
         }
 
-        // Brug QuestionService til at finde root spørgsmål (ikke conditional children)
-        List<Question> rootQuestions = questionService.findRootQuestions(allQuestions);
+        // Hvilke spørgsmål der vises beregnes én gang for alle spørgsmål
+        BitSet visible = evaluateVisibility(allQuestions, currentAnswers);
 
-        // Find nuværende spørgsmåls order værdi
+        // Find det næste viste root spørgsmål (ikke conditional children) med højere order værdi
         int currentOrder = currentQuestion.getOrder();
-
-        // Find næste root spørgsmål med højere order værdi
         Question nextRootQuestion = null;
-        for (Question q : rootQuestions) {
-            int questionOrder = q.getOrder();
-            if (questionOrder > currentOrder) {
-                // Tjek om spørgsmålet skal vises baseret på conditional logic
-                Question evaluatedQuestion = evaluateConditionalLogic(q, currentAnswers, allQuestions, currentQuestionId);
-                if (evaluatedQuestion != null) {
-                    nextRootQuestion = q;
-                    break;
-                }
+        for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+            Question q = allQuestions.get(i);
+            if (q.getOrder() > currentOrder && allQuestions.findParentOf(q.getId()) == null
+                    && (nextRootQuestion == null || q.getOrder() < nextRootQuestion.getOrder())) {
+                nextRootQuestion = q;
             }
         }
 
@@ -171,13 +462,30 @@ public class ResponseServiceImpl implements IResponseService {
         return null; // Ingen flere spørgsmål
     }
 
-    private Question evaluateConditionalLogic(Question question, Map<String, Object> answers, List<Question> allQuestions, String currentQuestionId) {
-        // Brug strategy pattern til at evaluere conditional logic
-        Questionnaire questionnaire = questionnaireService.findById(question.getQuestionnaireId()).orElse(null);
-        QuestionnaireType questionnaireType = questionnaire != null ? questionnaire.getType() : null;
-        
+    public QuestionnaireProgress getProgress(String questionnaireId, Map<String, Object> currentAnswers) {
+        ResolvedQuestionnaire resolved = resolveQuestionnaire(questionnaireId);
+        if (resolved == null) {
+            throw new RuntimeException("Kunne ikke finde spørgeskema: " + questionnaireId);
+        }
+        QuestionIndex allQuestions = questionSetCache.getQuestions(resolved.getQuestionnaireId());
+        BitSet visible = evaluateVisibility(allQuestions, currentAnswers);
+        return new QuestionnaireProgress(
+                VisibilityEvaluator.countAnswered(allQuestions, visible, currentAnswers),
+                visible.cardinality()
+        );
+    }
+
+    /**
+     * Beregner de viste spørgsmål ud fra conditional children og spørgeskemaets strategi
+     */
+    private BitSet evaluateVisibility(QuestionIndex allQuestions, Map<String, Object> answers) {
+        if (allQuestions.isEmpty()) {
+            return new BitSet();
+        }
+        // Brug strategy pattern til at finde spørgeskemaets skjul-regler
+        QuestionnaireType questionnaireType = questionnaireRegistry.getType(allQuestions.get(0).getQuestionnaireId());
         ConditionalLogicStrategy strategy = conditionalLogicFactory.getStrategy(questionnaireType);
-        return strategy.shouldShow(question, answers, allQuestions, currentQuestionId);
+        return VisibilityEvaluator.evaluate(allQuestions, answers, strategy.describeRules(allQuestions));
     }
 
     public List<Response> getResponsesByUserId(String userId) {
@@ -192,10 +500,105 @@ public class ResponseServiceImpl implements IResponseService {
     
     private List<Response> enrichResponsesWithQuestionTexts(List<Response> responses) {
         // Responses er allerede komplette, vi skal bare returnere dem
-        // Spørgsmålstekster håndteres i frontend ved at hente spørgsmålene
+        // Spørgsmålstekster til visning hentes via getResponseReviews
         return responses;
     }
 
+    /**
+     * Henter besvarelser klar til visning med spørgsmålstekster på det valgte sprog
+     * Kun de spørgsmål besvarelserne refererer til hentes (én $in forespørgsel for dem der ikke er cachet)
+     * @param userId Brugerens ID
+     * @param questionnaireId Begræns til ét spørgeskema (null for alle)
+     * @param language Sprog for spørgsmåls- og optionstekster
+     */
+    public List<ResponseReviewDto> getResponseReviews(String userId, String questionnaireId, String language) {
+        List<Response> responses = questionnaireId != null
+                ? responseRepository.findByUserIdAndQuestionnaireId(userId, questionnaireId)
+                : responseRepository.findByUserId(userId);
+
+        Set<String> questionIds = new HashSet<>();
+        for (Response response : responses) {
+            if (response.getAnswers() != null) {
+                questionIds.addAll(response.getAnswers().keySet());
+            }
+        }
+        Map<String, Question> questionsById = questionByIdCache.getAll(questionIds);
+
+        List<ResponseReviewDto> reviews = new ArrayList<>(responses.size());
+        for (Response response : responses) {
+            reviews.add(toReview(response, questionsById, language));
+        }
+        return reviews;
+    }
+
+    private ResponseReviewDto toReview(Response response, Map<String, Question> questionsById, String language) {
+        ResponseReviewDto review = new ResponseReviewDto();
+        review.setResponseId(response.getId());
+        review.setQuestionnaireId(response.getQuestionnaireId());
+        review.setQuestionnaireType(response.getQuestionnaireType());
+        review.setCreatedAt(response.getCreatedAt());
+        review.setSleepParameters(response.getSleepParameters());
+        if (response.getAnswers() == null) {
+            return review;
+        }
+
+        for (Map.Entry<String, Object> entry : response.getAnswers().entrySet()) {
+            Question question = questionsById.get(entry.getKey());
+            ResponseReviewDto.Row row = new ResponseReviewDto.Row();
+            row.setQuestionId(entry.getKey());
+            if (question != null) {
+                AnswerValue answer = AnswerValue.parse(question.getType(), entry.getValue());
+                row.setQuestionText(question.getText(language));
+                row.setAnswer(formatAnswer(question, answer, language));
+                row.setOrder(question.getOrder());
+                row.setDeleted(question.isDeleted());
+            } else {
+                row.setAnswer(String.valueOf(entry.getValue()));
+                row.setOrder(Integer.MAX_VALUE);
+            }
+            if (response.getColorCodes() != null) {
+                row.setColorCode(response.getColorCodes().get(entry.getKey()));
+            }
+            review.getRows().add(row);
+        }
+        review.getRows().sort(Comparator.comparingInt(ResponseReviewDto.Row::getOrder));
+        return review;
+    }
+
+    /**
+     * Formaterer et svar til visning: valg vises med optionens tekst, "Andet" med den indtastede tekst
+     */
+    private String formatAnswer(Question question, AnswerValue answer, String language) {
+        if (answer == null) {
+            return null;
+        }
+        switch (answer.getKind()) {
+            case OPTION:
+                return formatOption(question, answer.getOptionId(), answer.getCustomText(), language);
+            case OPTIONS:
+                List<String> texts = new ArrayList<>();
+                String[] optionIds = answer.getOptionIds();
+                String[] customTexts = answer.getCustomTexts();
+                for (int i = 0; i < optionIds.length; i++) {
+                    texts.add(formatOption(question, optionIds[i], customTexts[i], language));
+                }
+                return String.join(", ", texts);
+            default:
+                return answer.toString();
+        }
+    }
+
+    private String formatOption(Question question, String optionId, String customText, String language) {
+        QuestionOption option = question.findOption(optionId);
+        if (option == null) {
+            return optionId;
+        }
+        if (Boolean.TRUE.equals(option.getIsOther()) && customText != null) {
+            return ("en".equals(language) ? "Other: " : "Andet: ") + customText;
+        }
+        return option.getText(language);
+    }
+
     public SleepParameters calculateSleepParameters(String responseId) {
         Response response = responseRepository.findById(responseId)
                 .orElseThrow(() -> new ValidationException("Besvarelse ikke fundet"));
@@ -212,6 +615,63 @@ public class ResponseServiceImpl implements IResponseService {
         return params;
     }
     
+    public int recalculateSleepParameters(List<Response> responses) {
+        BulkOperations bulk = null;
+        int changed = 0;
+        for (Response response : responses) {
+            if (response.getQuestionnaireType() != QuestionnaireType.morning) {
+                continue;
+            }
+            SleepParameters params = sleepParameterCalculator.calculate(response.getAnswers(), response.getQuestionnaireId());
+            if (!sameSleepParameters(response.getSleepParameters(), params)) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class);
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(response.getId())), new Update().set("sleepParameters", params));
+                changed++;
+            }
+            response.setSleepParameters(params);
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+        return changed;
+    }
+
+    public void applyCurrentSleepParameters(List<Response> responses) {
+        for (Response response : responses) {
+            if (response.getQuestionnaireType() == QuestionnaireType.morning) {
+                response.setSleepParameters(sleepParameterCalculator.calculate(response.getAnswers(), response.getQuestionnaireId()));
+            }
+        }
+    }
+
+    private static boolean sameSleepParameters(SleepParameters stored, SleepParameters calculated) {
+        return stored != null && calculated != null
+                && stored.getSOL() == calculated.getSOL() && stored.getWASO() == calculated.getWASO()
+                && stored.getTIB() == calculated.getTIB() && stored.getTST() == calculated.getTST();
+    }
+
+    /**
+     * Finder brugere med mindst ét rødt svar inden for de sidste dage
+     * Bruger indekset på (hasRed, createdAt, userId), så kun røde besvarelser læses
+     * @param days Antal dage tilbage (inkl. i dag, dansk tid)
+     * @param userIds Begræns til disse brugere (null for alle)
+     */
+    public List<String> findUserIdsWithRedAnswers(int days, Collection<String> userIds) {
+        if (days < 1) {
+            throw new ValidationException("days skal være mindst 1");
+        }
+        ZoneId zone = ZoneId.of(QuestionnaireConstants.COPENHAGEN_TIMEZONE);
+        Date since = Date.from(LocalDate.now(zone).minusDays(days - 1L).atStartOfDay(zone).toInstant());
+        
+        Criteria criteria = Criteria.where("hasRed").is(true).and("createdAt").gte(since);
+        if (userIds != null) {
+            criteria = criteria.and("userId").in(userIds);
+        }
+        return mongoTemplate.findDistinct(Query.query(criteria), "userId", Response.class, String.class);
+    }
+    
     public List<Response> getResponsesByUserIdAndQuestionnaireType(String userId, QuestionnaireType type) {
         return responseRepository.findByUserIdAndQuestionnaireType(userId, type);
     }
@@ -1,14 +1,15 @@
 package com.questionnaire.service;
 
-import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.AnswerSet;
 import com.questionnaire.model.QuestionnaireType;
-import com.questionnaire.service.interfaces.IQuestionnaireService;
+import com.questionnaire.model.ResolvedQuestionnaire;
 import com.questionnaire.service.interfaces.IResponseValidationService;
 import com.questionnaire.validation.QuestionnaireValidator;
 import com.questionnaire.validation.QuestionnaireValidatorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -19,7 +20,7 @@ import java.util.Map;
 public class ResponseValidationServiceImpl implements IResponseValidationService {
 
     @Autowired
-    private IQuestionnaireService questionnaireService;
+    private QuestionnaireRegistry questionnaireRegistry;
     
     @Autowired
     private QuestionnaireValidatorFactory questionnaireValidatorFactory;
@@ -29,17 +30,44 @@ public class ResponseValidationServiceImpl implements IResponseValidationService
      * Uses questionnaire-specific validators for better separation of concerns
      */
     public void validateResponse(String questionnaireId, Map<String, Object> answers) {
-        // Hent questionnaire for at bestemme type
-        Questionnaire questionnaire = questionnaireService.findById(questionnaireId)
-                .orElseThrow(() -> new RuntimeException("Questionnaire ikke fundet: " + questionnaireId));
-        
-        QuestionnaireType questionnaireType = questionnaire.getType();
+        // Kald validator's validate metode (template method pattern)
+        getValidator(questionnaireId).validate(questionnaireId, answers);
+    }
+
+    /**
+     * Validerer alle svar når spørgeskemaets type allerede er kendt
+     * Sparer opslaget af spørgeskemaet (bruges ved batch-indsendelse)
+     */
+    public void validateResponse(ResolvedQuestionnaire questionnaire, Map<String, Object> answers) {
+        questionnaireValidatorFactory.getValidator(questionnaire.getQuestionnaireType())
+                .validate(questionnaire.getQuestionnaireId(), answers);
+    }
+
+    /**
+     * Validerer svar der allerede er parset (ved indsendelse), så de samme parsede svar kan gemmes bagefter
+     */
+    public void validateResponse(ResolvedQuestionnaire questionnaire, AnswerSet answers) {
+        questionnaireValidatorFactory.getValidator(questionnaire.getQuestionnaireType())
+                .validate(questionnaire.getQuestionnaireId(), answers);
+    }
+
+    /**
+     * Validerer kun de ændrede svar og de cross-field regler der afhænger af dem
+     * Bruges mellem trinene i wizarden - den fulde validering sker ved indsendelse
+     */
+    public void validateIncremental(String questionnaireId, Map<String, Object> answers, Collection<String> changedQuestionIds) {
+        getValidator(questionnaireId).validateIncremental(questionnaireId, answers, changedQuestionIds);
+    }
+
+    private QuestionnaireValidator getValidator(String questionnaireId) {
+        // Slå typen op i registret (ingen I/O)
+        QuestionnaireType questionnaireType = questionnaireRegistry.getType(questionnaireId);
+        if (questionnaireType == null) {
+            throw new RuntimeException("Questionnaire ikke fundet: " + questionnaireId);
+        }
         
         // Brug factory til at få korrekt validator baseret på questionnaire type
-        QuestionnaireValidator validator = questionnaireValidatorFactory.getValidator(questionnaireType);
-        
-        // Kald validator's validate metode (template method pattern)
-        validator.validate(questionnaireId, answers);
+        return questionnaireValidatorFactory.getValidator(questionnaireType);
     }
 }
 
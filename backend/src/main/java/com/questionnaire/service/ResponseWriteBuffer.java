@@ -0,0 +1,228 @@
+package com.questionnaire.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.questionnaire.model.Response;
+import com.questionnaire.repository.ResponseRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit af nye besvarelser
+ * Samtidige indsendelser (fx morgenskemaer mellem 07 og 09) samles og skrives med én unordered insert
+ * når der er gået max-delay-ms eller der er max-batch-size besvarelser i køen. Kalderen venter til
+ * dens batch er kvitteret af Mongo, så en besvarelse er lige så holdbar som ved en almindelig save.
+ * Kvitteres batchen ikke inden commit-timeout-ms, gemmes besvarelsen direkte (samme ID, så en senere
+ * insert fra bufferen ikke giver en dublet).
+ * Er bufferen slået fra, gemmes hver besvarelse direkte med responseRepository.save.
+ */
+@Component
+public class ResponseWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseWriteBuffer.class);
+
+    @Value("${responses.write-buffer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${responses.write-buffer.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${responses.write-buffer.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${responses.write-buffer.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponseRepository responseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingWrite> queue;
+    private DistributionSummary batchSize;
+    private Timer flushLatency;
+    private Timer commitLatency;
+    private volatile boolean running;
+    private Thread flusher;
+
+    @PostConstruct
+    public void start() {
+        batchSize = DistributionSummary.builder("responses.write_buffer.batch_size")
+                .description("Antal besvarelser pr. insert")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("responses.write_buffer.flush")
+                .description("Tid for én insert af en batch")
+                .register(meterRegistry);
+        commitLatency = Timer.builder("responses.write_buffer.commit")
+                .description("Tid fra en besvarelse lægges i køen til den er kvitteret")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        // Begrænset kø, så indsendelser venter hvis Mongo ikke kan følge med
+        queue = new LinkedBlockingQueue<>(maxBatchSize * 10);
+        meterRegistry.gauge("responses.write_buffer.queue", queue, BlockingQueue::size);
+        running = true;
+        flusher = new Thread(this::flushLoop, "response-write-buffer");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Write buffer for besvarelser aktiv (batch {}, {} ms)", maxBatchSize, maxDelayMs);
+    }
+
+    /**
+     * Lukker bufferen og venter til køen er skrevet
+     * Flusheren afbrydes ikke: den ser running=false ved næste poll (højst 100 ms), og et interrupt midt
+     * i bulk.execute() ville give MongoInterruptedException for en batch der måske allerede er skrevet
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gemmer en ny besvarelse og venter til den er skrevet
+     * @param response Besvarelsen (får tildelt ID hvis den ikke har et)
+     * @return Den gemte besvarelse
+     */
+    public Response save(Response response) {
+        if (!enabled) {
+            return responseRepository.save(response);
+        }
+        if (!running) {
+            throw new IllegalStateException("Write bufferen er lukket - besvarelsen blev ikke gemt");
+        }
+        if (response.getId() == null) {
+            response.setId(new ObjectId().toHexString());
+        }
+        PendingWrite pending = new PendingWrite(response, System.nanoTime());
+        try {
+            if (!queue.offer(pending, commitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Write bufferens kø er fuld - gemmer besvarelse {} direkte", response.getId());
+                return responseRepository.save(response);
+            }
+            return pending.future.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Fx hvis bufferen lukkede mens besvarelsen lå i køen; save er en upsert på samme ID
+            logger.warn("Besvarelse {} blev ikke kvitteret inden {} ms - gemmer direkte", response.getId(), commitTimeoutMs);
+            return responseRepository.save(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Afbrudt mens besvarelsen blev gemt", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Kunne ikke gemme besvarelsen", e.getCause());
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Saml flere indtil batchen er fuld eller ventetiden er gået
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Ved nedlukning skrives det der allerede er i køen
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<Response> responses = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            responses.add(pending.response);
+        }
+        RuntimeException[] failures = new RuntimeException[batch.size()];
+
+        long start = System.nanoTime();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class);
+            bulk.insert(responses);
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures[error.getIndex()] = new IllegalStateException("Kunne ikke gemme besvarelsen: " + error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Insert af {} besvarelser fejlede", batch.size(), e);
+            for (int i = 0; i < failures.length; i++) {
+                failures[i] = e;
+            }
+        }
+        long end = System.nanoTime();
+        flushLatency.record(end - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite pending = batch.get(i);
+            commitLatency.record(end - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+            if (failures[i] != null) {
+                pending.future.completeExceptionally(failures[i]);
+            } else {
+                pending.future.complete(pending.response);
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final Response response;
+        private final long enqueuedAt;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        private PendingWrite(Response response, long enqueuedAt) {
+            this.response = response;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.questionnaire.service;
 
 import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.SleepData;
 import org.slf4j.Logger;
@@ -13,7 +15,7 @@ import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
- * Extractor klasse til at udtrække søvndata fra answers map
+ * Extractor klasse til at udtrække søvndata fra de parsede svar (AnswerSet)
  * Bruger Map pattern i stedet for if-else kæde for bedre OOP
  */
 @Component
@@ -21,7 +23,7 @@ public class SleepDataExtractor {
     
     private static final Logger logger = LoggerFactory.getLogger(SleepDataExtractor.class);
     
-    private final Map<Integer, BiConsumer<SleepData, Object>> orderHandlers;
+    private final Map<Integer, BiConsumer<SleepData, AnswerValue>> orderHandlers;
     
     public SleepDataExtractor() {
         this.orderHandlers = new HashMap<>();
@@ -52,11 +54,10 @@ public class SleepDataExtractor {
         
         // Order 8: Vågen i minutter (WASO)
         orderHandlers.put(QuestionnaireConstants.ORDER_8, (data, answer) -> {
-            try {
-                double waso = Double.parseDouble(answer.toString());
-                data.setWASO(waso);
-                logger.debug("WASO: {}", waso);
-            } catch (NumberFormatException e) {
+            if (answer.isNumber()) {
+                data.setWASO(answer.getNumber());
+                logger.debug("WASO: {}", answer.getNumber());
+            } else {
                 data.setWASO(0.0);
                 logger.warn("Kunne ikke parse WASO: {}", answer);
             }
@@ -84,10 +85,19 @@ public class SleepDataExtractor {
      * @return SleepData objekt med udtrukket data
      */
     public SleepData extract(List<Question> questions, Map<String, Object> answers) {
+        return extract(AnswerSet.parse(questions, answers));
+    }
+    
+    /**
+     * Udtrækker søvndata fra allerede parsede svar baseret på spørgsmålernes order
+     * @param answers Svarene parset ud fra spørgsmålstyperne
+     * @return SleepData objekt med udtrukket data
+     */
+    public SleepData extract(AnswerSet answers) {
         SleepData data = new SleepData();
         
-        for (Question question : questions) {
-            Object answer = answers.get(question.getId());
+        for (Question question : answers.getQuestions()) {
+            AnswerValue answer = answers.get(question.getId());
             if (answer == null) {
                 logger.debug("Ingen svar for spørgsmål order {} (id: {})", question.getOrder(), question.getId());
                 continue;
@@ -95,7 +105,7 @@ public class SleepDataExtractor {
             
             logger.debug("Spørgsmål order {} (id: {}) har svar: {}", question.getOrder(), question.getId(), answer);
             
-            BiConsumer<SleepData, Object> handler = orderHandlers.get(question.getOrder());
+            BiConsumer<SleepData, AnswerValue> handler = orderHandlers.get(question.getOrder());
             if (handler != null) {
                 handler.accept(data, answer);
             }
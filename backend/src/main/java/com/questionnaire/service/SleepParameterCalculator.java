@@ -1,10 +1,9 @@
 package com.questionnaire.service;
 
 import com.questionnaire.constants.QuestionnaireConstants;
-import com.questionnaire.model.Question;
+import com.questionnaire.model.AnswerSet;
 import com.questionnaire.model.SleepData;
 import com.questionnaire.model.SleepParameters;
-import com.questionnaire.repository.QuestionRepository;
 import com.questionnaire.service.interfaces.ISleepParameterCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +12,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
 
 @Service
@@ -23,26 +21,31 @@ public class SleepParameterCalculator implements ISleepParameterCalculator {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(QuestionnaireConstants.TIME_FORMAT);
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private QuestionSetCache questionSetCache;
     
     @Autowired
     private SleepDataExtractor sleepDataExtractor;
 
     public SleepParameters calculate(Map<String, Object> answers, String questionnaireId) {
-        // Hent alle spørgsmål for questionnaire sorteret efter order
-        List<Question> questions = questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId);
-        
+        // Hent alle spørgsmål for questionnaire sorteret efter order og parse svarene ud fra dem
         logger.debug("Beregner søvnparametre for questionnaireId: {}", questionnaireId);
-        logger.debug("Antal spørgsmål: {}, Antal svar: {}", questions.size(), answers.size());
+        return calculate(AnswerSet.parse(questionSetCache.getQuestions(questionnaireId), answers));
+    }
+
+    /**
+     * Beregner søvnparametre ud fra svar der allerede er parset (ved indsendelse)
+     */
+    public SleepParameters calculate(AnswerSet answers) {
+        logger.debug("Antal spørgsmål: {}, Antal svar: {}", answers.getQuestions().size(), answers.getValues().size());
         
         // Udtræk søvndata fra answers
-        SleepData sleepData = extractSleepData(questions, answers);
+        SleepData sleepData = extractSleepData(answers);
         
         // Tjek om alle nødvendige værdier er fundet
         if (!sleepData.isValid()) {
             logger.error("Manglende tider! Gik i seng: {}, Stod op: {}", 
                     sleepData.getWentToBedTime(), sleepData.getGotUpTime());
-            logger.debug("Alle question IDs i answers: {}", answers.keySet());
+            logger.debug("Alle question IDs i answers: {}", answers.getValues().keySet());
             return new SleepParameters(0, 0, 0, 0);
         }
 
@@ -55,10 +58,10 @@ public class SleepParameterCalculator implements ISleepParameterCalculator {
     }
     
     /**
-     * Udtrækker søvndata fra answers map ved hjælp af SleepDataExtractor
+     * Udtrækker søvndata fra de parsede svar ved hjælp af SleepDataExtractor
      */
-    private SleepData extractSleepData(List<Question> questions, Map<String, Object> answers) {
-        return sleepDataExtractor.extract(questions, answers);
+    private SleepData extractSleepData(AnswerSet answers) {
+        return sleepDataExtractor.extract(answers);
     }
     
     /**
@@ -97,7 +97,15 @@ public class UserServiceImpl implements IUserService {
             citizen.setAdvisorId(null);
         }
         
+        citizen.touch();
         return userRepository.save(citizen);
     }
-}
 
+    public List<User> getCitizensByAdvisor(String advisorId) {
+        return userRepository.findByAdvisorId(advisorId);
+    }
+
+    public List<User> findAllById(Iterable<String> ids) {
+        return userRepository.findAllById(ids);
+    }
+}
@@ -0,0 +1,22 @@
+package com.questionnaire.service.interfaces;
+
+import com.questionnaire.dto.CohortMemberDto;
+import com.questionnaire.model.Response;
+
+import java.util.List;
+
+public interface ICohortAnalyticsService {
+    /**
+     * Henter overblik over alle borgere tilknyttet en rådgiver
+     * @param advisorId Rådgiverens ID
+     * @return Én række pr. borger (også borgere uden besvarelser)
+     */
+    List<CohortMemberDto> getAdvisorCohort(String advisorId);
+
+    /**
+     * Henter en borgers morgenbesvarelser (kun læsning, via analytics connection pool)
+     * @param userId Borgerens ID
+     * @return Besvarelserne med de gemte søvnparametre
+     */
+    List<Response> getMorningResponses(String userId);
+}
@@ -0,0 +1,35 @@
+package com.questionnaire.service.interfaces;
+
+import com.questionnaire.dto.QuestionnaireProgress;
+import com.questionnaire.model.Draft;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.Response;
+
+import java.util.Optional;
+
+public interface IDraftService {
+    /**
+     * Henter brugerens kladde for spørgeskemaet
+     * @param questionnaireId Spørgeskemaets ID eller "morning"/"evening"
+     */
+    Optional<Draft> getDraft(String userId, String questionnaireId);
+
+    /**
+     * Fremskridt for kladden (tom kladde hvis brugeren ikke har en)
+     */
+    QuestionnaireProgress getProgress(String userId, String questionnaireId);
+
+    /**
+     * Gemmer ét svar i kladden og finder næste spørgsmål
+     * Kun det nye svar (og regler der afhænger af det) valideres
+     * @return Næste spørgsmål, eller null hvis der ikke er flere
+     */
+    Question answer(String userId, String questionnaireId, String questionId, Object answer, String language);
+
+    /**
+     * Indsender kladden som en besvarelse (fuld validering) og sletter den
+     */
+    Response submit(String userId, String questionnaireId);
+
+    void discard(String userId, String questionnaireId);
+}
@@ -0,0 +1,28 @@
+package com.questionnaire.service.interfaces;
+
+import com.questionnaire.model.IdempotencyRecord;
+
+/**
+ * Lager for Idempotency-Key på indsendelser
+ * Nøglen reserveres før indsendelsen behandles og udfyldes med besvarelsens ID bagefter,
+ * så en gentagelse kan afspille det oprindelige resultat uden at validere igen.
+ */
+public interface IIdempotencyStore {
+    /**
+     * Reserverer nøglen hvis den ikke allerede er brugt
+     * @param key Brugerens ID + ":" + Idempotency-Key
+     * @param requestHash Hash af indsendelsen, gemmes med reservationen
+     * @return null hvis nøglen nu er reserveret til kalderen, ellers den eksisterende record
+     */
+    IdempotencyRecord reserve(String key, String requestHash);
+
+    /**
+     * Gemmer resultatet for en reserveret nøgle
+     */
+    void complete(String key, String responseId);
+
+    /**
+     * Frigiver en reserveret nøgle når indsendelsen fejlede, så den kan prøves igen
+     */
+    void release(String key);
+}
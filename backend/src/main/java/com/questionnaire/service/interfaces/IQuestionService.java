@@ -20,6 +20,13 @@ public interface IQuestionService {
     Question addConditionalChild(String questionId, String optionId, String childQuestionId);
     Question removeConditionalChild(String questionId, String optionId, String childQuestionId);
     Question updateConditionalChildrenOrder(String questionId, String optionId, List<String> childQuestionIds);
+    /**
+     * Giver root spørgsmålene en ny rækkefølge i én bulk-skrivning
+     * @param questionnaireId Spørgeskemaet spørgsmålene tilhører
+     * @param questionIds Alle root spørgsmålenes ID'er i den nye rækkefølge (de fordeles på de order værdier root spørgsmålene har i dag)
+     * @return Spørgeskemaets aktive spørgsmål sorteret efter den nye order
+     */
+    List<Question> reorderQuestions(String questionnaireId, List<String> questionIds);
     /**
      * Finder alle root spørgsmål (ikke conditional children) for et questionnaire
      * @param questions Alle spørgsmål i questionnaire
@@ -1,8 +1,10 @@
 package com.questionnaire.service.interfaces;
 
+import com.questionnaire.dto.QuestionnaireDefinitionDto;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.Questionnaire;
 import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.ValidationRuleDefinition;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +13,29 @@ public interface IQuestionnaireService {
     Questionnaire getQuestionnaireByType(QuestionnaireType type);
     List<Question> getQuestionsByQuestionnaireId(String questionnaireId);
     List<Question> getQuestionsByQuestionnaireId(String questionnaireId, String language);
+    /**
+     * Henter spørgsmålene i mindst den version af spørgeskemaet kalderen har læst
+     * @param questionnaire Spørgeskemaet
+     * @param language Sprog spørgsmålene oversættes til
+     */
+    List<Question> getQuestions(Questionnaire questionnaire, String language);
     Questionnaire createQuestionnaire(QuestionnaireType type, String name);
     Optional<Questionnaire> findByType(QuestionnaireType type);
     Optional<Questionnaire> findById(String id);
+    /**
+     * Bygger hele spørgeskemaet (spørgsmål, rækkefølge og conditional logic som data)
+     * @param questionnaire Spørgeskemaet
+     * @param language Sprog spørgsmålene oversættes til
+     * @return Definition klienten kan navigere i uden yderligere kald
+     */
+    QuestionnaireDefinitionDto getDefinition(Questionnaire questionnaire, String language);
+    /**
+     * Erstatter spørgeskemaets cross-field valideringsregler
+     * @param type Spørgeskematype (morgenskemaets regler er låst)
+     * @param rules De nye regler
+     * @return Det opdaterede spørgeskema
+     */
+    Questionnaire updateValidationRules(QuestionnaireType type, List<ValidationRuleDefinition> rules);
 }
 
 
@@ -1,22 +1,64 @@
 package com.questionnaire.service.interfaces;
 
+import com.questionnaire.dto.BatchResponseRequest;
+import com.questionnaire.dto.BatchResponseResult;
+import com.questionnaire.dto.QuestionnaireProgress;
+import com.questionnaire.dto.ResponseReviewDto;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.QuestionnaireType;
 import com.questionnaire.model.Response;
 import com.questionnaire.model.SleepParameters;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 public interface IResponseService {
     Response saveResponse(String userId, String questionnaireId, Map<String, Object> answers);
+    /**
+     * Gemmer en besvarelse med en Idempotency-Key
+     * En gentagelse med samme nøgle returnerer den oprindelige besvarelse uden at validere eller beregne igen
+     * @param idempotencyKey Klientens nøgle (null for en almindelig indsendelse)
+     */
+    Response saveResponse(String userId, String questionnaireId, Map<String, Object> answers, String idempotencyKey);
+    /**
+     * Gemmer mange besvarelser på én gang (offline-udfyldte eller importerede dagbøger)
+     * @return Et resultat pr. besvarelse i samme rækkefølge som input
+     */
+    List<BatchResponseResult> saveResponses(String userId, List<BatchResponseRequest.Item> items);
     Question getNextQuestion(String questionnaireId, Map<String, Object> currentAnswers, String currentQuestionId);
     Question getNextQuestion(String questionnaireId, Map<String, Object> currentAnswers, String currentQuestionId, String language);
+    /**
+     * Fremskridt for en påbegyndt besvarelse: besvarede ud af de spørgsmål der vises med de nuværende svar
+     */
+    QuestionnaireProgress getProgress(String questionnaireId, Map<String, Object> currentAnswers);
     List<Response> getResponsesByUserId(String userId);
     List<Response> getResponsesByUserIdAndQuestionnaireId(String userId, String questionnaireId);
+    /**
+     * Henter besvarelser med svarene slået sammen med spørgsmålstekster på det valgte sprog
+     * @param questionnaireId Begræns til ét spørgeskema (null for alle)
+     */
+    List<ResponseReviewDto> getResponseReviews(String userId, String questionnaireId, String language);
     SleepParameters calculateSleepParameters(String responseId);
+    /**
+     * Genberegner søvnparametre for morgenbesvarelser og gemmer dem der er ændret i én bulk-skrivning
+     * @param responses Besvarelserne (får de genberegnede parametre sat)
+     * @return Antal besvarelser hvis parametre blev gemt
+     */
+    int recalculateSleepParameters(List<Response> responses);
+    /**
+     * Genberegner søvnparametre for morgenbesvarelser uden at gemme dem (til rådgiverens læsninger)
+     * @param responses Besvarelserne (får de genberegnede parametre sat)
+     */
+    void applyCurrentSleepParameters(List<Response> responses);
     List<Response> getResponsesByUserIdAndQuestionnaireType(String userId, QuestionnaireType type);
     boolean hasResponseForToday(String userId, QuestionnaireType questionnaireType);
+    /**
+     * Finder brugere med mindst ét rødt svar inden for de sidste dage
+     * @param days Antal dage tilbage (inkl. i dag)
+     * @param userIds Begræns til disse brugere (null for alle)
+     */
+    List<String> findUserIdsWithRedAnswers(int days, Collection<String> userIds);
 }
 
 
@@ -1,9 +1,16 @@
 package com.questionnaire.service.interfaces;
 
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.ResolvedQuestionnaire;
+
+import java.util.Collection;
 import java.util.Map;
 
 public interface IResponseValidationService {
     void validateResponse(String questionnaireId, Map<String, Object> answers);
+    void validateResponse(ResolvedQuestionnaire questionnaire, Map<String, Object> answers);
+    void validateResponse(ResolvedQuestionnaire questionnaire, AnswerSet answers);
+    void validateIncremental(String questionnaireId, Map<String, Object> answers, Collection<String> changedQuestionIds);
 }
 
 
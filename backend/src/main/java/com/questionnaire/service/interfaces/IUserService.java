@@ -14,6 +14,8 @@ public interface IUserService {
     List<User> getAllUsers();
     List<User> getUsersByRole(UserRole role);
     User assignAdvisor(String citizenId, String advisorId);
+    List<User> getCitizensByAdvisor(String advisorId);
+    List<User> findAllById(Iterable<String> ids);
 }
 
 
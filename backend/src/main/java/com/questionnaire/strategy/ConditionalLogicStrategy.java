@@ -1,6 +1,7 @@
 package com.questionnaire.strategy;
 
 import com.questionnaire.model.Question;
+import com.questionnaire.model.VisibilityRule;
 
 import java.util.List;
 import java.util.Map;
@@ -18,6 +19,16 @@ public interface ConditionalLogicStrategy {
      * @return Spørgsmålet hvis det skal vises, null hvis det skal skjules
      */
     Question shouldShow(Question question, Map<String, Object> answers, List<Question> allQuestions, String currentQuestionId);
+
+    /**
+     * Beskriver strategiens skjul-regler som data, så klienten kan navigere uden at spørge serveren
+     * Conditional children er ikke med her - de beskrives af spørgsmålenes conditionalChildren
+     * @param allQuestions Alle spørgsmål i questionnaire
+     * @return Liste af regler (tom hvis strategien ikke skjuler spørgsmål)
+     */
+    default List<VisibilityRule> describeRules(List<Question> allQuestions) {
+        return List.of();
+    }
 }
 
 
@@ -1,15 +1,17 @@
 package com.questionnaire.strategy;
 
 import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.model.AnswerValue;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.VisibilityRule;
 import com.questionnaire.service.QuestionFinder;
-import com.questionnaire.utils.AnswerParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -39,7 +41,7 @@ public class MorningQuestionnaireConditionalLogic implements ConditionalLogicStr
             if (question6 != null) {
                 Object answer6 = answers.get(question6.getId());
                 if (answer6 != null) {
-                    String optionId = AnswerParser.extractOptionId(answer6);
+                    String optionId = AnswerValue.parse(question6.getType(), answer6).getOptionId();
                     
                     // Hvis spørgsmål 6 er "Nej", spring spørgsmål 7 og 8 over
                     if ("wake_no".equals(optionId)) {
@@ -57,5 +59,30 @@ public class MorningQuestionnaireConditionalLogic implements ConditionalLogicStr
         // Returner spørgsmålet hvis det skal vises
         return question;
     }
+
+    @Override
+    public List<VisibilityRule> describeRules(List<Question> allQuestions) {
+        Question question6 = questionFinder.findByOrderAndType(allQuestions, QuestionnaireConstants.ORDER_6, QuestionType.multiple_choice);
+        if (question6 == null) {
+            return List.of();
+        }
+
+        // Samme betingelser som shouldShow: order 7/8 (numeric) skjules hvis spørgsmål 6 er "Nej" eller ubesvaret
+        List<String> hiddenQuestionIds = new ArrayList<>();
+        for (int order : new int[] {QuestionnaireConstants.ORDER_7, QuestionnaireConstants.ORDER_8}) {
+            Question question = questionFinder.findByOrderAndType(allQuestions, order, QuestionType.numeric);
+            if (question != null) {
+                hiddenQuestionIds.add(question.getId());
+            }
+        }
+        if (hiddenQuestionIds.isEmpty()) {
+            return List.of();
+        }
+
+        return List.of(
+                VisibilityRule.hideWhenOptionSelected(question6.getId(), "wake_no", hiddenQuestionIds),
+                VisibilityRule.hideWhenUnanswered(question6.getId(), hiddenQuestionIds)
+        );
+    }
 }
 
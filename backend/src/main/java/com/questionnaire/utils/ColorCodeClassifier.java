@@ -0,0 +1,114 @@
+package com.questionnaire.utils;
+
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionOption;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.QuestionnaireType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class til at klassificere svar med farvekoder
+ * Samme regler som rådgiverens overblik i frontenden: kun aftenspørgsmål får farvekoder,
+ * valg bruger optionens farvekode (ved flere valg den værste), og tal sammenlignes med
+ * spørgsmålets grønne, gule og røde intervaller i den rækkefølge.
+ */
+public class ColorCodeClassifier {
+
+    public static final String GREEN = "green";
+    public static final String YELLOW = "yellow";
+    public static final String RED = "red";
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ColorCodeClassifier() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Klassificerer alle svar i en besvarelse
+     * @param questionnaireType Spørgeskemaets type (morgenskemaet får ingen farvekoder)
+     * @param questions Spørgeskemaets spørgsmål
+     * @param answers Parsede svar
+     * @return Farvekode pr. spørgsmål ID for de svar der har en farvekode
+     */
+    public static Map<String, String> classify(QuestionnaireType questionnaireType, List<Question> questions, AnswerSet answers) {
+        Map<String, String> colorCodes = new LinkedHashMap<>();
+        if (questionnaireType != QuestionnaireType.evening) {
+            return colorCodes;
+        }
+        for (Question question : questions) {
+            String colorCode = classify(question, answers.get(question.getId()));
+            if (colorCode != null) {
+                colorCodes.put(question.getId(), colorCode);
+            }
+        }
+        return colorCodes;
+    }
+
+    /**
+     * Klassificerer ét svar
+     * @return "green", "yellow", "red" eller null hvis svaret ikke har en farvekode
+     */
+    public static String classify(Question question, AnswerValue answer) {
+        if (question == null || answer == null) {
+            return null;
+        }
+        if (question.getType() == QuestionType.multiple_choice && answer.getOptionId() != null) {
+            QuestionOption option = question.findOption(answer.getOptionId());
+            return option != null ? normalize(option.getColorCode()) : null;
+        }
+        if (question.getType() == QuestionType.multiple_choice_multiple) {
+            String worst = null;
+            for (String optionId : answer.getOptionIds()) {
+                QuestionOption option = question.findOption(optionId);
+                worst = worst(worst, option != null ? normalize(option.getColorCode()) : null);
+            }
+            return worst;
+        }
+        if (Boolean.TRUE.equals(question.getHasColorCode()) && answer.isNumber()) {
+            return classifyNumber(question, answer.getNumber());
+        }
+        return null;
+    }
+
+    private static String classifyNumber(Question question, double value) {
+        if (inRange(value, question.getColorCodeGreenMin(), question.getColorCodeGreenMax())) {
+            return GREEN;
+        }
+        if (inRange(value, question.getColorCodeYellowMin(), question.getColorCodeYellowMax())) {
+            return YELLOW;
+        }
+        if (inRange(value, question.getColorCodeRedMin(), question.getColorCodeRedMax())) {
+            return RED;
+        }
+        return null;
+    }
+
+    private static boolean inRange(double value, Integer min, Integer max) {
+        return min != null && max != null && value >= min && value <= max;
+    }
+
+    private static String worst(String a, String b) {
+        return severity(b) > severity(a) ? b : a;
+    }
+
+    private static int severity(String colorCode) {
+        if (RED.equals(colorCode)) {
+            return 3;
+        }
+        if (YELLOW.equals(colorCode)) {
+            return 2;
+        }
+        return GREEN.equals(colorCode) ? 1 : 0;
+    }
+
+    private static String normalize(String colorCode) {
+        return severity(colorCode) > 0 ? colorCode : null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.questionnaire.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class til hashing
+ * Bruges til ETags, spørgeskemaets content hash og Idempotency-Key'ens hash af indsendelsen.
+ */
+public class HashUtils {
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private HashUtils() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * SHA-256 af data som hex streng med små bogstaver
+     * @param data Data der skal hashes
+     * @return 64 tegn hex
+     */
+    public static String sha256Hex(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Alle Java platforme skal understøtte SHA-256
+            throw new IllegalStateException("SHA-256 ikke tilgængelig", e);
+        }
+    }
+}
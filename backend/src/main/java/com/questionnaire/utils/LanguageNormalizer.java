@@ -0,0 +1,36 @@
+package com.questionnaire.utils;
+
+import com.questionnaire.constants.QuestionnaireConstants;
+
+import java.util.Locale;
+
+/**
+ * Utility class til at normalisere ?language= parameteren
+ * Kun understøttede sprog bruges videre (fx i cache nøgler), så vilkårlige query strings
+ * ikke kan oprette nye cache entries. Ukendte sprog giver standardsproget dansk.
+ */
+public class LanguageNormalizer {
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private LanguageNormalizer() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Normaliserer et sprog til et af de understøttede sprog
+     * @param language Sproget fra requestet (fx "en", "EN" eller "en-GB")
+     * @return "en" for engelsk, ellers "da"
+     */
+    public static String normalize(String language) {
+        if (language == null) {
+            return QuestionnaireConstants.LANGUAGE_DA;
+        }
+        String normalized = language.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals(QuestionnaireConstants.LANGUAGE_EN) || normalized.startsWith(QuestionnaireConstants.LANGUAGE_EN + "-")) {
+            return QuestionnaireConstants.LANGUAGE_EN;
+        }
+        return QuestionnaireConstants.LANGUAGE_DA;
+    }
+}
@@ -0,0 +1,140 @@
+package com.questionnaire.utils;
+
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.ConditionalChild;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.VisibilityRule;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class til at beregne hvilke spørgsmål der vises for et sæt svar
+ * Resultatet er et BitSet med én bit pr. position i QuestionIndex, beregnet i én lineær gennemgang.
+ * Et conditional child vises kun hvis dets parent vises og parent svaret matcher childets option,
+ * så kæder af conditional children over flere niveauer håndteres. Strategiernes skjul-regler
+ * (VisibilityRule) skjuler spørgsmålet og dermed også dets conditional children.
+ */
+public class VisibilityEvaluator {
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private VisibilityEvaluator() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Beregner de viste spørgsmål ud fra conditional children alene
+     */
+    public static BitSet evaluate(QuestionIndex questions, Map<String, Object> answers) {
+        return evaluate(questions, answers, List.of());
+    }
+
+    /**
+     * Beregner de viste spørgsmål
+     * @param questions Spørgeskemaets spørgsmål
+     * @param answers Svarene indtil nu
+     * @param rules Skjul-regler fra spørgeskemaets strategi (se ConditionalLogicStrategy.describeRules)
+     * @return Bit i er sat hvis questions.get(i) skal vises
+     */
+    public static BitSet evaluate(QuestionIndex questions, Map<String, Object> answers, List<VisibilityRule> rules) {
+        return evaluate(AnswerSet.parse(questions, answers), rules);
+    }
+
+    /**
+     * Beregner de viste spørgsmål ud fra svar der allerede er parset
+     * @param answers Svarene indtil nu (indeholder spørgeskemaets spørgsmål)
+     * @param rules Skjul-regler fra spørgeskemaets strategi (se ConditionalLogicStrategy.describeRules)
+     * @return Bit i er sat hvis answers.getQuestions().get(i) skal vises
+     */
+    public static BitSet evaluate(AnswerSet answers, List<VisibilityRule> rules) {
+        QuestionIndex questions = answers.getQuestions();
+        int size = questions.size();
+        BitSet hidden = hiddenByRules(questions, answers, rules);
+        BitSet visible = new BitSet(size);
+        BitSet resolved = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            resolve(i, questions, answers, hidden, visible, resolved);
+        }
+        return visible;
+    }
+
+    /**
+     * Tæller de viste spørgsmål der er besvaret
+     */
+    public static int countAnswered(QuestionIndex questions, BitSet visible, Map<String, Object> answers) {
+        int answered = 0;
+        for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+            if (answers != null && answers.get(questions.get(i).getId()) != null) {
+                answered++;
+            }
+        }
+        return answered;
+    }
+
+    /**
+     * Afgør om spørgsmålet på position i vises (parent afgøres først, hvert spørgsmål kun én gang)
+     */
+    private static boolean resolve(int i, QuestionIndex questions, AnswerSet answers,
+                                   BitSet hidden, BitSet visible, BitSet resolved) {
+        if (resolved.get(i)) {
+            return visible.get(i);
+        }
+        // Markeres før parent afgøres, så en cyklus i conditional children giver skjulte spørgsmål
+        resolved.set(i);
+
+        if (hidden.get(i)) {
+            return false;
+        }
+
+        Question question = questions.get(i);
+        Question parent = question.getId() != null ? questions.findParentOf(question.getId()) : null;
+        boolean shown;
+        if (parent == null) {
+            shown = true;
+        } else {
+            int parentPosition = questions.positionOf(parent.getId());
+            ConditionalChild condition = questions.findConditionOf(question.getId());
+            shown = parentPosition >= 0
+                    && resolve(parentPosition, questions, answers, hidden, visible, resolved)
+                    && isOptionSelected(answers, parent.getId(), condition.getOptionId());
+        }
+
+        if (shown) {
+            visible.set(i);
+        }
+        return shown;
+    }
+
+    private static BitSet hiddenByRules(QuestionIndex questions, AnswerSet answers, List<VisibilityRule> rules) {
+        BitSet hidden = new BitSet(questions.size());
+        if (rules == null) {
+            return hidden;
+        }
+        for (VisibilityRule rule : rules) {
+            boolean applies;
+            if (rule.getCondition() == VisibilityRule.VisibilityCondition.UNANSWERED) {
+                applies = !answers.isAnswered(rule.getQuestionId());
+            } else {
+                applies = isOptionSelected(answers, rule.getQuestionId(), rule.getOptionId());
+            }
+            if (applies && rule.getHiddenQuestionIds() != null) {
+                for (String hiddenId : rule.getHiddenQuestionIds()) {
+                    int position = questions.positionOf(hiddenId);
+                    if (position >= 0) {
+                        hidden.set(position);
+                    }
+                }
+            }
+        }
+        return hidden;
+    }
+
+    private static boolean isOptionSelected(AnswerSet answers, String questionId, String optionId) {
+        String selected = answers.getOptionId(questionId);
+        return selected != null && selected.equals(optionId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.questionnaire.validation;
 
 import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.AnswerValue;
 import com.questionnaire.model.Question;
 
 /**
@@ -9,12 +10,25 @@ import com.questionnaire.model.Question;
  */
 public interface AnswerValidator {
     /**
-     * Validerer et svar mod et spørgsmål
+     * Validerer et svar mod et spørgsmål og tilføjer eventuelle fejl til resultatet
+     * Kaster ikke - bruges når alle fejl i en besvarelse skal samles
      * @param question Spørgsmålet
-     * @param answer Svaret der skal valideres
+     * @param answer Svaret parset ud fra spørgsmålets type (se AnswerSet)
+     * @param result Resultatet fejlene tilføjes til
+     */
+    void validate(Question question, AnswerValue answer, ValidationResult result);
+
+    /**
+     * Validerer et enkelt råt svar mod et spørgsmål
+     * @param question Spørgsmålet
+     * @param answer Svaret der skal valideres (ikke null)
      * @throws ValidationException hvis svaret ikke er gyldig
      */
-    void validate(Question question, Object answer) throws ValidationException;
+    default void validate(Question question, Object answer) throws ValidationException {
+        ValidationResult result = new ValidationResult();
+        validate(question, AnswerValue.parse(question.getType(), answer), result);
+        result.throwIfInvalid();
+    }
 }
 
 
@@ -0,0 +1,68 @@
+package com.questionnaire.validation;
+
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+
+/**
+ * Kompileret validator for numeric og slider spørgsmål
+ * Spørgsmålets min/max værdier kopieres én gang til primitive felter.
+ * Fejlbeskeder bygges først når valideringen fejler.
+ */
+public final class CompiledNumericValidator implements AnswerValidator {
+
+    private final boolean hasMin;
+    private final int minValue;
+    private final boolean hasMax;
+    private final int maxValue;
+
+    private CompiledNumericValidator(boolean hasMin, int minValue, boolean hasMax, int maxValue) {
+        this.hasMin = hasMin;
+        this.minValue = minValue;
+        this.hasMax = hasMax;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Kompilerer spørgsmålets værdigrænser
+     */
+    public static CompiledNumericValidator of(Question question) {
+        Integer min = question.getMinValue();
+        Integer max = question.getMaxValue();
+        return new CompiledNumericValidator(min != null, min != null ? min : 0, max != null, max != null ? max : 0);
+    }
+
+    @Override
+    public void validate(Question question, AnswerValue answer, ValidationResult result) {
+        if (!answer.isNumber()) {
+            result.reject(question.getId(), "Ugyldig numerisk værdi for spørgsmål: " + question.getText());
+            return;
+        }
+        double value = answer.getNumber();
+
+        // Tjek minimum værdi
+        if (hasMin && value < minValue) {
+            result.reject(question.getId(),
+                String.format("Værdien for '%s' skal være mindst %d. Du indtastede: %.0f",
+                    question.getText(), minValue, value)
+            );
+            return;
+        }
+
+        // Tjek maximum værdi
+        if (hasMax && value > maxValue) {
+            result.reject(question.getId(),
+                String.format("Værdien for '%s' må højst være %d. Du indtastede: %.0f",
+                    question.getText(), maxValue, value)
+            );
+            return;
+        }
+
+        // Standard validering: ingen negative værdier (hvis ikke minValue er sat)
+        if (!hasMin && value < 0) {
+            result.reject(question.getId(),
+                String.format("Værdien for '%s' kan ikke være negativ. Du indtastede: %.0f",
+                    question.getText(), value)
+            );
+        }
+    }
+}
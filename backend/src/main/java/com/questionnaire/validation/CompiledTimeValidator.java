@@ -0,0 +1,83 @@
+package com.questionnaire.validation;
+
+import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+
+/**
+ * Kompileret validator for et time_picker spørgsmål
+ * Spørgsmålets min/max tider parses én gang til minutter efter midnat,
+ * så et (allerede parset) svar valideres med heltalssammenligninger.
+ * Fejlbeskeder bygges først når valideringen fejler.
+ */
+public final class CompiledTimeValidator implements AnswerValidator {
+
+    private static final int NO_BOUND = -1;
+
+    private final int minMinute;
+    private final int maxMinute;
+    private final boolean invalidBounds;
+
+    private CompiledTimeValidator(int minMinute, int maxMinute, boolean invalidBounds) {
+        this.minMinute = minMinute;
+        this.maxMinute = maxMinute;
+        this.invalidBounds = invalidBounds;
+    }
+
+    /**
+     * Kompilerer spørgsmålets tidsgrænser
+     */
+    public static CompiledTimeValidator of(Question question) {
+        boolean invalid = false;
+        int min = NO_BOUND;
+        int max = NO_BOUND;
+        if (question.getMinTime() != null && !question.getMinTime().isEmpty()) {
+            min = parseStrict(question.getMinTime());
+            invalid = min < 0;
+        }
+        if (question.getMaxTime() != null && !question.getMaxTime().isEmpty()) {
+            max = parseStrict(question.getMaxTime());
+            invalid = invalid || max < 0;
+        }
+        return new CompiledTimeValidator(min, max, invalid);
+    }
+
+    @Override
+    public void validate(Question question, AnswerValue answer, ValidationResult result) {
+        String timeString = answer.getRaw().toString().trim();
+        // Svaret skal være præcis HH:mm (AnswerValue accepterer også H:mm)
+        int minute = answer.isTime() && timeString.length() == 5 ? answer.getMinuteOfDay() : -1;
+
+        // Ugyldige grænser på spørgsmålet behandles som et ugyldigt svar, som før
+        if (minute < 0 || invalidBounds) {
+            result.reject(question.getId(), "Ugyldig tidsformat for spørgsmål: " + question.getText()
+                    + ". Forventet format: " + QuestionnaireConstants.TIME_FORMAT);
+            return;
+        }
+
+        // Tjek minimum tid
+        if (minMinute != NO_BOUND && minute < minMinute) {
+            result.reject(question.getId(),
+                String.format("Tiden for '%s' skal være senest %s. Du indtastede: %s",
+                    question.getText(), question.getMinTime(), timeString)
+            );
+            return;
+        }
+
+        // Tjek maximum tid
+        if (maxMinute != NO_BOUND && minute > maxMinute) {
+            result.reject(question.getId(),
+                String.format("Tiden for '%s' må højst være %s. Du indtastede: %s",
+                    question.getText(), question.getMaxTime(), timeString)
+            );
+        }
+    }
+
+    /**
+     * Parser en tid i præcis formatet HH:mm
+     * @return Minutter efter midnat, eller -1 hvis tiden er ugyldig
+     */
+    private static int parseStrict(String time) {
+        return time.length() == 5 ? AnswerValue.parseMinuteOfDay(time) : -1;
+    }
+}
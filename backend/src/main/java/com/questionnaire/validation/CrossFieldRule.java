@@ -0,0 +1,66 @@
+package com.questionnaire.validation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Valideringsregel på tværs af flere spørgsmål
+ * Reglen erklærer hvilke spørgsmål (ID'er) den læser, så den kun
+ * køres igen når et af dem er ændret ved inkrementel validering.
+ * Reglerne bygges af ValidationRuleCompiler med spørgsmåls ID'erne allerede slået op.
+ */
+public final class CrossFieldRule {
+
+    private final String name;
+    private final Set<String> inputQuestionIds;
+    private final Consumer<RuleContext> check;
+
+    private CrossFieldRule(String name, Set<String> inputQuestionIds, Consumer<RuleContext> check) {
+        this.name = name;
+        this.inputQuestionIds = inputQuestionIds;
+        this.check = check;
+    }
+
+    /**
+     * Opretter en regel
+     * @param name Navn på reglen (bruges til logging)
+     * @param check Selve valideringen - afviser via RuleContext.reject
+     * @param inputQuestionIds ID'erne på de spørgsmål reglen læser
+     */
+    public static CrossFieldRule of(String name, Consumer<RuleContext> check, String... inputQuestionIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : inputQuestionIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return new CrossFieldRule(name, Collections.unmodifiableSet(ids), check);
+    }
+
+    /**
+     * Tjekker om reglen læser mindst et af de ændrede spørgsmål
+     */
+    public boolean dependsOnAny(Collection<String> changedQuestionIds) {
+        for (String id : changedQuestionIds) {
+            if (inputQuestionIds.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void apply(RuleContext context) {
+        check.accept(context);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getInputQuestionIds() {
+        return inputQuestionIds;
+    }
+}
@@ -1,18 +1,17 @@
 package com.questionnaire.validation;
 
-import com.questionnaire.model.Question;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.ValidationRuleDefinition;
 import com.questionnaire.service.QuestionFinder;
 import com.questionnaire.service.interfaces.IQuestionnaireService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Validator for evening questionnaire
- * Currently no evening-specific validation rules
- * Can be extended in the future if needed
+ * Aftenskemaets regler gemmes på spørgeskemaet, så rådgivere kan tilføje dem uden kodeændringer
  */
 @Component
 public class EveningQuestionnaireValidator extends QuestionnaireValidator {
@@ -25,9 +24,10 @@ public class EveningQuestionnaireValidator extends QuestionnaireValidator {
     }
     
     @Override
-    protected void validateSpecificRules(List<Question> questions, Map<String, Object> answers, String questionnaireId) {
-        // Currently no evening-specific validation rules
-        // Can be extended in the future if needed
+    protected List<ValidationRuleDefinition> getRuleDefinitions(String questionnaireId) {
+        return questionnaireService.findById(questionnaireId)
+                .map(Questionnaire::getValidationRules)
+                .orElse(List.of());
     }
 }
 
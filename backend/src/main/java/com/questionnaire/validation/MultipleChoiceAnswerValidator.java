@@ -1,14 +1,11 @@
 package com.questionnaire.validation;
 
-import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.AnswerValue;
 import com.questionnaire.model.Question;
 import com.questionnaire.model.QuestionOption;
 import com.questionnaire.model.QuestionType;
-import com.questionnaire.utils.AnswerParser;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
  * Validator for multiple choice answers
  * Håndterer både normale option IDs og "Andet" option med custom text
@@ -18,98 +15,65 @@ import java.util.List;
 public class MultipleChoiceAnswerValidator implements AnswerValidator {
     
     @Override
-    public void validate(Question question, Object answer) throws ValidationException {
+    public void validate(Question question, AnswerValue answer, ValidationResult result) {
         // For multiple choice, tjek at svaret er en gyldig option ID
         if (question.getOptions() == null || question.getOptions().isEmpty()) {
-            throw new ValidationException("Spørgsmålet har ingen valgmuligheder");
+            result.reject(question.getId(), "Spørgsmålet har ingen valgmuligheder");
+            return;
         }
         
         // Håndter multiple_choice_multiple (array af valg)
         if (question.getType() == QuestionType.multiple_choice_multiple) {
-            validateMultipleChoices(question, answer);
+            validateMultipleChoices(question, answer, result);
         } else {
             // Håndter multiple_choice (enkelt valg)
-            validateSingleChoice(question, answer);
-        }
-    }
-    
-    /**
-     * Validerer enkelt valg for multiple_choice
-     */
-    private void validateSingleChoice(Question question, Object answer) throws ValidationException {
-        // Brug AnswerParser til at ekstrahere option ID (håndterer både string og Map)
-        String answerId = AnswerParser.extractOptionId(answer);
-        if (answerId == null || answerId.isEmpty()) {
-            throw new ValidationException("Ugyldig valgmulighed for spørgsmål: " + question.getText());
+            validateChoice(question, answer.getOptionId(), answer.getCustomText(), result);
         }
-        
-        // Find og valider den valgte option
-        QuestionOption selectedOption = findAndValidateOption(question, answerId);
-        
-        // Hvis det er "Andet" option, valider at customText er udfyldt
-        validateOtherOption(question, selectedOption, answer);
     }
     
     /**
      * Validerer flere valg for multiple_choice_multiple
+     * Løkken læser de parsede arrays og opretter ingen objekter for gyldige svar,
+     * og stopper ved første ugyldige valg (én fejl pr. spørgsmål)
      */
-    private void validateMultipleChoices(Question question, Object answer) throws ValidationException {
-        // Konverter til List hvis det er et array
-        List<?> answerList;
-        if (answer instanceof List) {
-            answerList = (List<?>) answer;
-        } else if (answer instanceof Object[]) {
-            answerList = java.util.Arrays.asList((Object[]) answer);
-        } else {
-            throw new ValidationException("Ugyldig format for multiple choice multiple svar i spørgsmål: " + question.getText());
+    private void validateMultipleChoices(Question question, AnswerValue answer, ValidationResult result) {
+        if (answer.getKind() != AnswerValue.Kind.OPTIONS) {
+            result.reject(question.getId(), "Ugyldig format for multiple choice multiple svar i spørgsmål: " + question.getText());
+            return;
         }
-        
-        if (answerList.isEmpty()) {
-            throw new ValidationException("Mindst ét valg er påkrævet for spørgsmål: " + question.getText());
+        String[] optionIds = answer.getOptionIds();
+        String[] customTexts = answer.getCustomTexts();
+        if (optionIds.length == 0) {
+            result.reject(question.getId(), "Mindst ét valg er påkrævet for spørgsmål: " + question.getText());
+            return;
         }
-        
-        // Valider hvert valg i arrayet
-        for (Object item : answerList) {
-            String answerId = AnswerParser.extractOptionId(item);
-            if (answerId == null || answerId.isEmpty()) {
-                throw new ValidationException("Ugyldig valgmulighed for spørgsmål: " + question.getText());
+        for (int i = 0; i < optionIds.length; i++) {
+            if (!validateChoice(question, optionIds[i], customTexts[i], result)) {
+                return;
             }
-            
-            // Find og valider option
-            QuestionOption selectedOption = findAndValidateOption(question, answerId);
-            
-            // Hvis det er "Andet" option, valider at customText er udfyldt
-            validateOtherOption(question, selectedOption, item);
         }
     }
     
     /**
-     * Finder og validerer en option baseret på option ID
+     * Validerer et enkelt valg (svaret på multiple_choice eller ét element i multiple_choice_multiple)
+     * Option ID og custom tekst for "Andet" er allerede udtrukket af AnswerValue
+     * @return true hvis valget er gyldigt
      */
-    private QuestionOption findAndValidateOption(Question question, String answerId) throws ValidationException {
-        QuestionOption selectedOption = question.getOptions().stream()
-            .filter(option -> option.getId().equals(answerId))
-            .findFirst()
-            .orElse(null);
-        
+    private boolean validateChoice(Question question, String answerId, String customText, ValidationResult result) {
+        // Brug spørgsmålets option opslag i stedet for at scanne listen
+        QuestionOption selectedOption = answerId != null && !answerId.isEmpty() ? question.findOption(answerId) : null;
         if (selectedOption == null) {
-            throw new ValidationException("Ugyldig valgmulighed for spørgsmål: " + question.getText());
+            result.reject(question.getId(), "Ugyldig valgmulighed for spørgsmål: " + question.getText());
+            return false;
         }
         
-        return selectedOption;
-    }
-    
-    /**
-     * Validerer "Andet" option - tjekker at customText er udfyldt
-     */
-    private void validateOtherOption(Question question, QuestionOption selectedOption, Object answer) throws ValidationException {
+        // Hvis det er "Andet" option, valider at customText er udfyldt
         if (Boolean.TRUE.equals(selectedOption.getIsOther())) {
-            String customText = AnswerParser.extractCustomText(answer);
             if (customText == null || customText.trim().isEmpty()) {
-                throw new ValidationException("Custom tekst er påkrævet for 'Andet' option i spørgsmål: " + question.getText());
+                result.reject(question.getId(), "Custom tekst er påkrævet for 'Andet' option i spørgsmål: " + question.getText());
+                return false;
             }
         }
+        return true;
     }
 }
-
-
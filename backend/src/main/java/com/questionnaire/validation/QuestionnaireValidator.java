@@ -1,15 +1,26 @@
 package com.questionnaire.validation;
 
 import com.questionnaire.constants.QuestionnaireConstants;
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
 import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
 import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.ValidationRuleDefinition;
 import com.questionnaire.repository.QuestionRepository;
 import com.questionnaire.service.QuestionFinder;
+import com.questionnaire.service.QuestionSetCache;
 import com.questionnaire.service.interfaces.IQuestionnaireService;
+import com.questionnaire.utils.VisibilityEvaluator;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract base class for questionnaire-specific validators
@@ -24,6 +35,15 @@ public abstract class QuestionnaireValidator {
     @Autowired
     protected QuestionRepository questionRepository;
     
+    @Autowired
+    protected QuestionSetCache questionSetCache;
+    
+    @Autowired
+    protected ValidationRuleCompiler ruleCompiler;
+    
+    // Kompilerede cross-field regler pr. questionnaire sammen med den version de er kompileret mod
+    private final ConcurrentHashMap<String, CompiledRules> compiledRules = new ConcurrentHashMap<>();
+    
     public QuestionnaireValidator(ValidatorFactory validatorFactory,
                                  IQuestionnaireService questionnaireService,
                                  QuestionFinder questionFinder) {
@@ -37,88 +57,175 @@ public abstract class QuestionnaireValidator {
      * Defines the algorithm structure
      */
     public final void validate(String questionnaireId, Map<String, Object> answers) {
-        List<Question> questions = getQuestions(questionnaireId);
-        validateBasicAnswers(questions, answers);
-        validateSpecificRules(questions, answers, questionnaireId);
+        collect(questionnaireId, answers).throwIfInvalid();
+    }
+    
+    /**
+     * Validerer svar der allerede er parset mod spørgeskemaets spørgsmål
+     * Bruges når kalderen selv skal bruge de parsede svar bagefter (fx ved gemning)
+     */
+    public final void validate(String questionnaireId, AnswerSet answers) {
+        collect(questionnaireId, answers).throwIfInvalid();
+    }
+    
+    /**
+     * Validerer alle svar og samler samtlige fejl i stedet for at stoppe ved den første
+     * @return Resultatet (ValidationResult.isValid() hvis svarene er gyldige)
+     */
+    public final ValidationResult collect(String questionnaireId, Map<String, Object> answers) {
+        return collect(questionnaireId, AnswerSet.parse(getQuestions(questionnaireId), answers));
+    }
+    
+    /**
+     * Validerer alle parsede svar og samler samtlige fejl
+     * Svarene parses ikke igen - både basisvalideringen og cross-field reglerne læser AnswerSet
+     */
+    public final ValidationResult collect(String questionnaireId, AnswerSet answers) {
+        ValidationResult result = new ValidationResult();
+        validateBasicAnswers(answers, result);
+        validateSpecificRules(answers, questionnaireId, result);
+        return result;
+    }
+    
+    /**
+     * Inkrementel validering til wizard-flowet
+     * Validerer kun de ændrede spørgsmål (og deres conditional children, som besvares på samme side)
+     * samt de cross-field regler der læser et af dem. Den fulde validering køres stadig ved indsendelse.
+     * @param questionnaireId Spørgeskemaets ID
+     * @param answers Alle svar indtil nu
+     * @param changedQuestionIds Spørgsmål der er besvaret eller ændret siden sidste validering
+     */
+    public final void validateIncremental(String questionnaireId, Map<String, Object> answers, Collection<String> changedQuestionIds) {
+        AnswerSet answerSet = AnswerSet.parse(getQuestions(questionnaireId), answers);
+        QuestionIndex questions = answerSet.getQuestions();
+        Set<String> affectedIds = collectAffectedQuestionIds(questions, changedQuestionIds);
+        BitSet visible = VisibilityEvaluator.evaluate(answerSet, List.of());
+        ValidationResult result = new ValidationResult();
+        
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            if (affectedIds.contains(question.getId())) {
+                if (visible.get(i)) {
+                    validateBasicAnswer(question, answerSet, result);
+                }
+            }
+        }
+        
+        RuleContext context = new RuleContext(answerSet, result);
+        for (CrossFieldRule rule : getCrossFieldRules(questionnaireId, questions)) {
+            if (rule.dependsOnAny(affectedIds)) {
+                rule.apply(context);
+            }
+        }
+        result.throwIfInvalid();
     }
     
     /**
      * Henter spørgsmål for questionnaire
      */
     protected List<Question> getQuestions(String questionnaireId) {
-        return questionRepository.findByQuestionnaireIdOrderByOrderAsc(questionnaireId);
+        return questionSetCache.getQuestions(questionnaireId);
     }
     
     /**
      * Validerer grundlæggende svar (min/max værdier, formater, etc.)
      * Dette er fælles for alle questionnaire typer
      */
-    protected void validateBasicAnswers(List<Question> questions, Map<String, Object> answers) {
-        for (Question question : questions) {
-            // Tjek om dette spørgsmål er et conditional child der ikke skal vises
-            if (isConditionalChildThatShouldNotBeShown(question, questions, answers)) {
-                continue; // Spring over conditional children der ikke skal vises
-            }
-            
-            Object answer = answers.get(question.getId());
-            if (answer == null) continue;
-            
-            // Brug polymorphism pattern - få korrekt validator baseret på question type
-            AnswerValidator validator = validatorFactory.getValidator(question.getType());
-            
-            // Valider text input (spørgsmål 2 i morgenskema: max 200 tegn)
-            if (question.getType() == QuestionType.text && question.getOrder() == QuestionnaireConstants.ORDER_2) {
-                validator.validate(question, answer);
-            } else if (question.getType() == QuestionType.numeric || question.getType() == QuestionType.slider || 
-                       question.getType() == QuestionType.time_picker || 
-                       question.getType() == QuestionType.multiple_choice || 
-                       question.getType() == QuestionType.multiple_choice_multiple) {
-                // Brug validator for alle andre typer
-                validator.validate(question, answer);
-            }
+    protected void validateBasicAnswers(AnswerSet answers, ValidationResult result) {
+        // Conditional children der ikke vises (også i kæder over flere niveauer) springes over
+        QuestionIndex index = answers.getQuestions();
+        BitSet visible = VisibilityEvaluator.evaluate(answers, List.of());
+        for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+            validateBasicAnswer(index.get(i), answers, result);
         }
     }
     
     /**
-     * Tjekker om et spørgsmål er et conditional child der ikke skal vises baseret på parent svar
+     * Validerer svaret på et enkelt (vist) spørgsmål
+     * Ubesvarede spørgsmål (også svar sendt som null) springes over - påkrævede svar tjekkes af REQUIRED reglerne
      */
-    private boolean isConditionalChildThatShouldNotBeShown(Question question, List<Question> allQuestions, Map<String, Object> answers) {
-        // Find parent spørgsmål der har dette spørgsmål som conditional child
-        for (Question parentQuestion : allQuestions) {
-            if (parentQuestion.getConditionalChildren() != null) {
-                for (com.questionnaire.model.ConditionalChild cc : parentQuestion.getConditionalChildren()) {
-                    if (cc.getChildQuestionId() != null && cc.getChildQuestionId().equals(question.getId())) {
-                        // Dette er et conditional child - tjek om parent svar matcher
-                        Object parentAnswer = answers.get(parentQuestion.getId());
-                        if (parentAnswer == null) {
-                            // Parent er ikke besvaret, så conditional child skal ikke vises
-                            return true;
-                        }
-                        
-                        // Tjek om parent svar matcher optionId for conditional child
-                        String parentOptionId = com.questionnaire.utils.AnswerParser.extractOptionId(parentAnswer);
-                        if (parentOptionId == null || !parentOptionId.equals(cc.getOptionId())) {
-                            // Parent svar matcher ikke, så conditional child skal ikke vises
-                            return true;
-                        }
-                        
-                        // Parent svar matcher, så conditional child skal vises
-                        return false;
+    protected void validateBasicAnswer(Question question, AnswerSet answers, ValidationResult result) {
+        AnswerValue answer = answers.get(question.getId());
+        if (answer == null) {
+            return;
+        }
+
+        // Brug polymorphism pattern - få korrekt validator baseret på question type
+        AnswerValidator validator = validatorFactory.getValidator(question);
+        
+        // Valider text input (spørgsmål 2 i morgenskema: max 200 tegn)
+        if (question.getType() == QuestionType.text && question.getOrder() == QuestionnaireConstants.ORDER_2) {
+            validator.validate(question, answer, result);
+        } else if (question.getType() == QuestionType.numeric || question.getType() == QuestionType.slider || 
+                   question.getType() == QuestionType.time_picker || 
+                   question.getType() == QuestionType.multiple_choice || 
+                   question.getType() == QuestionType.multiple_choice_multiple) {
+            // Brug validator for alle andre typer
+            validator.validate(question, answer, result);
+        }
+    }
+    
+    /**
+     * Finder de ændrede spørgsmål samt deres conditional children
+     */
+    private Set<String> collectAffectedQuestionIds(List<Question> questions, Collection<String> changedQuestionIds) {
+        Set<String> affectedIds = new HashSet<>(changedQuestionIds);
+        for (Question question : questions) {
+            if (changedQuestionIds.contains(question.getId()) && question.getConditionalChildren() != null) {
+                for (com.questionnaire.model.ConditionalChild cc : question.getConditionalChildren()) {
+                    if (cc.getChildQuestionId() != null) {
+                        affectedIds.add(cc.getChildQuestionId());
                     }
                 }
             }
         }
-        
-        // Dette er ikke et conditional child
-        return false;
+        return affectedIds;
+    }
+    
+    /**
+     * Regeldefinitioner for questionnaire typen
+     * Kompileres én gang pr. spørgeskema og genbruges indtil spørgeskemaet ændres
+     */
+    protected List<ValidationRuleDefinition> getRuleDefinitions(String questionnaireId) {
+        return List.of();
     }
     
     /**
-     * Abstract method for questionnaire-specific validation rules
-     * Must be implemented by subclasses
+     * Henter de kompilerede cross-field regler for spørgeskemaet
+     * Reglerne genbruges så længe spørgsmålene har samme spørgeskemaversion
      */
-    protected abstract void validateSpecificRules(List<Question> questions, Map<String, Object> answers, String questionnaireId);
+    protected final List<CrossFieldRule> getCrossFieldRules(String questionnaireId, List<Question> questions) {
+        long version = questions instanceof QuestionIndex ? ((QuestionIndex) questions).getVersion() : -1;
+        if (version < 0) {
+            return ruleCompiler.compile(getRuleDefinitions(questionnaireId), questions);
+        }
+        CompiledRules cached = compiledRules.get(questionnaireId);
+        if (cached != null && cached.version == version) {
+            return cached.rules;
+        }
+        List<CrossFieldRule> rules = ruleCompiler.compile(getRuleDefinitions(questionnaireId), questions);
+        compiledRules.put(questionnaireId, new CompiledRules(version, rules));
+        return rules;
+    }
+    
+    /**
+     * Questionnaire-specific validation rules
+     * Kører som standard alle cross-field regler i rækkefølge
+     */
+    protected void validateSpecificRules(AnswerSet answers, String questionnaireId, ValidationResult result) {
+        RuleContext context = new RuleContext(answers, result);
+        for (CrossFieldRule rule : getCrossFieldRules(questionnaireId, answers.getQuestions())) {
+            rule.apply(context);
+        }
+    }
+    
+    private static final class CompiledRules {
+        private final long version;
+        private final List<CrossFieldRule> rules;
+        
+        private CompiledRules(long version, List<CrossFieldRule> rules) {
+            this.version = version;
+            this.rules = rules;
+        }
+    }
 }
-
-
-
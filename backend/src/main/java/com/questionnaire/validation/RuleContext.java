@@ -0,0 +1,95 @@
+package com.questionnaire.validation;
+
+import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Svarene for én validering
+ * Reglerne læser de færdigparsede værdier i requestets AnswerSet (svarene parses ikke igen pr. regel).
+ * Med et ValidationResult samles reglernes fejl, ellers kastes ValidationException ved første fejl.
+ */
+public final class RuleContext {
+
+    private final AnswerSet answerSet;
+    private final ValidationResult result;
+
+    public RuleContext(List<Question> questions, Map<String, Object> answers) {
+        this(AnswerSet.parse(questions, answers), null);
+    }
+
+    public RuleContext(List<Question> questions, Map<String, Object> answers, ValidationResult result) {
+        this(AnswerSet.parse(questions, answers), result);
+    }
+
+    public RuleContext(AnswerSet answerSet, ValidationResult result) {
+        this.answerSet = answerSet;
+        this.result = result;
+    }
+
+    public Map<String, Object> getAnswers() {
+        return answerSet.getAnswers();
+    }
+
+    public Object getRaw(String questionId) {
+        return answerSet.getAnswers().get(questionId);
+    }
+
+    public boolean isAnswered(String questionId) {
+        return answerSet.isAnswered(questionId);
+    }
+
+    /**
+     * Tiden som minutter efter midnat, eller null hvis svaret mangler eller ikke er en tid
+     */
+    public Integer getMinuteOfDay(String questionId) {
+        return answerSet.getMinuteOfDay(questionId);
+    }
+
+    /**
+     * Svaret som heltal, eller null hvis svaret mangler eller ikke er et tal
+     * Et tal med decimaler afkortes ikke - svaret afvises og reglen springes over (null).
+     */
+    public Integer getInt(String questionId) {
+        AnswerValue value = answerSet.get(questionId);
+        if (value == null || !value.isNumber()) {
+            return null;
+        }
+        if (!value.isIntegral()) {
+            reject(questionId, "Svaret skal være et helt tal. Du indtastede: " + value.getNumber());
+            return null;
+        }
+        return value.getInt();
+    }
+
+    /**
+     * Option ID for et multiple choice svar, eller null hvis det mangler
+     */
+    public String getOptionId(String questionId) {
+        return answerSet.getOptionId(questionId);
+    }
+
+    /**
+     * Afviser svarene
+     * @param questionId Spørgsmålet fejlen vedrører
+     * @param message Fejlbesked til brugeren
+     * @throws ValidationException hvis konteksten ikke samler fejl
+     */
+    public void reject(String questionId, String message) {
+        if (result == null) {
+            throw new ValidationException(message);
+        }
+        result.reject(questionId, message);
+    }
+
+    /**
+     * Sætter et svar (fx auto-fill) både i svarene og i de parsede værdier
+     */
+    public void put(String questionId, Object value) {
+        answerSet.put(questionId, value);
+    }
+}
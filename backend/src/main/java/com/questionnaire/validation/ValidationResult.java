@@ -0,0 +1,69 @@
+package com.questionnaire.validation;
+
+import com.questionnaire.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Samler alle valideringsfejl for én besvarelse
+ * Validatorerne tilføjer fejl i stedet for at kaste en exception, så alle fejl findes i én gennemgang
+ * og borgeren kan rette dem på én gang. Først når valideringen er færdig kastes (højst) én
+ * ValidationException med alle fejlene.
+ */
+public final class ValidationResult {
+
+    private List<Violation> violations; // Oprettes først ved første fejl
+
+    /**
+     * Tilføjer en fejl
+     * @param questionId Spørgsmålet fejlen vedrører (null for fejl på tværs af spørgsmål)
+     * @param message Fejlbesked til brugeren
+     */
+    public void reject(String questionId, String message) {
+        if (violations == null) {
+            violations = new ArrayList<>();
+        }
+        violations.add(new Violation(questionId, message));
+    }
+
+    public boolean isValid() {
+        return violations == null;
+    }
+
+    public List<Violation> getViolations() {
+        return violations != null ? Collections.unmodifiableList(violations) : List.of();
+    }
+
+    /**
+     * Kaster én ValidationException med alle fejl (beskeden er den første fejl)
+     * @throws ValidationException hvis der er fejl
+     */
+    public void throwIfInvalid() {
+        if (violations != null) {
+            throw new ValidationException(violations.get(0).getMessage(), getViolations());
+        }
+    }
+
+    /**
+     * En enkelt valideringsfejl
+     */
+    public static final class Violation {
+        private final String questionId;
+        private final String message;
+
+        public Violation(String questionId, String message) {
+            this.questionId = questionId;
+            this.message = message;
+        }
+
+        public String getQuestionId() {
+            return questionId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
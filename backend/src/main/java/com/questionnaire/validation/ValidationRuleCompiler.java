@@ -0,0 +1,442 @@
+package com.questionnaire.validation;
+
+import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.ValidationRuleDefinition;
+import com.questionnaire.model.ValidationRuleDefinition.RuleType;
+import com.questionnaire.service.QuestionFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Kompilerer regeldefinitioner til CrossFieldRule objekter
+ * Order værdier slås op til spørgsmåls ID'er én gang ved kompilering,
+ * så en validering kun læser de parsede svar i RuleContext.
+ * Opslaget bruger den type regeltypen kræver (tid, tal eller valg), eller et eksplicit spørgsmåls ID,
+ * da flere spørgsmål kan have samme order.
+ */
+@Component
+public class ValidationRuleCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationRuleCompiler.class);
+
+    @Autowired
+    private QuestionFinder questionFinder;
+
+    /**
+     * Kompilerer regler mod spørgeskemaets spørgsmål
+     * Regler der refererer til spørgsmål der ikke findes springes over
+     * @param definitions Regeldefinitionerne
+     * @param questions Spørgeskemaets spørgsmål
+     * @return Kompilerede regler i samme rækkefølge som definitionerne
+     */
+    public List<CrossFieldRule> compile(List<ValidationRuleDefinition> definitions, List<Question> questions) {
+        List<CrossFieldRule> rules = new ArrayList<>();
+        if (definitions == null) {
+            return rules;
+        }
+        for (ValidationRuleDefinition definition : definitions) {
+            CrossFieldRule rule = compileRule(definition, questions);
+            if (rule != null) {
+                rules.add(rule);
+            } else {
+                logger.warn("Springer valideringsregel over - spørgsmål mangler: {}", describe(definition));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Tjekker at regeldefinitionerne er komplette og at alle refererede spørgsmål findes
+     * @throws ValidationException hvis en regel er ugyldig
+     */
+    public void verify(List<ValidationRuleDefinition> definitions, List<Question> questions) {
+        if (definitions == null) {
+            return;
+        }
+        for (ValidationRuleDefinition definition : definitions) {
+            RuleType type = definition.getType();
+            if (type == null) {
+                throw new ValidationException("Valideringsregel mangler type");
+            }
+            if (definition.getTargetOrders() == null || definition.getTargetOrders().isEmpty()) {
+                throw new ValidationException("Valideringsregel mangler spørgsmål: " + type);
+            }
+            boolean needsValue = type == RuleType.DEFAULT_VALUE || type == RuleType.MIN_VALUE
+                    || type == RuleType.EQUALS_VALUE || type == RuleType.NOT_VALUE_WHEN_REFERENCE_AT_LEAST;
+            if (needsValue && definition.getValue() == null) {
+                throw new ValidationException("Valideringsregel mangler værdi: " + type);
+            }
+            if ((type == RuleType.TIME_NOT_BEFORE || type == RuleType.NOT_VALUE_WHEN_REFERENCE_AT_LEAST)
+                    && definition.getReferenceOrder() == null) {
+                throw new ValidationException("Valideringsregel mangler referencespørgsmål: " + type);
+            }
+            if (type == RuleType.NOT_VALUE_WHEN_REFERENCE_AT_LEAST && definition.getThreshold() == null) {
+                throw new ValidationException("Valideringsregel mangler tærskelværdi: " + type);
+            }
+            if (type != RuleType.DEFAULT_VALUE && definition.getMessage() == null) {
+                throw new ValidationException("Valideringsregel mangler fejlbesked: " + type);
+            }
+            if (definition.getTargetQuestionIds() != null
+                    && definition.getTargetQuestionIds().size() != definition.getTargetOrders().size()) {
+                throw new ValidationException("Valideringsregel skal have ét spørgsmåls ID pr. order: " + type);
+            }
+            if (definition.getMessage() != null) {
+                verifyMessageFormat(definition);
+            }
+            if (compileRule(definition, questions) == null) {
+                throw new ValidationException("Valideringsregel refererer til et spørgsmål der ikke findes eller ikke entydigt kan bestemmes"
+                        + " (angiv spørgsmålets ID): " + describe(definition));
+            }
+        }
+    }
+
+    /**
+     * Gemmer de spørgsmåls ID'er reglerne er slået op til i definitionerne
+     * Så bliver en regel ved med at læse de samme spørgsmål selvom deres order ændres senere.
+     * Definitionerne skal være tjekket med verify først.
+     */
+    public void pinQuestionIds(List<ValidationRuleDefinition> definitions, List<Question> questions) {
+        if (definitions == null) {
+            return;
+        }
+        for (ValidationRuleDefinition definition : definitions) {
+            ResolvedIds ids = resolveIds(definition, questions);
+            if (ids == null) {
+                continue;
+            }
+            definition.setTargetQuestionIds(new ArrayList<>(List.of(ids.targetIds)));
+            definition.setReferenceQuestionId(ids.referenceId);
+            definition.setWhenQuestionId(ids.whenQuestionId);
+        }
+    }
+
+    /**
+     * Tjekker at en ændring af spørgsmålene ikke får gemte regler til at læse andre spørgsmål end før
+     * (eller ingen), fx når order ændres for regler uden spørgsmåls ID'er
+     * @param before Spørgsmålene før ændringen
+     * @param after Spørgsmålene efter ændringen
+     * @throws ValidationException hvis en regel ikke længere kan slås op til de samme spørgsmål
+     */
+    public void verifyUnchanged(List<ValidationRuleDefinition> definitions, List<Question> before, List<Question> after) {
+        if (definitions == null) {
+            return;
+        }
+        for (ValidationRuleDefinition definition : definitions) {
+            ResolvedIds previous = resolveIds(definition, before);
+            if (previous == null) {
+                continue; // Reglen virkede heller ikke før ændringen
+            }
+            if (!previous.equals(resolveIds(definition, after))) {
+                throw new ValidationException("Ændringen vil få valideringsreglen til at læse andre spørgsmål"
+                        + " (ret eller slet reglen først): " + describe(definition));
+            }
+        }
+    }
+
+    /**
+     * Tjekker at fejlbeskeden kan formateres med de værdier regeltypen indsætter
+     * (to tider for TIME_NOT_BEFORE, ét tal for værdireglerne), så en forkert %-kode afvises ved gemning
+     * i stedet for at give en fejl ved hver indsendelse
+     */
+    private void verifyMessageFormat(ValidationRuleDefinition definition) {
+        Object[] samples = sampleArguments(definition.getType());
+        if (samples == null) {
+            return;
+        }
+        try {
+            String.format(definition.getMessage(), samples);
+        } catch (IllegalFormatException e) {
+            throw new ValidationException("Valideringsreglens fejlbesked har et ugyldigt format (brug %s for værdierne og %% for et procenttegn): "
+                    + describe(definition));
+        }
+    }
+
+    /**
+     * Eksempler på de værdier regeltypen indsætter i fejlbeskeden, eller null hvis beskeden bruges som den er
+     */
+    private static Object[] sampleArguments(RuleType type) {
+        switch (type) {
+            case TIME_NOT_BEFORE:
+                return new Object[] { "22:30", "23:00" };
+            case MIN_VALUE:
+            case EQUALS_VALUE:
+            case NOT_VALUE_WHEN_REFERENCE_AT_LEAST:
+                return new Object[] { 0 };
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Formaterer fejlbeskeden
+     * Regler gemt før formatet blev tjekket kan stadig have en ugyldig besked - så vises den uformateret
+     */
+    private static String format(String message, Object... args) {
+        try {
+            return String.format(message, args);
+        } catch (IllegalFormatException e) {
+            logger.warn("Valideringsregel har en ugyldig fejlbesked: {}", message);
+            return message;
+        }
+    }
+
+    /**
+     * Slår reglens spørgsmål op
+     * @return ID'erne, eller null hvis et spørgsmål ikke findes eller ikke entydigt kan bestemmes
+     */
+    private ResolvedIds resolveIds(ValidationRuleDefinition definition, List<Question> questions) {
+        if (definition.getType() == null || definition.getTargetOrders() == null || definition.getTargetOrders().isEmpty()) {
+            return null;
+        }
+
+        String whenQuestionId = null;
+        if (definition.getWhenOrder() != null) {
+            whenQuestionId = resolve(questions, definition.getWhenOrder(), definition.getWhenQuestionId(),
+                    QuestionType.multiple_choice);
+            if (whenQuestionId == null) {
+                return null;
+            }
+        }
+
+        List<String> explicitTargetIds = definition.getTargetQuestionIds();
+        if (explicitTargetIds != null && explicitTargetIds.size() != definition.getTargetOrders().size()) {
+            return null;
+        }
+        QuestionType[] targetTypes = targetTypes(definition.getType());
+        String[] targetIds = new String[definition.getTargetOrders().size()];
+        for (int i = 0; i < targetIds.length; i++) {
+            targetIds[i] = resolve(questions, definition.getTargetOrders().get(i),
+                    explicitTargetIds != null ? explicitTargetIds.get(i) : null, targetTypes);
+            if (targetIds[i] == null) {
+                return null;
+            }
+        }
+
+        String referenceId = null;
+        if (definition.getReferenceOrder() != null) {
+            referenceId = resolve(questions, definition.getReferenceOrder(), definition.getReferenceQuestionId(), targetTypes);
+            if (referenceId == null) {
+                return null;
+            }
+        }
+        return new ResolvedIds(targetIds, referenceId, whenQuestionId);
+    }
+
+    private CrossFieldRule compileRule(ValidationRuleDefinition definition, List<Question> questions) {
+        ResolvedIds ids = resolveIds(definition, questions);
+        if (ids == null) {
+            return null;
+        }
+
+        Consumer<RuleContext> check = buildCheck(definition, ids.targetIds, ids.referenceId);
+        if (check == null) {
+            return null;
+        }
+        if (ids.whenQuestionId != null) {
+            check = conditional(ids.whenQuestionId, definition.getWhenOptionId(), check);
+        }
+
+        // Afhængighederne er de opslåede ID'er - et eksplicit ID kan pege på et spørgsmål med en anden order
+        List<String> inputIds = new ArrayList<>(List.of(ids.targetIds));
+        inputIds.add(ids.referenceId);
+        inputIds.add(ids.whenQuestionId);
+        return CrossFieldRule.of(describe(definition), check, inputIds.toArray(new String[0]));
+    }
+
+    private Consumer<RuleContext> buildCheck(ValidationRuleDefinition definition, String[] targetIds, String referenceId) {
+        String message = definition.getMessage();
+        Integer value = definition.getValue();
+
+        switch (definition.getType()) {
+            case DEFAULT_VALUE:
+                if (value == null) {
+                    return null;
+                }
+                return context -> {
+                    for (String targetId : targetIds) {
+                        if (!context.getAnswers().containsKey(targetId)) {
+                            context.put(targetId, value);
+                        }
+                    }
+                };
+            case REQUIRED:
+                return context -> {
+                    for (String targetId : targetIds) {
+                        if (!context.isAnswered(targetId)) {
+                            context.reject(targetId, message);
+                            return;
+                        }
+                    }
+                };
+            case TIME_NOT_BEFORE:
+                if (referenceId == null) {
+                    return null;
+                }
+                String targetId = targetIds[0];
+                return context -> {
+                    Integer target = context.getMinuteOfDay(targetId);
+                    Integer reference = context.getMinuteOfDay(referenceId);
+                    if (target != null && reference != null && target < reference) {
+                        context.reject(targetId, format(message,
+                                context.getRaw(targetId).toString().trim(), context.getRaw(referenceId).toString().trim()));
+                    }
+                };
+            case MIN_VALUE:
+                if (value == null) {
+                    return null;
+                }
+                return context -> {
+                    for (String id : targetIds) {
+                        Integer actual = context.getInt(id);
+                        if (actual != null && actual < value) {
+                            context.reject(id, format(message, actual));
+                            return;
+                        }
+                    }
+                };
+            case EQUALS_VALUE:
+                if (value == null) {
+                    return null;
+                }
+                return context -> {
+                    for (String id : targetIds) {
+                        Integer actual = context.getInt(id);
+                        if (actual != null && actual.intValue() != value) {
+                            context.reject(id, format(message, actual));
+                            return;
+                        }
+                    }
+                };
+            case NOT_VALUE_WHEN_REFERENCE_AT_LEAST:
+                if (value == null || referenceId == null || definition.getThreshold() == null) {
+                    return null;
+                }
+                int threshold = definition.getThreshold();
+                return context -> {
+                    Integer reference = context.getInt(referenceId);
+                    if (reference == null || reference < threshold) {
+                        return;
+                    }
+                    for (String id : targetIds) {
+                        Integer actual = context.getInt(id);
+                        if (actual != null && actual.intValue() == value) {
+                            context.reject(id, format(message, reference));
+                            return;
+                        }
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    private Consumer<RuleContext> conditional(String whenQuestionId, String whenOptionId, Consumer<RuleContext> check) {
+        return context -> {
+            String optionId = context.getOptionId(whenQuestionId);
+            if (optionId != null && optionId.equals(whenOptionId)) {
+                check.accept(context);
+            }
+        };
+    }
+
+    /**
+     * De spørgsmålstyper regeltypen kan læse (tom for alle typer)
+     * Reference spørgsmålet har samme type som target for de regler der bruger et
+     */
+    private static QuestionType[] targetTypes(RuleType type) {
+        switch (type) {
+            case TIME_NOT_BEFORE:
+                return new QuestionType[] { QuestionType.time_picker };
+            case DEFAULT_VALUE:
+            case MIN_VALUE:
+            case EQUALS_VALUE:
+            case NOT_VALUE_WHEN_REFERENCE_AT_LEAST:
+                return new QuestionType[] { QuestionType.numeric, QuestionType.slider };
+            default:
+                return new QuestionType[0];
+        }
+    }
+
+    /**
+     * Finder spørgsmålets ID ud fra et eksplicit ID (vinder over order), eller order og de tilladte typer
+     * Et eksplicit ID skal stadig have en af de tilladte typer.
+     * @return ID'et, eller null hvis spørgsmålet ikke findes eller flere spørgsmål passer
+     */
+    private String resolve(List<Question> questions, int order, String explicitId, QuestionType... types) {
+        if (explicitId != null) {
+            for (Question question : questions) {
+                if (explicitId.equals(question.getId())) {
+                    return types.length == 0 || Arrays.asList(types).contains(question.getType()) ? question.getId() : null;
+                }
+            }
+            return null;
+        }
+        if (types.length > 0) {
+            for (QuestionType type : types) {
+                Question question = questionFinder.findByOrderAndType(questions, order, type);
+                if (question != null) {
+                    return question.getId();
+                }
+            }
+            return null;
+        }
+        Question match = null;
+        for (Question question : questions) {
+            if (question.getOrder() == order) {
+                if (match != null) {
+                    return null; // Tvetydig order uden type - kræver eksplicit ID
+                }
+                match = question;
+            }
+        }
+        return match != null ? match.getId() : null;
+    }
+
+    private String describe(ValidationRuleDefinition definition) {
+        return definition.getType() + " " + definition.getTargetOrders()
+                + (definition.getReferenceOrder() != null ? " ref " + definition.getReferenceOrder() : "")
+                + (definition.getWhenOrder() != null ? " when " + definition.getWhenOrder() + "=" + definition.getWhenOptionId() : "");
+    }
+
+    /**
+     * De spørgsmåls ID'er en regel er slået op til
+     */
+    private static final class ResolvedIds {
+        private final String[] targetIds;
+        private final String referenceId;
+        private final String whenQuestionId;
+
+        private ResolvedIds(String[] targetIds, String referenceId, String whenQuestionId) {
+            this.targetIds = targetIds;
+            this.referenceId = referenceId;
+            this.whenQuestionId = whenQuestionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResolvedIds)) {
+                return false;
+            }
+            ResolvedIds other = (ResolvedIds) o;
+            return Arrays.equals(targetIds, other.targetIds)
+                    && Objects.equals(referenceId, other.referenceId)
+                    && Objects.equals(whenQuestionId, other.whenQuestionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(targetIds), referenceId, whenQuestionId);
+        }
+    }
+}
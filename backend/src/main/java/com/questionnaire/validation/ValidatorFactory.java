@@ -1,5 +1,6 @@
 package com.questionnaire.validation;
 
+import com.questionnaire.model.Question;
 import com.questionnaire.model.QuestionType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -40,11 +41,19 @@ public class ValidatorFactory {
                 return multipleChoiceValidator;
             default:
                 // Default validator (ingen validering)
-                return (question, answer) -> {};
+                return (question, answer, result) -> {};
         }
     }
+    
+    /**
+     * Returnerer en validator for det konkrete spørgsmål
+     * Time, numeric og slider spørgsmål får spørgsmålets kompilerede validator med grænserne parset på forhånd.
+     */
+    public AnswerValidator getValidator(Question question) {
+        QuestionType type = question.getType();
+        if (type == QuestionType.time_picker || type == QuestionType.numeric || type == QuestionType.slider) {
+            return question.getCompiledValidator();
+        }
+        return getValidator(type);
+    }
 }
-
-
-
-
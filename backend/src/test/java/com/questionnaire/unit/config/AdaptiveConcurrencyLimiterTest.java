@@ -0,0 +1,52 @@
+package com.questionnaire.unit.config;
+
+import com.questionnaire.config.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ * Tests that the multiplicative decrease happens at most once per window
+ */
+@DisplayName("AdaptiveConcurrencyLimiter Unit Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("En burst af langsomme requests skal kun sænke grænsen én gang")
+    void testBurstDecreasesOnce() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200, THRESHOLD);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.CRITICAL));
+        }
+
+        // Act - alle ti var i gang før den første sænkning
+        for (int i = 0; i < 10; i++) {
+            limiter.onComplete(SLOW);
+        }
+
+        // Assert
+        assertEquals(18.0, limiter.getLimit(), 0.001);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Lav prioritet skal afvises før kritiske requests")
+    void testPriorityShare() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 200, THRESHOLD);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.LOW));
+        }
+
+        // Act & Assert
+        assertFalse(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.LOW));
+        assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.CRITICAL));
+    }
+}
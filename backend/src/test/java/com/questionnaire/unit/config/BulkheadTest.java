@@ -0,0 +1,94 @@
+package com.questionnaire.unit.config;
+
+import com.mongodb.MongoClientSettings;
+import com.questionnaire.config.Bulkhead;
+import com.questionnaire.config.MongoConfig;
+import com.questionnaire.exception.BulkheadFullException;
+import com.questionnaire.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for Bulkhead
+ * Tests that a full advisor bulkhead rejects with 503 + Retry-After and that the analytics client gets its own pool
+ */
+@DisplayName("Bulkhead Unit Tests")
+class BulkheadTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bulkhead bulkhead;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkhead = new Bulkhead("advisor", 1, 1, 3, meterRegistry);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    @DisplayName("Fuld kø skal afvises med 503 og Retry-After")
+    void testQueueFullRejected() throws Exception {
+        // Arrange - én tråd optaget og én opgave i kø
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = bulkhead.submit(() -> {
+            started.countDown();
+            await(release);
+            return "done";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = bulkhead.submit(() -> "queued");
+
+        // Act
+        BulkheadFullException e = assertThrows(BulkheadFullException.class, () -> bulkhead.submit(() -> "rejected"));
+        ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler().handleBulkheadFull(e);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("bulkhead.queue").tag("workload", "advisor").gauge().value());
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("workload", "advisor").counter().count());
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Analytics klienten skal have sin egen connection pool størrelse og ventetid")
+    void testAnalyticsPoolSettings() {
+        // Act
+        MongoClientSettings primary = MongoConfig.clientSettings("mongodb://localhost:27017/test", 100, null);
+        MongoClientSettings analytics = MongoConfig.clientSettings("mongodb://localhost:27017/test", 10, 2000L);
+
+        // Assert
+        assertEquals(100, primary.getConnectionPoolSettings().getMaxSize());
+        assertEquals(10, analytics.getConnectionPoolSettings().getMaxSize());
+        assertEquals(2000, analytics.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
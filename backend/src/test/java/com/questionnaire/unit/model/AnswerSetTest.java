@@ -0,0 +1,147 @@
+package com.questionnaire.unit.model;
+
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.validation.RuleContext;
+import com.questionnaire.validation.ValidationResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for AnswerSet
+ * Tests parsing of the existing answer formats into typed values and the normalized storage format,
+ * and that non-integral numbers and null answers are not silently truncated or dropped
+ */
+@DisplayName("AnswerSet Unit Tests")
+class AnswerSetTest {
+
+    private List<Question> questions;
+
+    @BeforeEach
+    void setUp() {
+        questions = new ArrayList<>();
+        questions.add(question("q1", 1, QuestionType.multiple_choice_multiple));
+        questions.add(question("q2", 2, QuestionType.text));
+        questions.add(question("q3", 3, QuestionType.time_picker));
+        questions.add(question("q5", 5, QuestionType.numeric));
+        questions.add(question("q6", 6, QuestionType.multiple_choice));
+    }
+
+    @Test
+    @DisplayName("Skal parse tider, tal og valg efter spørgsmålets type")
+    void testParseByType() {
+        // Arrange
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q2", "123");
+        answers.put("q3", "23:15");
+        answers.put("q5", "30");
+        answers.put("q6", Map.of("optionId", "wake_other", "customText", "Toilet"));
+        answers.put("q1", List.of("med_a", Map.of("optionId", "med_other", "customText", "Melatonin")));
+
+        // Act
+        AnswerSet answerSet = AnswerSet.parse(questions, answers);
+
+        // Assert
+        assertEquals(23 * 60 + 15, answerSet.getMinuteOfDay("q3"));
+        assertEquals(30, answerSet.getInt("q5"));
+        assertEquals("wake_other", answerSet.getOptionId("q6"));
+        assertEquals("Toilet", answerSet.get("q6").getCustomText());
+        assertArrayEquals(new String[] {"med_a", "med_other"}, answerSet.get("q1").getOptionIds());
+        assertEquals(AnswerValue.Kind.TEXT, answerSet.get("q2").getKind());
+        assertNull(answerSet.getInt("q2"), "Tekst skal ikke læses som tal");
+    }
+
+    @Test
+    @DisplayName("Skal normalisere tal og tider men beholde øvrige svar uændret")
+    void testStorageMap() {
+        // Arrange
+        Map<String, Object> other = Map.of("optionId", "wake_other", "customText", "Toilet");
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q2", "123");
+        answers.put("q3", "7:05");
+        answers.put("q5", "30");
+        answers.put("q6", other);
+
+        // Act
+        Map<String, Object> stored = AnswerSet.parse(questions, answers).toStorageMap();
+
+        // Assert
+        assertEquals("123", stored.get("q2"));
+        assertEquals("07:05", stored.get("q3"));
+        assertEquals(30, stored.get("q5"));
+        assertSame(other, stored.get("q6"));
+    }
+
+    @Test
+    @DisplayName("Ugyldige og ukendte svar skal beholdes uændret")
+    void testRawFallback() {
+        // Arrange
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q3", "25:99");
+        answers.put("unknown", 42);
+
+        // Act
+        AnswerSet answerSet = AnswerSet.parse(questions, answers);
+
+        // Assert
+        assertEquals(AnswerValue.Kind.RAW, answerSet.get("q3").getKind());
+        assertNull(answerSet.getMinuteOfDay("q3"));
+        assertEquals(42, answerSet.toStorageMap().get("unknown"));
+    }
+
+    @Test
+    @DisplayName("Decimaltal skal ikke afkortes og null svar er ubesvarede")
+    void testNonIntegralAndNull() {
+        // Arrange
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q5", 7.9);
+        answers.put("q3", null);
+        ValidationResult result = new ValidationResult();
+
+        // Act
+        AnswerSet answerSet = AnswerSet.parse(questions, answers);
+        RuleContext context = new RuleContext(answerSet, result);
+
+        // Assert
+        assertNull(answerSet.getInt("q5"), "7.9 må ikke læses som 7");
+        assertThrows(IllegalStateException.class, () -> answerSet.get("q5").getInt());
+        assertNull(context.getInt("q5"));
+        assertFalse(result.isValid(), "Reglerne skal afvise et decimaltal i stedet for at afkorte det");
+        assertFalse(answerSet.isAnswered("q3"));
+    }
+
+    @Test
+    @DisplayName("NaN og Infinity skal ikke læses som tal")
+    void testNonFiniteNumbers() {
+        // Arrange
+        Map<String, Object> nan = new HashMap<>();
+        nan.put("q5", "NaN");
+        Map<String, Object> infinity = new HashMap<>();
+        infinity.put("q5", Double.POSITIVE_INFINITY);
+
+        // Act
+        AnswerSet nanSet = AnswerSet.parse(questions, nan);
+        AnswerSet infinitySet = AnswerSet.parse(questions, infinity);
+
+        // Assert
+        assertFalse(nanSet.get("q5").isNumber());
+        assertFalse(infinitySet.get("q5").isNumber());
+    }
+
+    private Question question(String id, int order, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setOrder(order);
+        question.setType(type);
+        return question;
+    }
+}
@@ -0,0 +1,80 @@
+package com.questionnaire.unit.model;
+
+import com.questionnaire.model.ConditionalChild;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.service.QuestionFinder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for QuestionIndex
+ * Tests that indexed lookups give the same result as a linear scan in QuestionFinder
+ */
+@DisplayName("QuestionIndex Unit Tests")
+class QuestionIndexTest {
+
+    private List<Question> questions;
+    private QuestionIndex index;
+    private QuestionFinder finder;
+
+    @BeforeEach
+    void setUp() {
+        finder = new QuestionFinder();
+        questions = new ArrayList<>();
+
+        Question parent = question("q1", 1, QuestionType.multiple_choice);
+        Question child = question("q1child", 1, QuestionType.multiple_choice_multiple);
+        List<ConditionalChild> children = new ArrayList<>();
+        children.add(new ConditionalChild("med_yes", "q1child"));
+        parent.setConditionalChildren(children);
+
+        questions.add(parent);
+        questions.add(child);
+        questions.add(question("q3", 3, QuestionType.time_picker));
+        questions.add(question("q5", 5, QuestionType.numeric));
+        index = QuestionIndex.of(questions);
+    }
+
+    @Test
+    @DisplayName("Skal finde samme spørgsmål som lineær scanning")
+    void testSameResultAsLinearScan() {
+        for (int order = 0; order <= 6; order++) {
+            assertSame(finder.findByOrder(questions, order), finder.findByOrder(index, order));
+            for (QuestionType type : QuestionType.values()) {
+                assertSame(finder.findByOrderAndType(questions, order, type), finder.findByOrderAndType(index, order, type));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Skal finde spørgsmål på ID og parent for conditional child")
+    void testFindByIdAndParent() {
+        assertEquals("q3", index.findById("q3").getId());
+        assertNull(index.findById("missing"));
+        assertEquals("q1", index.findParentOf("q1child").getId());
+        assertNull(index.findParentOf("q3"));
+    }
+
+    @Test
+    @DisplayName("Skal bevare rækkefølge og være uforanderlig")
+    void testListBehaviour() {
+        assertEquals(questions, index);
+        assertSame(index, QuestionIndex.of(index));
+        assertThrows(UnsupportedOperationException.class, () -> index.add(question("q9", 9, QuestionType.time_picker)));
+    }
+
+    private Question question(String id, int order, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setOrder(order);
+        question.setType(type);
+        return question;
+    }
+}
@@ -0,0 +1,125 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.dto.SubmissionNotification;
+import com.questionnaire.event.ResponseSubmittedEvent;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.model.User;
+import com.questionnaire.model.UserRole;
+import com.questionnaire.service.AdvisorEventHub;
+import com.questionnaire.service.interfaces.IUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for AdvisorEventHub
+ * Tests Last-Event-ID replay, that a redelivered response is only sent once, and that a slow client is closed.
+ * The emitters are not attached to a request, so sent events are read from the emitter's own buffer.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdvisorEventHub Unit Tests")
+class AdvisorEventHubTest {
+
+    @Mock
+    private IUserService userService;
+
+    private AdvisorEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new AdvisorEventHub();
+        ReflectionTestUtils.setField(hub, "userService", userService);
+        User citizen = new User("borger1", "hemmelig", UserRole.BORGER, "Anna", "Hansen");
+        citizen.setId("c1");
+        citizen.setAdvisorId("a1");
+        when(userService.findById("c1")).thenReturn(citizen);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    @DisplayName("En genleveret besvarelse skal kun sendes én gang, og genopretning skal kun få det misset")
+    void testDedupeAndReplay() throws Exception {
+        // Arrange
+        SseEmitter first = hub.subscribe("a1", null);
+
+        // Act - r1 leveres to gange af pipelinen (at-least-once)
+        hub.onResponseSubmitted(event("r1"));
+        hub.onResponseSubmitted(event("r2"));
+        hub.onResponseSubmitted(event("r1"));
+        List<SubmissionNotification> received = awaitSent(first, 2);
+        SseEmitter reconnected = hub.subscribe("a1", received.get(0).getId());
+        List<SubmissionNotification> replayed = awaitSent(reconnected, 1);
+
+        // Assert
+        assertEquals(List.of("r1", "r2"), received.stream().map(SubmissionNotification::getResponseId).toList());
+        assertEquals(List.of("r2"), replayed.stream().map(SubmissionNotification::getResponseId).toList());
+    }
+
+    @Test
+    @DisplayName("En klient der ikke kan følge med skal lukkes")
+    void testSlowClientClosed() {
+        // Arrange
+        SseEmitter emitter = hub.subscribe("a1", null);
+
+        // Act - afsendelsen blokerer på emitterens lås mens bufferen løber fuld
+        synchronized (emitter) {
+            for (int i = 0; i < 70; i++) {
+                hub.onResponseSubmitted(event("r" + i));
+            }
+        }
+
+        // Assert
+        assertEquals(true, ReflectionTestUtils.getField(emitter, "complete"));
+        assertTrue(sent(emitter).isEmpty(), "En lukket forbindelse må ikke få flere beskeder");
+    }
+
+    private ResponseSubmittedEvent event(String responseId) {
+        Response response = new Response("c1", "qn1", QuestionnaireType.evening, new HashMap<>());
+        response.setId(responseId);
+        return new ResponseSubmittedEvent(response);
+    }
+
+    private List<SubmissionNotification> awaitSent(SseEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<SubmissionNotification> sent = sent(emitter);
+        while (sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            sent = sent(emitter);
+        }
+        return sent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SubmissionNotification> sent(SseEmitter emitter) {
+        List<SubmissionNotification> notifications = new ArrayList<>();
+        synchronized (emitter) {
+            Set<ResponseBodyEmitter.DataWithMediaType> early =
+                    (Set<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+            for (ResponseBodyEmitter.DataWithMediaType data : early) {
+                if (data.getData() instanceof SubmissionNotification notification) {
+                    notifications.add(notification);
+                }
+            }
+        }
+        return notifications;
+    }
+}
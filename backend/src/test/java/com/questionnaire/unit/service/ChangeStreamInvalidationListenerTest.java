@@ -0,0 +1,115 @@
+package com.questionnaire.unit.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.event.UserChangedEvent;
+import com.questionnaire.service.ChangeStreamInvalidationListener;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+/**
+ * Unit tests for ChangeStreamInvalidationListener
+ * Tests how change stream events are mapped to local QuestionnaireChangedEvent and UserChangedEvent,
+ * and that a failing listener invalidates every cache instead of leaving stale data
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChangeStreamInvalidationListener Unit Tests")
+class ChangeStreamInvalidationListenerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ChangeStreamInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ChangeStreamInvalidationListener();
+        ReflectionTestUtils.setField(listener, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(listener, "eventPublisher", eventPublisher);
+    }
+
+    @Test
+    @DisplayName("En ændring af et spørgeskema skal give dets ID og nye version")
+    void testQuestionnaireChangeMapped() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        Document questionnaire = new Document("_id", id).append("version", 7L);
+
+        // Act
+        handle(change("update", "questionnaires", new BsonObjectId(id), questionnaire));
+
+        // Assert
+        QuestionnaireChangedEvent event = (QuestionnaireChangedEvent) publishedEvents(1).get(0);
+        assertEquals(id.toHexString(), event.getQuestionnaireId());
+        assertEquals(7L, event.getVersion());
+    }
+
+    @Test
+    @DisplayName("Et slettet spørgsmål skal invalidere alle spørgeskemaer, og en ændret bruger kun brugeren")
+    void testQuestionDeleteAndUserChangeMapped() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+
+        // Act - ved sletning er der intet fullDocument, så spørgeskemaet kendes ikke
+        handle(change("delete", "questions", new BsonString("q1"), null));
+        handle(change("update", "users", new BsonObjectId(userId), new Document("_id", userId)));
+
+        // Assert
+        List<Object> events = publishedEvents(2);
+        assertNull(((QuestionnaireChangedEvent) events.get(0)).getQuestionnaireId());
+        assertEquals(userId.toHexString(), ((UserChangedEvent) events.get(1)).getUserId());
+    }
+
+    @Test
+    @DisplayName("Fejler en lytter, skal alle caches invalideres")
+    void testListenerFailureInvalidatesAll() {
+        // Arrange
+        doThrow(new IllegalStateException("cache fejlede")).doNothing().when(eventPublisher).publishEvent(any(Object.class));
+
+        // Act
+        handle(change("update", "questionnaires", new BsonObjectId(new ObjectId()), new Document("version", 2L)));
+
+        // Assert
+        List<Object> events = publishedEvents(3);
+        assertNull(((QuestionnaireChangedEvent) events.get(1)).getQuestionnaireId());
+        assertNull(((UserChangedEvent) events.get(2)).getUserId());
+    }
+
+    private void handle(ChangeStreamDocument<Document> change) {
+        ReflectionTestUtils.invokeMethod(listener, "handleSafely", change);
+    }
+
+    private List<Object> publishedEvents(int count) {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(count)).publishEvent(events.capture());
+        return events.getAllValues();
+    }
+
+    private ChangeStreamDocument<Document> change(String operation, String collection, BsonValue id, Document fullDocument) {
+        BsonDocument namespace = new BsonDocument("db", new BsonString("questionnaire")).append("coll", new BsonString(collection));
+        return new ChangeStreamDocument<>(operation, new BsonDocument(), namespace, null, fullDocument,
+                new BsonDocument("_id", id), null, null, null, null);
+    }
+}
@@ -0,0 +1,157 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.exception.DraftConflictException;
+import com.questionnaire.model.ConditionalChild;
+import com.questionnaire.model.Draft;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.ResolvedQuestionnaire;
+import com.questionnaire.service.DraftServiceImpl;
+import com.questionnaire.service.QuestionSetCache;
+import com.questionnaire.service.QuestionnaireResolver;
+import com.questionnaire.service.interfaces.IResponseService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for DraftServiceImpl.answer
+ * Tests the conditional write on the draft version, the retry on a concurrent change
+ * and that answers to conditional children that are no longer shown are removed
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DraftServiceImpl Unit Tests")
+class DraftServiceImplTest {
+
+    private static final String DRAFT_ID = "u1:qn1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private QuestionnaireResolver questionnaireResolver;
+
+    @Mock
+    private QuestionSetCache questionSetCache;
+
+    @Mock
+    private IResponseService responseService;
+
+    private DraftServiceImpl draftService;
+
+    @BeforeEach
+    void setUp() {
+        draftService = new DraftServiceImpl();
+        ReflectionTestUtils.setField(draftService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(draftService, "questionnaireResolver", questionnaireResolver);
+        ReflectionTestUtils.setField(draftService, "questionSetCache", questionSetCache);
+        ReflectionTestUtils.setField(draftService, "responseService", responseService);
+
+        // q1 --med_yes--> q1child
+        Question parent = question("q1", 1, QuestionType.multiple_choice);
+        parent.setConditionalChildren(new ArrayList<>(List.of(new ConditionalChild("med_yes", "q1child"))));
+        QuestionIndex questions = QuestionIndex.of(List.of(parent, question("q1child", 1, QuestionType.text)));
+
+        when(questionnaireResolver.resolveQuestionnaireId("evening"))
+                .thenReturn(new ResolvedQuestionnaire("qn1", QuestionnaireType.evening));
+        when(questionSetCache.getQuestions("qn1")).thenReturn(questions);
+    }
+
+    @Test
+    @DisplayName("Svar på et skjult conditional child skal fjernes når parent svaret ændres")
+    void testPrunesHiddenChildren() {
+        // Arrange
+        when(mongoTemplate.findById(DRAFT_ID, Draft.class)).thenReturn(draft(4, Map.of("q1", "med_yes", "q1child", "Melatonin")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Draft.class)))
+                .thenReturn(new Draft());
+
+        // Act
+        draftService.answer("u1", "evening", "q1", "med_no", "da");
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Draft.class));
+        assertEquals(4L, query.getValue().getQueryObject().get("version"), "Skrivningen skal være betinget på den læste version");
+        Document unset = (Document) update.getValue().getUpdateObject().get("$unset");
+        assertNotNull(unset);
+        assertTrue(unset.containsKey("answers.q1child"), "Svaret på det skjulte child skal fjernes");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> validated = ArgumentCaptor.forClass(Map.class);
+        verify(responseService).getNextQuestion(eq("qn1"), validated.capture(), eq("q1"), eq("da"));
+        assertFalse(validated.getValue().containsKey("q1child"));
+    }
+
+    @Test
+    @DisplayName("En samtidig ændring skal give en ny læsning og validering")
+    void testRetriesOnConcurrentChange() {
+        // Arrange
+        when(mongoTemplate.findById(DRAFT_ID, Draft.class))
+                .thenReturn(draft(1, Map.of("q1", "med_yes")))
+                .thenReturn(draft(2, Map.of("q1", "med_yes", "q1child", "Te")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Draft.class)))
+                .thenThrow(new DuplicateKeyException("version ændret"))
+                .thenReturn(new Draft());
+
+        // Act
+        draftService.answer("u1", "evening", "q1child", "Kamillete", "da");
+
+        // Assert
+        verify(mongoTemplate, times(2)).findById(DRAFT_ID, Draft.class);
+        verify(responseService, times(2)).getNextQuestion(anyString(), anyMap(), eq("q1child"), eq("da"));
+    }
+
+    @Test
+    @DisplayName("Skal afvise med konflikt når kladden bliver ved med at ændres")
+    void testGivesUpAfterRepeatedConflicts() {
+        // Arrange
+        when(mongoTemplate.findById(DRAFT_ID, Draft.class)).thenReturn(draft(1, Map.of("q1", "med_yes")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Draft.class)))
+                .thenThrow(new DuplicateKeyException("version ændret"));
+
+        // Act & Assert
+        assertThrows(DraftConflictException.class,
+                () -> draftService.answer("u1", "evening", "q1child", "Te", "da"));
+    }
+
+    private Draft draft(long version, Map<String, Object> answers) {
+        Draft draft = new Draft();
+        draft.setId(DRAFT_ID);
+        draft.setVersion(version);
+        draft.setAnswers(new LinkedHashMap<>(answers));
+        return draft;
+    }
+
+    private Question question(String id, int order, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setOrder(order);
+        question.setType(type);
+        return question;
+    }
+}
@@ -0,0 +1,105 @@
+package com.questionnaire.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionnaire.exception.IdempotencyKeyMismatchException;
+import com.questionnaire.model.IdempotencyRecord;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.repository.ResponseRepository;
+import com.questionnaire.service.InMemoryIdempotencyStore;
+import com.questionnaire.service.ResponseServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Unit tests for InMemoryIdempotencyStore used by ResponseServiceImpl.saveResponse
+ * Tests that a repeated Idempotency-Key replays the stored response, that other answers under the same key
+ * are rejected, and that an unfinished reservation can be taken over once its lease has expired
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InMemoryIdempotencyStore Unit Tests")
+class InMemoryIdempotencyStoreTest {
+
+    @Mock
+    private ResponseRepository responseRepository;
+
+    private InMemoryIdempotencyStore store;
+    private ResponseServiceImpl responseService;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttlHours", 24L);
+        ReflectionTestUtils.setField(store, "leaseSeconds", 30L);
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+
+        ResponseServiceImpl service = new ResponseServiceImpl();
+        ReflectionTestUtils.setField(service, "idempotencyStore", store);
+        ReflectionTestUtils.setField(service, "responseRepository", responseRepository);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        responseService = spy(service);
+    }
+
+    @Test
+    @DisplayName("Gentagelse med samme nøgle og svar skal afspille den gemte besvarelse")
+    void testReplaysStoredResponse() {
+        // Arrange
+        Map<String, Object> answers = Map.of("q1", 7);
+        Response saved = new Response("u1", "qn1", QuestionnaireType.evening, answers);
+        saved.setId("r1");
+        doReturn(saved).when(responseService).saveResponse("u1", "qn1", answers);
+        when(responseRepository.findById("r1")).thenReturn(Optional.of(saved));
+
+        // Act
+        Response first = responseService.saveResponse("u1", "qn1", answers, "key-1");
+        Response replayed = responseService.saveResponse("u1", "qn1", Map.of("q1", 7), "key-1");
+
+        // Assert
+        assertSame(first, replayed);
+        verify(responseService, times(1)).saveResponse("u1", "qn1", answers);
+    }
+
+    @Test
+    @DisplayName("Samme nøgle med andre svar skal afvises")
+    void testMismatchRejected() {
+        // Arrange
+        Map<String, Object> answers = Map.of("q1", 7);
+        Response saved = new Response("u1", "qn1", QuestionnaireType.evening, answers);
+        saved.setId("r1");
+        doReturn(saved).when(responseService).saveResponse("u1", "qn1", answers);
+        responseService.saveResponse("u1", "qn1", answers, "key-1");
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> responseService.saveResponse("u1", "qn1", Map.of("q1", 8), "key-1"));
+        verify(responseRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("En ufærdig reservation skal kunne overtages når leasen er udløbet")
+    void testExpiredLeaseTakenOver() {
+        // Arrange - leasen udløber med det samme, som hvis instansen gik ned midt i indsendelsen
+        ReflectionTestUtils.setField(store, "leaseSeconds", 0L);
+        assertNull(store.reserve("u1:key-1", "hash"));
+
+        // Act
+        IdempotencyRecord existing = store.reserve("u1:key-1", "hash");
+        store.complete("u1:key-1", "r1");
+
+        // Assert
+        assertNull(existing, "Reservationen skal overtages i stedet for at give 409");
+        IdempotencyRecord completed = store.reserve("u1:key-1", "hash");
+        assertNotNull(completed, "En færdig nøgle gælder i ttl-hours, ikke kun i leasen");
+        assertEquals("r1", completed.getResponseId());
+    }
+}
@@ -0,0 +1,120 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.event.QuestionnaireChangedEvent;
+import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.repository.QuestionRepository;
+import com.questionnaire.service.QuestionServiceImpl;
+import com.questionnaire.service.QuestionnaireVersionService;
+import com.questionnaire.validation.ValidationRuleCompiler;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for QuestionServiceImpl.reorderQuestions
+ * Tests that the list must be a full permutation of the root questions and that only moved questions are written
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Question Reorder Unit Tests")
+class QuestionReorderTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private QuestionnaireVersionService versionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private QuestionServiceImpl questionService;
+
+    @BeforeEach
+    void setUp() {
+        questionService = new QuestionServiceImpl();
+        ReflectionTestUtils.setField(questionService, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(questionService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(questionService, "versionService", versionService);
+        ReflectionTestUtils.setField(questionService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(questionService, "ruleCompiler", new ValidationRuleCompiler());
+        when(questionRepository.findByQuestionnaireIdOrderByOrderAsc("qn1"))
+                .thenReturn(List.of(question("q1", 1), question("q2", 2), question("q3", 3)));
+    }
+
+    @Test
+    @DisplayName("En liste der mangler et root spørgsmål skal afvises")
+    void testMissingRootRejected() {
+        // Act & Assert
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> questionService.reorderQuestions("qn1", List.of("q2", "q1")));
+        assertTrue(e.getMessage().contains("alle spørgeskemaets root spørgsmål"));
+        verifyNoInteractions(mongoTemplate, versionService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Et spørgsmål der optræder to gange skal afvises")
+    void testDuplicateRejected() {
+        // Act & Assert
+        assertThrows(ValidationException.class,
+                () -> questionService.reorderQuestions("qn1", List.of("q1", "q1", "q2")));
+        verifyNoInteractions(mongoTemplate, versionService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("En fuld permutation skal kun skrive de flyttede spørgsmål og give en ny version")
+    void testPermutationWritesMovedQuestions() {
+        // Arrange
+        when(mongoTemplate.findById("qn1", Questionnaire.class)).thenReturn(null);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Question.class)).thenReturn(bulk);
+        when(versionService.bump("qn1")).thenReturn(8L);
+
+        // Act - q2 bliver på sin plads
+        questionService.reorderQuestions("qn1", List.of("q3", "q2", "q1"));
+
+        // Assert
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(queries.capture(), updates.capture());
+        Map<Object, Object> orders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            Document set = (Document) updates.getAllValues().get(i).getUpdateObject().get("$set");
+            orders.put(queries.getAllValues().get(i).getQueryObject().get("_id"), set.get("order"));
+        }
+        assertEquals(Map.of("q3", 1, "q1", 3), orders);
+        verify(bulk).execute();
+        verify(eventPublisher).publishEvent(any(QuestionnaireChangedEvent.class));
+    }
+
+    private Question question(String id, int order) {
+        Question question = new Question("qn1", "Spørgsmål " + id, QuestionType.numeric, false, order);
+        question.setId(id);
+        return question;
+    }
+}
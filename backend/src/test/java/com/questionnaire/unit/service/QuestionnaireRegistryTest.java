@@ -0,0 +1,91 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.service.QuestionnaireRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for QuestionnaireRegistry
+ * Tests that losing the upsert race to another request reads the questionnaire it created, and that the id is cached
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuestionnaireRegistry Unit Tests")
+class QuestionnaireRegistryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private QuestionnaireRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new QuestionnaireRegistry();
+        ReflectionTestUtils.setField(registry, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.indexOps(Questionnaire.class)).thenReturn(indexOperations);
+    }
+
+    @Test
+    @DisplayName("Taber upsert kapløbet, skal det spørgeskema den anden forespørgsel oprettede bruges")
+    void testUpsertRaceReadsWinner() {
+        // Arrange
+        Questionnaire winner = questionnaire("qn-evening", QuestionnaireType.evening);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+        when(mongoTemplate.findOne(any(Query.class), eq(Questionnaire.class))).thenReturn(winner);
+
+        // Act
+        String id = registry.getId(QuestionnaireType.evening);
+        String cached = registry.getId(QuestionnaireType.evening);
+
+        // Assert
+        assertEquals("qn-evening", id);
+        assertEquals("qn-evening", cached);
+        assertEquals(QuestionnaireType.evening, registry.getType("qn-evening"));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class));
+        verify(indexOperations, times(1)).ensureIndex(any());
+    }
+
+    @Test
+    @DisplayName("Et ukendt ID skal slås op ved at indlæse typerne igen")
+    void testUnknownIdReloadsTypes() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class)))
+                .thenReturn(questionnaire("qn-morning", QuestionnaireType.morning))
+                .thenReturn(questionnaire("qn-evening", QuestionnaireType.evening));
+
+        // Act
+        QuestionnaireType type = registry.getType("qn-evening");
+
+        // Assert
+        assertEquals(QuestionnaireType.evening, type);
+        assertNull(registry.getType("ukendt"), "Et ID der ikke er et spørgeskema skal give null");
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class));
+    }
+
+    private Questionnaire questionnaire(String id, QuestionnaireType type) {
+        Questionnaire questionnaire = new Questionnaire();
+        questionnaire.setId(id);
+        questionnaire.setType(type);
+        return questionnaire;
+    }
+}
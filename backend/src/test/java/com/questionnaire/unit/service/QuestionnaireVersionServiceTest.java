@@ -0,0 +1,80 @@
+package com.questionnaire.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionnaire.model.Questionnaire;
+import com.questionnaire.repository.QuestionRepository;
+import com.questionnaire.service.QuestionnaireVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+/**
+ * Unit tests for QuestionnaireVersionService.bump
+ * Tests that a failed version bump after a question change is retried, and rethrown when it keeps failing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuestionnaireVersionService Unit Tests")
+class QuestionnaireVersionServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    private QuestionnaireVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        versionService = new QuestionnaireVersionService();
+        ReflectionTestUtils.setField(versionService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(versionService, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(versionService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("En fejlet optælling skal prøves igen")
+    void testRetriesFailedBump() {
+        // Arrange
+        Questionnaire bumped = new Questionnaire();
+        bumped.setVersion(5);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class)))
+                .thenThrow(new DataAccessResourceFailureException("forbindelse tabt"))
+                .thenReturn(bumped);
+        when(questionRepository.findByQuestionnaireIdOrderByOrderAsc("qn1")).thenReturn(List.of());
+
+        // Act
+        long version = versionService.bump("qn1");
+
+        // Assert
+        assertEquals(5, version);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(Questionnaire.class));
+    }
+
+    @Test
+    @DisplayName("Bliver optællingen ved med at fejle, skal fejlen kastes videre")
+    void testGivesUpAfterRepeatedFailures() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class)))
+                .thenThrow(new DataAccessResourceFailureException("forbindelse tabt"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> versionService.bump("qn1"));
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Questionnaire.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.event.ResponseSubmittedEvent;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.service.ResponseEventPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Unit tests for ResponseEventPipeline
+ * Tests that a failed event keeps its pending events for a retry and is dead-lettered after max-attempts
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResponseEventPipeline Unit Tests")
+class ResponseEventPipelineTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseEventPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new ResponseEventPipeline();
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 10);
+        ReflectionTestUtils.setField(pipeline, "workerCount", 1);
+        ReflectionTestUtils.setField(pipeline, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 3);
+        ReflectionTestUtils.setField(pipeline, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(pipeline, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    @DisplayName("Et fejlet event skal tælles op og blive i pendingEvents til næste forsøg")
+    void testFailedEventIsRetried() {
+        // Arrange
+        doThrow(new IllegalStateException("listener fejlede")).when(eventPublisher).publishEvent(any(ResponseSubmittedEvent.class));
+        Response response = pendingResponse(0);
+
+        // Act
+        pipeline.publish(response);
+
+        // Assert
+        Document update = capturedUpdate();
+        Document set = (Document) update.get("$set");
+        assertEquals(1, set.get("eventAttempts"));
+        assertNotNull(set.get("eventLeaseUntil"), "Leasen forlænges så næste forsøg venter");
+        assertFalse(set.containsKey("failedEvents"));
+        assertFalse(update.containsKey("$unset"), "pendingEvents skal bevares til næste forsøg");
+        assertEquals(0.0, meterRegistry.get("responses.events.dead_lettered").counter().count());
+    }
+
+    @Test
+    @DisplayName("Efter max-attempts skal eventsene flyttes til failedEvents")
+    void testDeadLettersAfterMaxAttempts() {
+        // Arrange - to forsøg er allerede fejlet
+        doThrow(new IllegalStateException("listener fejlede")).when(eventPublisher).publishEvent(any(ResponseSubmittedEvent.class));
+        Response response = pendingResponse(2);
+
+        // Act
+        pipeline.publish(response);
+
+        // Assert
+        Document update = capturedUpdate();
+        Document set = (Document) update.get("$set");
+        Document unset = (Document) update.get("$unset");
+        assertEquals(3, set.get("eventAttempts"));
+        assertEquals(List.of(ResponseSubmittedEvent.TYPE), set.get("failedEvents"));
+        assertTrue(unset.containsKey("pendingEvents"));
+        assertEquals(1.0, meterRegistry.get("responses.events.dead_lettered").counter().count());
+    }
+
+    private Response pendingResponse(int attempts) {
+        Response response = new Response("user1", "qn1", QuestionnaireType.evening, new HashMap<>());
+        response.setId("r1");
+        response.setPendingEvents(new ArrayList<>(List.of(ResponseSubmittedEvent.TYPE)));
+        response.setEventAttempts(attempts);
+        pipeline.claimOnInsert(response);
+        return response;
+    }
+
+    private Document capturedUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5000)).updateFirst(any(Query.class), update.capture(), eq(Response.class));
+        return update.getValue().getUpdateObject();
+    }
+}
@@ -0,0 +1,123 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.repository.ResponseRepository;
+import com.questionnaire.service.ResponseWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for ResponseWriteBuffer
+ * Tests that concurrent submissions are written as one insert and that an unacknowledged batch falls back to a direct save
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResponseWriteBuffer Unit Tests")
+class ResponseWriteBufferTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ResponseRepository responseRepository;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private ResponseWriteBuffer buffer;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new ResponseWriteBuffer();
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(buffer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(buffer, "responseRepository", responseRepository);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", new SimpleMeterRegistry());
+        release = new CountDownLatch(1);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class)).thenReturn(bulk);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        buffer.stop();
+    }
+
+    @Test
+    @DisplayName("Samtidige besvarelser skal skrives med én insert")
+    void testConcurrentSubmissionsShareOneInsert() throws Exception {
+        // Arrange - lang ventetid, så batchen kun lukkes når den er fuld
+        ReflectionTestUtils.setField(buffer, "maxDelayMs", 2000L);
+        ReflectionTestUtils.setField(buffer, "commitTimeoutMs", 5000L);
+        buffer.start();
+
+        // Act
+        List<CompletableFuture<Response>> saves = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Response response = response("user" + i);
+            saves.add(CompletableFuture.supplyAsync(() -> buffer.save(response)));
+        }
+        for (CompletableFuture<Response> save : saves) {
+            assertNotNull(save.get(5, TimeUnit.SECONDS).getId());
+        }
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Response>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulk).insert(inserted.capture());
+        assertEquals(3, inserted.getValue().size());
+        verify(bulk, times(1)).execute();
+        verify(responseRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("En batch der ikke kvitteres i tide skal gemmes direkte med samme ID")
+    void testTimeoutFallsBackToDirectSave() {
+        // Arrange - Mongo svarer ikke på insert
+        ReflectionTestUtils.setField(buffer, "maxDelayMs", 1L);
+        ReflectionTestUtils.setField(buffer, "commitTimeoutMs", 100L);
+        when(bulk.execute()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        when(responseRepository.save(any(Response.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        buffer.start();
+        Response response = response("user1");
+
+        // Act
+        Response saved = buffer.save(response);
+
+        // Assert
+        verify(bulk).insert(anyList());
+        verify(responseRepository).save(eq(response));
+        assertNotNull(saved.getId(), "Besvarelsen skal have fået sit ID før den blev lagt i køen");
+    }
+
+    private Response response(String userId) {
+        return new Response(userId, "qn1", QuestionnaireType.morning, new HashMap<>());
+    }
+}
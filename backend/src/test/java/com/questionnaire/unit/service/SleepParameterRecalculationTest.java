@@ -0,0 +1,97 @@
+package com.questionnaire.unit.service;
+
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.model.Response;
+import com.questionnaire.model.SleepParameters;
+import com.questionnaire.service.ResponseServiceImpl;
+import com.questionnaire.service.interfaces.ISleepParameterCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for ResponseServiceImpl.recalculateSleepParameters
+ * Tests that only responses whose sleep parameters changed are written back, in one bulk write
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Sleep Parameter Recalculation Unit Tests")
+class SleepParameterRecalculationTest {
+
+    @Mock
+    private ISleepParameterCalculator sleepParameterCalculator;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private ResponseServiceImpl responseService;
+
+    @BeforeEach
+    void setUp() {
+        responseService = new ResponseServiceImpl();
+        ReflectionTestUtils.setField(responseService, "sleepParameterCalculator", sleepParameterCalculator);
+        ReflectionTestUtils.setField(responseService, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Kun besvarelser med ændrede søvnparametre skal gemmes")
+    void testWritesBackChangedOnly() {
+        // Arrange
+        Response unchanged = morningResponse("r1", "q-unchanged", new SleepParameters(10, 20, 480, 450));
+        Response changed = morningResponse("r2", "q-changed", new SleepParameters(10, 20, 480, 450));
+        when(sleepParameterCalculator.calculate(anyMap(), eq("q-unchanged"))).thenReturn(new SleepParameters(10, 20, 480, 450));
+        when(sleepParameterCalculator.calculate(anyMap(), eq("q-changed"))).thenReturn(new SleepParameters(15, 20, 480, 445));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Response.class)).thenReturn(bulk);
+
+        // Act
+        int stored = responseService.recalculateSleepParameters(List.of(unchanged, changed));
+
+        // Assert
+        assertEquals(1, stored);
+        verify(bulk, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+        assertEquals(445, changed.getSleepParameters().getTST());
+    }
+
+    @Test
+    @DisplayName("Uændrede søvnparametre skal ikke give en skrivning")
+    void testNoWriteWhenUnchanged() {
+        // Arrange
+        Response response = morningResponse("r1", "q1", new SleepParameters(10, 20, 480, 450));
+        when(sleepParameterCalculator.calculate(anyMap(), eq("q1"))).thenReturn(new SleepParameters(10, 20, 480, 450));
+
+        // Act
+        int stored = responseService.recalculateSleepParameters(List.of(response));
+
+        // Assert
+        assertEquals(0, stored);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private Response morningResponse(String id, String questionnaireId, SleepParameters stored) {
+        Map<String, Object> answers = new HashMap<>();
+        Response response = new Response("user1", questionnaireId, QuestionnaireType.morning, answers);
+        response.setId(id);
+        response.setSleepParameters(stored);
+        return response;
+    }
+}
@@ -0,0 +1,83 @@
+package com.questionnaire.unit.utils;
+
+import com.questionnaire.model.AnswerSet;
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionOption;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.QuestionnaireType;
+import com.questionnaire.utils.ColorCodeClassifier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for ColorCodeClassifier utility class
+ * Tests that answers get the same color codes as in the advisor overview
+ */
+@DisplayName("ColorCodeClassifier Unit Tests")
+class ColorCodeClassifierTest {
+
+    @Test
+    @DisplayName("Tal skal klassificeres efter grønne, gule og røde intervaller")
+    void testNumericRanges() {
+        // Arrange
+        Question question = new Question();
+        question.setType(QuestionType.numeric);
+        question.setHasColorCode(true);
+        question.setColorCodeGreenMin(0);
+        question.setColorCodeGreenMax(2);
+        question.setColorCodeYellowMin(3);
+        question.setColorCodeYellowMax(4);
+        question.setColorCodeRedMin(5);
+        question.setColorCodeRedMax(10);
+
+        // Act & Assert
+        assertEquals("green", ColorCodeClassifier.classify(question, AnswerValue.parse(QuestionType.numeric, 2)));
+        assertEquals("yellow", ColorCodeClassifier.classify(question, AnswerValue.parse(QuestionType.numeric, "3")));
+        assertEquals("red", ColorCodeClassifier.classify(question, AnswerValue.parse(QuestionType.numeric, 10)));
+        assertNull(ColorCodeClassifier.classify(question, AnswerValue.parse(QuestionType.numeric, 11)));
+    }
+
+    @Test
+    @DisplayName("Flere valg skal få den værste farvekode")
+    void testMultipleChoiceWorstColor() {
+        // Arrange
+        Question question = new Question();
+        question.setType(QuestionType.multiple_choice_multiple);
+        question.setOptions(List.of(option("a", "green"), option("b", "red"), option("c", "yellow")));
+
+        // Act
+        String colorCode = ColorCodeClassifier.classify(question,
+                AnswerValue.parse(QuestionType.multiple_choice_multiple, List.of("a", "c")));
+
+        // Assert
+        assertEquals("yellow", colorCode);
+    }
+
+    @Test
+    @DisplayName("Morgenskemaet skal ikke få farvekoder")
+    void testMorningHasNoColorCodes() {
+        // Arrange
+        Question question = new Question();
+        question.setId("q1");
+        question.setType(QuestionType.multiple_choice);
+        question.setOptions(List.of(option("a", "red")));
+        List<Question> questions = List.of(question);
+        AnswerSet answers = AnswerSet.parse(questions, Map.of("q1", "a"));
+
+        // Act & Assert
+        assertTrue(ColorCodeClassifier.classify(QuestionnaireType.morning, questions, answers).isEmpty());
+        assertEquals(Map.of("q1", "red"), ColorCodeClassifier.classify(QuestionnaireType.evening, questions, answers));
+    }
+
+    private QuestionOption option(String id, String colorCode) {
+        QuestionOption option = new QuestionOption();
+        option.setId(id);
+        option.setColorCode(colorCode);
+        return option;
+    }
+}
@@ -0,0 +1,33 @@
+package com.questionnaire.unit.utils;
+
+import com.questionnaire.utils.LanguageNormalizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LanguageNormalizer utility class
+ * Tests that only supported languages reach the payload cache keys
+ */
+@DisplayName("LanguageNormalizer Unit Tests")
+class LanguageNormalizerTest {
+    
+    @Test
+    @DisplayName("Skal normalisere varianter af engelsk til en")
+    void testEnglishVariants() {
+        // Act & Assert
+        assertEquals("en", LanguageNormalizer.normalize("en"));
+        assertEquals("en", LanguageNormalizer.normalize(" EN "));
+        assertEquals("en", LanguageNormalizer.normalize("en-GB"));
+    }
+    
+    @Test
+    @DisplayName("Skal bruge dansk for manglende og ukendte sprog")
+    void testUnknownFallsBackToDanish() {
+        // Act & Assert
+        assertEquals("da", LanguageNormalizer.normalize(null));
+        assertEquals("da", LanguageNormalizer.normalize("da"));
+        assertEquals("da", LanguageNormalizer.normalize("xx" + System.nanoTime()));
+        assertEquals("da", LanguageNormalizer.normalize("english"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.questionnaire.unit.utils;
+
+import com.questionnaire.model.ConditionalChild;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionIndex;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.VisibilityRule;
+import com.questionnaire.utils.VisibilityEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for VisibilityEvaluator
+ * Tests conditional children over several levels and strategy hide rules
+ */
+@DisplayName("VisibilityEvaluator Unit Tests")
+class VisibilityEvaluatorTest {
+
+    private QuestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // q1 --med_yes--> q1child --type_other--> q1grandchild, q2 er et almindeligt spørgsmål
+        Question parent = question("q1", 1, QuestionType.multiple_choice);
+        Question child = question("q1child", 1, QuestionType.multiple_choice);
+        Question grandchild = question("q1grandchild", 1, QuestionType.text);
+        parent.setConditionalChildren(new ArrayList<>(List.of(new ConditionalChild("med_yes", "q1child"))));
+        child.setConditionalChildren(new ArrayList<>(List.of(new ConditionalChild("type_other", "q1grandchild"))));
+
+        // Grandchild før parent i listen, så rækkefølgen ikke må afgøre resultatet
+        index = QuestionIndex.of(List.of(grandchild, parent, child, question("q2", 2, QuestionType.numeric)));
+    }
+
+    @Test
+    @DisplayName("Conditional children i flere niveauer vises kun når hele kæden matcher")
+    void testNestedChain() {
+        // Arrange
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", "med_yes");
+        answers.put("q1child", "type_other");
+
+        // Act
+        BitSet visible = VisibilityEvaluator.evaluate(index, answers);
+
+        // Assert
+        assertEquals(4, visible.cardinality());
+
+        // Når parent ændres skjules både child og grandchild, selvom child stadig har et svar
+        answers.put("q1", "med_no");
+        BitSet hidden = VisibilityEvaluator.evaluate(index, answers);
+        assertTrue(hidden.get(index.positionOf("q1")));
+        assertFalse(hidden.get(index.positionOf("q1child")));
+        assertFalse(hidden.get(index.positionOf("q1grandchild")));
+        assertEquals(1, VisibilityEvaluator.countAnswered(index, hidden, answers));
+    }
+
+    @Test
+    @DisplayName("Skjul-regler skjuler spørgsmålet og dets conditional children")
+    void testRulesHideDescendants() {
+        // Arrange
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", "med_yes");
+        answers.put("q1child", "type_other");
+        List<VisibilityRule> rules = List.of(VisibilityRule.hideWhenUnanswered("q2", List.of("q1")));
+
+        // Act
+        BitSet visible = VisibilityEvaluator.evaluate(index, answers, rules);
+
+        // Assert
+        assertEquals(1, visible.cardinality());
+        assertTrue(visible.get(index.positionOf("q2")));
+    }
+
+    private Question question(String id, int order, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setOrder(order);
+        question.setType(type);
+        return question;
+    }
+}
@@ -0,0 +1,243 @@
+package com.questionnaire.unit.validation;
+
+import com.questionnaire.exception.ValidationException;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.model.ValidationRuleDefinition;
+import com.questionnaire.model.ValidationRuleDefinition.RuleType;
+import com.questionnaire.service.QuestionFinder;
+import com.questionnaire.validation.CrossFieldRule;
+import com.questionnaire.validation.RuleContext;
+import com.questionnaire.validation.ValidationResult;
+import com.questionnaire.validation.ValidationRuleCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for ValidationRuleCompiler
+ * Tests that rule definitions (data) are compiled into working cross-field rules
+ */
+@DisplayName("ValidationRuleCompiler Unit Tests")
+class ValidationRuleCompilerTest {
+
+    private ValidationRuleCompiler compiler;
+    private List<Question> questions;
+
+    @BeforeEach
+    void setUp() {
+        compiler = new ValidationRuleCompiler();
+        ReflectionTestUtils.setField(compiler, "questionFinder", new QuestionFinder());
+
+        questions = new ArrayList<>();
+        questions.add(question("q3", 3, QuestionType.time_picker));
+        questions.add(question("q4", 4, QuestionType.time_picker));
+        questions.add(question("q6", 6, QuestionType.multiple_choice));
+        questions.add(question("q7", 7, QuestionType.numeric));
+        questions.add(question("q8", 8, QuestionType.numeric));
+    }
+
+    @Test
+    @DisplayName("TIME_NOT_BEFORE skal kaste ValidationException med formateret besked")
+    void testTimeNotBefore() {
+        // Arrange
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.TIME_NOT_BEFORE, List.of(4), "Slukkede lyset (%s) før seng (%s)")
+                .reference(3)), questions);
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q3", "23:00");
+        answers.put("q4", "22:30");
+
+        // Act & Assert
+        ValidationException e = assertThrows(ValidationException.class, () -> rules.get(0).apply(new RuleContext(questions, answers)));
+        assertEquals("Slukkede lyset (22:30) før seng (23:00)", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("TIME_NOT_BEFORE skal acceptere korrekt rækkefølge")
+    void testTimeNotBeforeValid() {
+        // Arrange
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.TIME_NOT_BEFORE, List.of(4), "%s %s").reference(3)), questions);
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q3", "22:00");
+        answers.put("q4", "22:15");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> rules.get(0).apply(new RuleContext(questions, answers)));
+    }
+
+    @Test
+    @DisplayName("Med ValidationResult skal alle regelfejl samles uden exception")
+    void testCollectAllViolations() {
+        // Arrange
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.TIME_NOT_BEFORE, List.of(4), "%s før %s").reference(3),
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "For lav: %d").value(0)), questions);
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q3", "23:00");
+        answers.put("q4", "22:30");
+        answers.put("q7", -2);
+        ValidationResult result = new ValidationResult();
+        RuleContext context = new RuleContext(questions, answers, result);
+
+        // Act
+        assertDoesNotThrow(() -> rules.forEach(rule -> rule.apply(context)));
+
+        // Assert
+        assertEquals(2, result.getViolations().size());
+        assertEquals("q4", result.getViolations().get(0).getQuestionId());
+        assertEquals("For lav: -2", result.getViolations().get(1).getMessage());
+        ValidationException e = assertThrows(ValidationException.class, result::throwIfInvalid);
+        assertEquals("22:30 før 23:00", e.getMessage());
+        assertEquals(2, e.getViolations().size());
+    }
+
+    @Test
+    @DisplayName("DEFAULT_VALUE med betingelse skal kun udfylde når option matcher")
+    void testConditionalDefaultValue() {
+        // Arrange
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.DEFAULT_VALUE, List.of(8), null).when(6, "wake_no").value(0)), questions);
+        Map<String, Object> noAnswers = new HashMap<>();
+        noAnswers.put("q6", "wake_no");
+        Map<String, Object> yesAnswers = new HashMap<>();
+        yesAnswers.put("q6", "wake_yes");
+
+        // Act
+        rules.get(0).apply(new RuleContext(questions, noAnswers));
+        rules.get(0).apply(new RuleContext(questions, yesAnswers));
+
+        // Assert
+        assertEquals(0, noAnswers.get("q8"));
+        assertFalse(yesAnswers.containsKey("q8"));
+    }
+
+    @Test
+    @DisplayName("Kompileret regel skal erklære alle de spørgsmål den læser")
+    void testInputQuestionIds() {
+        // Arrange & Act
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.NOT_VALUE_WHEN_REFERENCE_AT_LEAST, List.of(8), "%d")
+                .when(6, "wake_yes").reference(7).threshold(1).value(0)), questions);
+
+        // Assert
+        assertEquals(Set.of("q6", "q7", "q8"), rules.get(0).getInputQuestionIds());
+        assertTrue(rules.get(0).dependsOnAny(List.of("q7")));
+        assertFalse(rules.get(0).dependsOnAny(List.of("q3", "q4")));
+    }
+
+    @Test
+    @DisplayName("Et eksplicit ID skal være afhængigheden, også når dets order er en anden")
+    void testExplicitIdDependency() {
+        // Arrange - q8b har order 9, men reglen angiver order 8 med eksplicit ID
+        questions.add(question("q8b", 9, QuestionType.numeric));
+
+        // Act
+        List<CrossFieldRule> rules = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(8), "For lav: %d").value(0).targetIds(List.of("q8b"))), questions);
+
+        // Assert
+        assertTrue(rules.get(0).dependsOnAny(List.of("q8b")));
+        assertFalse(rules.get(0).dependsOnAny(List.of("q8")));
+    }
+
+    @Test
+    @DisplayName("Regler med ukendte spørgsmål skal springes over ved kompilering og afvises ved verify")
+    void testUnknownOrder() {
+        // Arrange
+        List<ValidationRuleDefinition> definitions = List.of(
+            new ValidationRuleDefinition(RuleType.REQUIRED, List.of(42), "Mangler"));
+
+        // Act & Assert
+        assertTrue(compiler.compile(definitions, questions).isEmpty());
+        assertThrows(ValidationException.class, () -> compiler.verify(definitions, questions));
+    }
+
+    @Test
+    @DisplayName("Spørgsmål med samme order skal skelnes på type eller eksplicit ID")
+    void testSharedOrder() {
+        // Arrange - conditional child med samme order som sin parent
+        questions.add(question("q6child", 6, QuestionType.numeric));
+        questions.add(question("q6text", 6, QuestionType.text));
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q6", "wake_yes");
+        answers.put("q6child", -1);
+
+        // Act
+        List<CrossFieldRule> byType = compiler.compile(List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(6), "For lav: %d").value(0)), questions);
+        List<ValidationRuleDefinition> ambiguous = List.of(
+            new ValidationRuleDefinition(RuleType.REQUIRED, List.of(6), "Mangler"));
+        List<ValidationRuleDefinition> byId = List.of(
+            new ValidationRuleDefinition(RuleType.REQUIRED, List.of(6), "Mangler").targetIds(List.of("q6text")));
+
+        // Assert
+        ValidationException e = assertThrows(ValidationException.class, () -> byType.get(0).apply(new RuleContext(questions, answers)));
+        assertEquals("For lav: -1", e.getMessage());
+        assertThrows(ValidationException.class, () -> compiler.verify(ambiguous, questions));
+        assertDoesNotThrow(() -> compiler.verify(byId, questions));
+        assertThrows(ValidationException.class, () -> compiler.compile(byId, questions).get(0).apply(new RuleContext(questions, answers)));
+    }
+
+    @Test
+    @DisplayName("En fejlbesked med ugyldigt format skal afvises ved verify")
+    void testInvalidMessageFormat() {
+        // Arrange
+        List<ValidationRuleDefinition> stray = List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "Mindst 50% af %d").value(0));
+        List<ValidationRuleDefinition> mismatch = List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "For lav: %d %s").value(0));
+        List<ValidationRuleDefinition> valid = List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "Mindst 50%% - du skrev %d").value(0));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> compiler.verify(stray, questions));
+        assertThrows(ValidationException.class, () -> compiler.verify(mismatch, questions));
+        assertDoesNotThrow(() -> compiler.verify(valid, questions));
+    }
+
+    @Test
+    @DisplayName("En ny order må ikke flytte en regel til et andet spørgsmål, medmindre reglen har spørgsmåls ID'er")
+    void testReorderKeepsRuleQuestions() {
+        // Arrange - q7 og q8 bytter order
+        List<ValidationRuleDefinition> definitions = List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "For lav: %d").value(0));
+        List<Question> reordered = new ArrayList<>(questions.subList(0, 3));
+        reordered.add(question("q7", 8, QuestionType.numeric));
+        reordered.add(question("q8", 7, QuestionType.numeric));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> compiler.verifyUnchanged(definitions, questions, reordered));
+        compiler.pinQuestionIds(definitions, questions);
+        assertEquals(List.of("q7"), definitions.get(0).getTargetQuestionIds());
+        assertDoesNotThrow(() -> compiler.verifyUnchanged(definitions, questions, reordered));
+    }
+
+    @Test
+    @DisplayName("Et eksplicit spørgsmåls ID skal have en type regeltypen kan læse")
+    void testExplicitIdMustHaveRuleType() {
+        // Arrange
+        List<ValidationRuleDefinition> definitions = List.of(
+            new ValidationRuleDefinition(RuleType.MIN_VALUE, List.of(7), "For lav: %d").value(0).targetIds(List.of("q3")));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> compiler.verify(definitions, questions));
+    }
+
+    private Question question(String id, int order, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setOrder(order);
+        question.setType(type);
+        return question;
+    }
+}
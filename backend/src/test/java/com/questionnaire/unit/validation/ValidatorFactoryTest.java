@@ -0,0 +1,68 @@
+package com.questionnaire.unit.validation;
+
+import com.questionnaire.model.AnswerValue;
+import com.questionnaire.model.Question;
+import com.questionnaire.model.QuestionType;
+import com.questionnaire.validation.AnswerValidator;
+import com.questionnaire.validation.ValidationResult;
+import com.questionnaire.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ValidatorFactory
+ * Tests that the compiled validator is built once per question instance and rebuilt when its bounds change
+ */
+@DisplayName("ValidatorFactory Unit Tests")
+class ValidatorFactoryTest {
+
+    private ValidatorFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ValidatorFactory();
+    }
+
+    @Test
+    @DisplayName("Samme spørgsmålsinstans skal genbruge sin kompilerede validator")
+    void testReusesCompiledValidator() {
+        // Arrange
+        Question question = question("q1");
+
+        // Act
+        AnswerValidator first = factory.getValidator(question);
+        AnswerValidator second = factory.getValidator(question);
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, factory.getValidator(question("q1")), "En ny spørgsmålsinstans skal have sin egen validator");
+    }
+
+    @Test
+    @DisplayName("Ændrede grænser skal give en ny kompileret validator")
+    void testRecompilesWhenBoundsChange() {
+        // Arrange
+        Question question = question("q1");
+        AnswerValidator before = factory.getValidator(question);
+
+        // Act
+        question.setMaxValue(20);
+        AnswerValidator after = factory.getValidator(question);
+        ValidationResult result = new ValidationResult();
+        after.validate(question, AnswerValue.parse(QuestionType.numeric, 15), result);
+
+        // Assert
+        assertNotSame(before, after);
+        assertTrue(result.isValid(), "15 skal være gyldig efter max er hævet til 20");
+    }
+
+    private Question question(String id) {
+        Question question = new Question("qn1", id, QuestionType.numeric, false, 1);
+        question.setId(id);
+        question.setMinValue(0);
+        question.setMaxValue(10);
+        return question;
+    }
+}